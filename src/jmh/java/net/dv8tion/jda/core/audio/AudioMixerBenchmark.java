@@ -0,0 +1,110 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.audio;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures mixing one 20ms tick of combined audio for a growing amount of speakers, comparing the former
+ * mix over linked lists with the {@link AudioMixer}. Run with {@code -prof gc} to see the allocation rate per tick.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class AudioMixerBenchmark
+{
+    @Param({"1", "5", "10", "25", "50"})
+    public int speakers;
+
+    private final AudioMixer mixer = new AudioMixer();
+    private final short[] output = new short[AudioMixer.FRAME_SAMPLES];
+    private short[][] frames;
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(42);
+        frames = new short[speakers][AudioMixer.FRAME_SAMPLES];
+        for (short[] frame : frames)
+        {
+            for (int i = 0; i < frame.length; i++)
+                frame[i] = (short) (random.nextGaussian() * 6000);
+        }
+    }
+
+    @Benchmark
+    public short[] linkedListMix()
+    {
+        List<short[]> audioParts = new LinkedList<>();
+        for (short[] frame : frames)
+            audioParts.add(frame);
+
+        int audioLength = audioParts.get(0).length;
+        short[] mix = new short[1920];
+        int sample;
+        for (int i = 0; i < audioLength; i++)
+        {
+            sample = 0;
+            for (short[] audio : audioParts)
+            {
+                sample += audio[i];
+            }
+            if (sample > Short.MAX_VALUE)
+                mix[i] = Short.MAX_VALUE;
+            else if (sample < Short.MIN_VALUE)
+                mix[i] = Short.MIN_VALUE;
+            else
+                mix[i] = (short) sample;
+        }
+        return mix;
+    }
+
+    @Benchmark
+    public short[] mixerHard()
+    {
+        return mix(AudioMixer.Clipping.HARD);
+    }
+
+    @Benchmark
+    public short[] mixerSoft()
+    {
+        return mix(AudioMixer.Clipping.SOFT);
+    }
+
+    @Benchmark
+    public short[] mixerNormalize()
+    {
+        return mix(AudioMixer.Clipping.NORMALIZE);
+    }
+
+    private short[] mix(AudioMixer.Clipping clipping)
+    {
+        mixer.clear();
+        for (short[] frame : frames)
+            mixer.add(frame);
+        mixer.mix(output, clipping);
+        return output;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.audio;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many encrypted audio packets a single core can build per second, comparing
+ * {@link AudioPacket#asEncryptedUdpPacket(InetSocketAddress, byte[])} with the reusable {@link AudioPacketWriter}.
+ * Run with {@code -prof gc} to see the allocation rate per packet.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class AudioPacketBenchmark
+{
+    /** Typical opus frame sizes: silence-like, speech at 64kbps and music at 128kbps. */
+    @Param({"3", "160", "320"})
+    public int frameLength;
+
+    private final InetSocketAddress address = new InetSocketAddress("127.0.0.1", 50000);
+    private final byte[] secretKey = new byte[32];
+    private final AudioPacketWriter writer = new AudioPacketWriter();
+    private byte[] frame;
+    private char seq;
+    private int timestamp;
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(42);
+        random.nextBytes(secretKey);
+        frame = new byte[frameLength];
+        random.nextBytes(frame);
+    }
+
+    @Benchmark
+    public DatagramPacket audioPacket()
+    {
+        return new AudioPacket(seq++, timestamp += AudioConnection.OPUS_FRAME_SIZE, 1234, frame).asEncryptedUdpPacket(address, secretKey);
+    }
+
+    @Benchmark
+    public DatagramPacket packetWriter()
+    {
+        return writer.write(seq++, timestamp += AudioConnection.OPUS_FRAME_SIZE, 1234, frame, 0, frame.length, address, secretKey);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.entities;
+
+import net.dv8tion.jda.core.requests.GatewayPayloads;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link EntityBuilder#createMessage(JSONObject)} for a guild message with a user mention.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityBuilderBenchmark
+{
+    private EntityBuilder builder;
+    private JSONObject message;
+
+    @Setup
+    public void setup()
+    {
+        builder = EntityBuilder.get(GatewayPayloads.createLoadedJDA(1000));
+        message = new GatewayPayloads().message(1, 42);
+    }
+
+    @Benchmark
+    public Message createMessage()
+    {
+        return builder.createMessage(message);
+    }
+}
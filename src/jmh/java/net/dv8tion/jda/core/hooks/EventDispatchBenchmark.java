@@ -0,0 +1,214 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.dv8tion.jda.core.hooks;
+
+import net.dv8tion.jda.core.AccountType;
+import net.dv8tion.jda.core.entities.impl.JDAImpl;
+import net.dv8tion.jda.core.events.Event;
+import net.dv8tion.jda.core.events.ReadyEvent;
+import net.dv8tion.jda.core.events.channel.text.update.TextChannelUpdateNameEvent;
+import net.dv8tion.jda.core.events.guild.GuildJoinEvent;
+import net.dv8tion.jda.core.events.message.MessageDeleteEvent;
+import net.dv8tion.jda.core.events.message.guild.GenericGuildMessageEvent;
+import net.dv8tion.jda.core.events.message.guild.GuildMessageDeleteEvent;
+import net.dv8tion.jda.core.events.user.UserGameUpdateEvent;
+import net.dv8tion.jda.core.events.user.UserOnlineStatusUpdateEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of dispatching a single event to a set of {@link ListenerAdapter ListenerAdapters} where each
+ * listener only overrides one handler method, comparing the {@link InterfacedEventManager} to the {@link IndexedEventManager}.
+ * <br>The {@link AnnotatedEventManager} is measured with the same number of listeners, each subscribing to one event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventDispatchBenchmark
+{
+    @Param({"10", "40"})
+    public int listeners;
+
+    private InterfacedEventManager interfaced;
+    private IndexedEventManager indexed;
+    private AnnotatedEventManager annotated;
+    private Event presenceEvent;
+    private Event messageDeleteEvent;
+    private long handled;
+
+    @Setup
+    public void setup()
+    {
+        JDAImpl api = new JDAImpl(AccountType.BOT, null, false, false, false, false);
+        presenceEvent = new UserGameUpdateEvent(api, 0, null, null, null);
+        messageDeleteEvent = new GuildMessageDeleteEvent(api, 0, "265236425812623360", null);
+
+        interfaced = new InterfacedEventManager();
+        indexed = new IndexedEventManager();
+        annotated = new AnnotatedEventManager();
+        for (int i = 0; i < listeners; i++)
+        {
+            EventListener listener = createListener(i);
+            interfaced.register(listener);
+            indexed.register(listener);
+            annotated.register(index(i) % 2 == 0 ? new MessageDeleteSubscriber(this) : new GameUpdateSubscriber(this));
+        }
+        // populate the dispatch table outside of the measurement
+        indexed.handle(presenceEvent);
+        indexed.handle(messageDeleteEvent);
+        annotated.handle(presenceEvent);
+        annotated.handle(messageDeleteEvent);
+    }
+
+    @Benchmark
+    public long interfacedPresence()
+    {
+        interfaced.handle(presenceEvent);
+        return handled;
+    }
+
+    @Benchmark
+    public long indexedPresence()
+    {
+        indexed.handle(presenceEvent);
+        return handled;
+    }
+
+    @Benchmark
+    public long interfacedMessageDelete()
+    {
+        interfaced.handle(messageDeleteEvent);
+        return handled;
+    }
+
+    @Benchmark
+    public long indexedMessageDelete()
+    {
+        indexed.handle(messageDeleteEvent);
+        return handled;
+    }
+
+    @Benchmark
+    public long annotatedPresence()
+    {
+        annotated.handle(presenceEvent);
+        return handled;
+    }
+
+    @Benchmark
+    public long annotatedMessageDelete()
+    {
+        annotated.handle(messageDeleteEvent);
+        return handled;
+    }
+
+    private static int index(int i)
+    {
+        return i % 8;
+    }
+
+    private EventListener createListener(int index)
+    {
+        switch (index(index))
+        {
+            case 0:
+                return new ListenerAdapter()
+                {
+                    @Override
+                    public void onGuildMessageDelete(GuildMessageDeleteEvent event) { handled++; }
+                };
+            case 1:
+                return new ListenerAdapter()
+                {
+                    @Override
+                    public void onReady(ReadyEvent event) { handled++; }
+                };
+            case 2:
+                return new ListenerAdapter()
+                {
+                    @Override
+                    public void onGuildJoin(GuildJoinEvent event) { handled++; }
+                };
+            case 3:
+                return new ListenerAdapter()
+                {
+                    @Override
+                    public void onTextChannelUpdateName(TextChannelUpdateNameEvent event) { handled++; }
+                };
+            case 4:
+                return new ListenerAdapter()
+                {
+                    @Override
+                    public void onUserOnlineStatusUpdate(UserOnlineStatusUpdateEvent event) { handled++; }
+                };
+            case 5:
+                return new ListenerAdapter()
+                {
+                    @Override
+                    public void onMessageDelete(MessageDeleteEvent event) { handled++; }
+                };
+            case 6:
+                return new ListenerAdapter()
+                {
+                    @Override
+                    public void onGenericGuildMessage(GenericGuildMessageEvent event) { handled++; }
+                };
+            default:
+                return new ListenerAdapter()
+                {
+                    @Override
+                    public void onUserGameUpdate(UserGameUpdateEvent event) { handled++; }
+                };
+        }
+    }
+
+    public static class MessageDeleteSubscriber
+    {
+        private final EventDispatchBenchmark benchmark;
+
+        public MessageDeleteSubscriber(EventDispatchBenchmark benchmark)
+        {
+            this.benchmark = benchmark;
+        }
+
+        @SubscribeEvent
+        public void onMessageDelete(GuildMessageDeleteEvent event)
+        {
+            benchmark.handled++;
+        }
+    }
+
+    public static class GameUpdateSubscriber
+    {
+        private final EventDispatchBenchmark benchmark;
+
+        public GameUpdateSubscriber(EventDispatchBenchmark benchmark)
+        {
+            this.benchmark = benchmark;
+        }
+
+        @SubscribeEvent
+        public void onGameUpdate(UserGameUpdateEvent event)
+        {
+            benchmark.handled++;
+        }
+    }
+}
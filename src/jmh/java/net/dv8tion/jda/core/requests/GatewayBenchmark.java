@@ -0,0 +1,106 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.requests;
+
+import net.dv8tion.jda.core.AccountType;
+import net.dv8tion.jda.core.hooks.ListenerAdapter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link WebSocketClient#onTextMessage(com.neovisionaries.ws.client.WebSocket, String)} up to the event
+ * listeners for the most frequent dispatch types, on a guild with 1k, 10k and 100k members.
+ * <br>One no-op {@link ListenerAdapter} is registered so events are created like in a normal bot.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayBenchmark
+{
+    @Param({"1000", "10000", "100000"})
+    public int members;
+
+    private WebSocketClient client;
+    private String messageCreate;
+    private String[] presenceUpdates;
+    private int presenceIndex;
+
+    @Setup
+    public void setup()
+    {
+        GatewayReplayer replayer = GatewayPayloads.createLoadedReplayer(members);
+        replayer.getJDA().addEventListener(new ListenerAdapter() {});
+        client = replayer.getJDA().getClient();
+
+        GatewayPayloads payloads = new GatewayPayloads();
+        messageCreate = payloads.messageCreate(1, 42);
+        // alternate the status and game of one member, so every update changes something
+        presenceUpdates = new String[] {
+                payloads.presenceUpdate(members / 2, "online", "Benchmarks"),
+                payloads.presenceUpdate(members / 2, "idle", null)
+        };
+    }
+
+    @Benchmark
+    public void messageCreate()
+    {
+        client.onTextMessage(null, messageCreate);
+    }
+
+    @Benchmark
+    public void presenceUpdate()
+    {
+        client.onTextMessage(null, presenceUpdates[presenceIndex++ & 1]);
+    }
+
+    /**
+     * Loads the whole guild into a fresh JDA instance. Only the GUILD_CREATE itself is measured.
+     */
+    @State(Scope.Thread)
+    public static class GuildCreateState
+    {
+        private String guildCreate;
+        private WebSocketClient client;
+
+        @Setup(Level.Trial)
+        public void createPayload(GatewayBenchmark benchmark)
+        {
+            guildCreate = new GatewayPayloads().guildCreate(benchmark.members);
+        }
+
+        @Setup(Level.Invocation)
+        public void createClient()
+        {
+            GatewayReplayer replayer = new GatewayReplayer(AccountType.BOT);
+            replayer.replay(new GatewayPayloads().ready());
+            client = replayer.getJDA().getClient();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 10)
+    @Measurement(iterations = 10)
+    public void guildCreate(GuildCreateState state)
+    {
+        state.client.onTextMessage(null, state.guildCreate);
+    }
+}
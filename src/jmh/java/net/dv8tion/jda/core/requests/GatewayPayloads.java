@@ -0,0 +1,245 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.requests;
+
+import net.dv8tion.jda.core.AccountType;
+import net.dv8tion.jda.core.entities.impl.JDAImpl;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Builds synthetic gateway payloads for the benchmarks and a {@link GatewayReplayer} backed JDA instance
+ * that has loaded a single guild with the requested amount of members, without any network access.
+ * <p>
+ * Every 10th member has the {@link #ROLE_ID moderator role} and every 4th member is online.
+ */
+public class GatewayPayloads
+{
+    public static final String SELF_ID = "100000000000000000";
+    public static final String GUILD_ID = "200000000000000000";
+    public static final String CHANNEL_ID = "300000000000000000";
+    public static final String VOICE_CHANNEL_ID = "300000000000000001";
+    public static final String ROLE_ID = "400000000000000000";
+    public static final String JOIN_DATE = "2016-12-01T00:00:00.000000+00:00";
+
+    private long sequence = 0;
+
+    /**
+     * Creates a JDA instance which received READY and a GUILD_CREATE for a guild with the provided amount of members.
+     *
+     * @param  members
+     *         The amount of members of the guild, including the bot itself
+     *
+     * @return The replayer holding the loaded JDA instance
+     */
+    public static GatewayReplayer createLoadedReplayer(int members)
+    {
+        GatewayReplayer replayer = new GatewayReplayer(AccountType.BOT);
+        GatewayPayloads payloads = new GatewayPayloads();
+        replayer.replay(payloads.ready());
+        replayer.replay(payloads.guildCreate(members));
+        return replayer;
+    }
+
+    /**
+     * Shortcut for {@code createLoadedReplayer(members).getJDA()}.
+     *
+     * @param  members
+     *         The amount of members of the guild, including the bot itself
+     *
+     * @return The loaded JDA instance
+     */
+    public static JDAImpl createLoadedJDA(int members)
+    {
+        return createLoadedReplayer(members).getJDA();
+    }
+
+    public static String userId(int index)
+    {
+        return String.valueOf(500000000000000000L + index);
+    }
+
+    public static JSONObject user(int index)
+    {
+        return new JSONObject()
+                .put("id", userId(index))
+                .put("username", "User " + index)
+                .put("discriminator", String.format("%04d", index % 10000))
+                .put("avatar", JSONObject.NULL)
+                .put("bot", false);
+    }
+
+    public String ready()
+    {
+        JSONObject self = new JSONObject()
+                .put("id", SELF_ID)
+                .put("username", "Benchmark")
+                .put("discriminator", "0001")
+                .put("avatar", JSONObject.NULL)
+                .put("bot", true)
+                .put("verified", true)
+                .put("mfa_enabled", false)
+                .put("email", JSONObject.NULL);
+        JSONArray guilds = new JSONArray()
+                .put(new JSONObject().put("id", GUILD_ID).put("unavailable", true));
+        return dispatch("READY", new JSONObject()
+                .put("v", 6)
+                .put("user", self)
+                .put("guilds", guilds)
+                .put("private_channels", new JSONArray())
+                .put("session_id", "benchmark")
+                .put("_trace", new JSONArray()));
+    }
+
+    public String guildCreate(int members)
+    {
+        JSONArray roles = new JSONArray()
+                .put(role(GUILD_ID, "@everyone", 0, 104324161L, 0))
+                .put(role(ROLE_ID, "Moderator", 1, 8L, 0xff0000));
+
+        JSONArray memberArray = new JSONArray();
+        JSONArray presences = new JSONArray();
+        JSONObject self = new JSONObject()
+                .put("id", SELF_ID)
+                .put("username", "Benchmark")
+                .put("discriminator", "0001")
+                .put("avatar", JSONObject.NULL)
+                .put("bot", true);
+        memberArray.put(member(self, new JSONArray()));
+        for (int i = 1; i < members; i++)
+        {
+            memberArray.put(member(user(i), i % 10 == 0 ? new JSONArray().put(ROLE_ID) : new JSONArray()));
+            if (i % 4 == 0)
+            {
+                presences.put(new JSONObject()
+                        .put("user", new JSONObject().put("id", userId(i)))
+                        .put("status", "online")
+                        .put("game", JSONObject.NULL));
+            }
+        }
+
+        JSONArray overrides = new JSONArray()
+                .put(new JSONObject().put("id", ROLE_ID).put("type", "role").put("allow", 8192).put("deny", 0))
+                .put(new JSONObject().put("id", userId(1)).put("type", "member").put("allow", 0).put("deny", 2048));
+        JSONArray channels = new JSONArray()
+                .put(new JSONObject()
+                        .put("id", CHANNEL_ID)
+                        .put("type", 0)
+                        .put("name", "general")
+                        .put("topic", JSONObject.NULL)
+                        .put("position", 0)
+                        .put("permission_overwrites", overrides))
+                .put(new JSONObject()
+                        .put("id", VOICE_CHANNEL_ID)
+                        .put("type", 2)
+                        .put("name", "General")
+                        .put("position", 0)
+                        .put("user_limit", 0)
+                        .put("bitrate", 64000)
+                        .put("permission_overwrites", new JSONArray()));
+
+        return dispatch("GUILD_CREATE", new JSONObject()
+                .put("id", GUILD_ID)
+                .put("name", "Benchmark Guild")
+                .put("icon", JSONObject.NULL)
+                .put("splash", JSONObject.NULL)
+                .put("owner_id", SELF_ID)
+                .put("region", "us-east")
+                .put("afk_channel_id", JSONObject.NULL)
+                .put("afk_timeout", 300)
+                .put("verification_level", 0)
+                .put("default_message_notifications", 0)
+                .put("mfa_level", 0)
+                .put("roles", roles)
+                .put("emojis", new JSONArray())
+                .put("features", new JSONArray())
+                .put("member_count", members)
+                .put("members", memberArray)
+                .put("presences", presences)
+                .put("channels", channels)
+                .put("voice_states", new JSONArray())
+                .put("large", members > 250)
+                .put("joined_at", JOIN_DATE));
+    }
+
+    public JSONObject message(long id, int author)
+    {
+        return new JSONObject()
+                .put("id", String.valueOf(600000000000000000L + id))
+                .put("channel_id", CHANNEL_ID)
+                .put("author", user(author))
+                .put("content", "Hello <@" + userId(author + 1) + ">, this is message " + id)
+                .put("timestamp", "2017-01-01T00:00:00.000000+00:00")
+                .put("edited_timestamp", JSONObject.NULL)
+                .put("tts", false)
+                .put("mention_everyone", false)
+                .put("mentions", new JSONArray().put(user(author + 1)))
+                .put("mention_roles", new JSONArray())
+                .put("attachments", new JSONArray())
+                .put("embeds", new JSONArray())
+                .put("pinned", false)
+                .put("type", 0);
+    }
+
+    public String messageCreate(long id, int author)
+    {
+        return dispatch("MESSAGE_CREATE", message(id, author));
+    }
+
+    public String presenceUpdate(int member, String status, String game)
+    {
+        return dispatch("PRESENCE_UPDATE", new JSONObject()
+                .put("user", new JSONObject().put("id", userId(member)))
+                .put("guild_id", GUILD_ID)
+                .put("status", status)
+                .put("roles", new JSONArray())
+                .put("game", game == null ? JSONObject.NULL : new JSONObject().put("name", game).put("type", 0)));
+    }
+
+    private String dispatch(String type, JSONObject content)
+    {
+        return new JSONObject()
+                .put("op", 0)
+                .put("s", ++sequence)
+                .put("t", type)
+                .put("d", content)
+                .toString();
+    }
+
+    private static JSONObject role(String id, String name, int position, long permissions, int color)
+    {
+        return new JSONObject()
+                .put("id", id)
+                .put("name", name)
+                .put("position", position)
+                .put("permissions", permissions)
+                .put("managed", false)
+                .put("hoist", false)
+                .put("color", color)
+                .put("mentionable", false);
+    }
+
+    private static JSONObject member(JSONObject user, JSONArray roles)
+    {
+        return new JSONObject()
+                .put("user", user)
+                .put("roles", roles)
+                .put("mute", false)
+                .put("deaf", false)
+                .put("joined_at", JOIN_DATE)
+                .put("nick", JSONObject.NULL);
+    }
+}
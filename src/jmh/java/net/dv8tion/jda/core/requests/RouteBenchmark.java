@@ -0,0 +1,72 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.dv8tion.jda.core.requests;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Route#compile(String...)} and the bucket lookup of the compiled ratelimit route against the
+ * previous String.format based compilation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteBenchmark
+{
+    private final ConcurrentHashMap<String, Object> buckets = new ConcurrentHashMap<>();
+    private String channelId;
+    private String messageId;
+
+    @Setup
+    public void setup()
+    {
+        channelId = "201503408652419073";
+        messageId = "265236425812623360";
+        Object bucket = new Object();
+        buckets.put(Route.Messages.SEND_MESSAGE.compile(channelId).getRatelimitRoute(), bucket);
+        buckets.put(String.format(Route.Messages.EDIT_MESSAGE.getRatelimitRoute(), channelId), bucket);
+    }
+
+    @Benchmark
+    public void compile(Blackhole blackhole)
+    {
+        Route.CompiledRoute route = Route.Messages.EDIT_MESSAGE.compile(channelId, messageId);
+        blackhole.consume(route.getCompiledRoute());
+        blackhole.consume(buckets.get(route.getRatelimitRoute()));
+        blackhole.consume(route.hashCode());
+    }
+
+    @Benchmark
+    public void compileLegacy(Blackhole blackhole)
+    {
+        Route route = Route.Messages.EDIT_MESSAGE;
+        String compiledRoute = String.format(route.getCompilableRoute(), channelId, messageId);
+        String[] majorParams = new String[1];
+        majorParams[0] = channelId;
+        String ratelimitRoute = String.format(route.getRatelimitRoute(), (Object[]) majorParams);
+        blackhole.consume(compiledRoute);
+        blackhole.consume(buckets.get(ratelimitRoute));
+        blackhole.consume((compiledRoute + route.getMethod().toString()).hashCode());
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.utils;
+
+import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.Member;
+import net.dv8tion.jda.core.entities.TextChannel;
+import net.dv8tion.jda.core.requests.GatewayPayloads;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link PermissionUtil#getEffectivePermission(Guild, Member)} and
+ * {@link PermissionUtil#getEffectivePermission(net.dv8tion.jda.core.entities.Channel, Member)}
+ * for a member with a role override, a member with a member override and a member without roles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionUtilBenchmark
+{
+    @Param({"moderator", "member-override", "plain"})
+    public String member;
+
+    private Guild guild;
+    private TextChannel channel;
+    private Member target;
+
+    @Setup
+    public void setup()
+    {
+        guild = GatewayPayloads.createLoadedJDA(1000).getGuildById(GatewayPayloads.GUILD_ID);
+        channel = guild.getTextChannelById(GatewayPayloads.CHANNEL_ID);
+        int index;
+        switch (member)
+        {
+            case "moderator":
+                index = 10;
+                break;
+            case "member-override":
+                index = 1;
+                break;
+            default:
+                index = 3;
+        }
+        target = guild.getMemberById(GatewayPayloads.userId(index));
+    }
+
+    @Benchmark
+    public long guildPermission()
+    {
+        return PermissionUtil.getEffectivePermission(guild, target);
+    }
+
+    @Benchmark
+    public long channelPermission()
+    {
+        return PermissionUtil.getEffectivePermission(channel, target);
+    }
+}
@@ -19,6 +19,7 @@ package net.dv8tion.jda.core;
 import net.dv8tion.jda.bot.JDABot;
 import net.dv8tion.jda.client.JDAClient;
 import net.dv8tion.jda.core.entities.*;
+import net.dv8tion.jda.core.hooks.EventFilter;
 import net.dv8tion.jda.core.hooks.IEventManager;
 import net.dv8tion.jda.core.managers.Presence;
 import net.dv8tion.jda.core.requests.RestAction;
@@ -125,6 +126,23 @@ public interface JDA
      */
     void addEventListener(Object... listeners);
 
+    /**
+     * Adds a listener that only receives the events accepted by the provided {@link net.dv8tion.jda.core.hooks.EventFilter EventFilter}.
+     * <br>The {@link net.dv8tion.jda.core.hooks.IndexedEventManager IndexedEventManager} indexes listeners filtered by guild or channel,
+     * so they cost nothing for events of other guilds and channels. Event managers without filter support of their own
+     * receive the listener wrapped in a {@link net.dv8tion.jda.core.hooks.FilteredEventListener FilteredEventListener}.
+     *
+     * @param listener
+     *          The listener
+     * @param filter
+     *          The filter deciding which events the listener receives
+     *
+     * @throws IllegalArgumentException
+     *          If the current {@link net.dv8tion.jda.core.hooks.IEventManager IEventManager} has no filter support of its own
+     *          and the listener is not an {@link net.dv8tion.jda.core.hooks.EventListener EventListener}
+     */
+    void addEventListener(Object listener, EventFilter filter);
+
     /**
      * Removes all provided listeners from the event-listeners and no longer uses it to handle events.
      *
@@ -16,12 +16,16 @@
 package net.dv8tion.jda.core;
 
 import net.dv8tion.jda.core.JDA.Status;
+import net.dv8tion.jda.core.audio.factory.IAudioReceiveFactory;
 import net.dv8tion.jda.core.audio.factory.IAudioSendFactory;
 import net.dv8tion.jda.core.entities.Game;
 import net.dv8tion.jda.core.entities.impl.JDAImpl;
 import net.dv8tion.jda.core.exceptions.RateLimitedException;
 import net.dv8tion.jda.core.hooks.IEventManager;
 import net.dv8tion.jda.core.managers.impl.PresenceImpl;
+import net.dv8tion.jda.core.requests.DispatchTracer;
+import net.dv8tion.jda.core.requests.RawGatewayListener;
+import net.dv8tion.jda.core.requests.RequestMetricsListener;
 import org.apache.http.HttpHost;
 import org.apache.http.util.Args;
 
@@ -56,6 +60,10 @@ public class JDABuilder
     protected boolean idle = false;
     protected IEventManager eventManager = null;
     protected IAudioSendFactory audioSendFactory = null;
+    protected IAudioReceiveFactory audioReceiveFactory = null;
+    protected RequestMetricsListener requestMetricsListener = null;
+    protected RawGatewayListener rawGatewayListener = null;
+    protected DispatchTracer dispatchTracer = null;
     protected JDA.ShardInfo shardInfo = null;
     protected Game game = null;
     protected OnlineStatus status = OnlineStatus.ONLINE;
@@ -187,10 +195,14 @@ public class JDABuilder
 
     /**
      * Changes the internally used EventManager.
-     * There are 2 provided Implementations:
+     * There are 4 provided Implementations:
      * <ul>
      *     <li>{@link net.dv8tion.jda.core.hooks.InterfacedEventManager} which uses the Interface {@link net.dv8tion.jda.core.hooks.EventListener}
      *     (tip: use the {@link net.dv8tion.jda.core.hooks.ListenerAdapter}). This is the default EventManager.</li>
+     *     <li>{@link net.dv8tion.jda.core.hooks.IndexedEventManager} which also uses the Interface {@link net.dv8tion.jda.core.hooks.EventListener}
+     *     but only calls the {@link net.dv8tion.jda.core.hooks.ListenerAdapter ListenerAdapters} that override a method for the fired event.</li>
+     *     <li>{@link net.dv8tion.jda.core.hooks.AsyncEventManager} which handles the events of another IEventManager on a worker pool,
+     *     keeping the order of events per guild and per channel.</li>
      *     <li>{@link net.dv8tion.jda.core.hooks.AnnotatedEventManager} which uses the Annotation {@link net.dv8tion.jda.core.hooks.SubscribeEvent} to mark the methods that listen for events.</li>
      * </ul>
      * You can also create your own EventManager (See {@link net.dv8tion.jda.core.hooks.IEventManager}).
@@ -212,6 +224,78 @@ public class JDABuilder
         return this;
     }
 
+    /**
+     * Changes the factory used to create the systems receiving the audio of voice connections.
+     * <br>By default every connection uses its own receiving thread, a
+     * {@link net.dv8tion.jda.core.audio.factory.SelectorReceiveFactory SelectorReceiveFactory} receives all connections
+     * on one selector thread and a few worker threads instead.
+     *
+     * @param  factory
+     *         The {@link net.dv8tion.jda.core.audio.factory.IAudioReceiveFactory IAudioReceiveFactory} to use
+     *
+     * @return Returns the {@link net.dv8tion.jda.core.JDABuilder JDABuilder} instance. Useful for chaining.
+     */
+    public JDABuilder setAudioReceiveFactory(IAudioReceiveFactory factory)
+    {
+        this.audioReceiveFactory = factory;
+        return this;
+    }
+
+    /**
+     * Sets the {@link net.dv8tion.jda.core.requests.RequestMetricsListener RequestMetricsListener} that receives
+     * latency, queue wait and ratelimit information of all REST requests made by the JDA instance.<br>
+     * Use {@link net.dv8tion.jda.core.requests.RequestMetrics RequestMetrics} for a built-in in-memory aggregation.
+     * <p>
+     * Default: <b>null (no metrics are recorded)</b>
+     *
+     * @param listener
+     *      The listener to use
+     * @return
+     *      Returns the {@link net.dv8tion.jda.core.JDABuilder JDABuilder} instance. Useful for chaining.
+     */
+    public JDABuilder setRequestMetricsListener(RequestMetricsListener listener)
+    {
+        this.requestMetricsListener = listener;
+        return this;
+    }
+
+    /**
+     * Sets the {@link net.dv8tion.jda.core.requests.RawGatewayListener RawGatewayListener} that receives every
+     * raw frame of the main WebSocket before it is processed.<br>
+     * Use {@link net.dv8tion.jda.core.requests.GatewayRecorder GatewayRecorder} to record the gateway stream for
+     * offline replay with the {@link net.dv8tion.jda.core.requests.GatewayReplayer GatewayReplayer}.
+     * <p>
+     * Default: <b>null (frames are not passed on)</b>
+     *
+     * @param listener
+     *      The listener to use
+     * @return
+     *      Returns the {@link net.dv8tion.jda.core.JDABuilder JDABuilder} instance. Useful for chaining.
+     */
+    public JDABuilder setRawGatewayListener(RawGatewayListener listener)
+    {
+        this.rawGatewayListener = listener;
+        return this;
+    }
+
+    /**
+     * Sets the {@link net.dv8tion.jda.core.requests.DispatchTracer DispatchTracer} that records how long gateway
+     * dispatches take from frame receipt until decoding, handling and every listener call.<br>
+     * The recorded histograms can be read from the tracer at any time.
+     * <p>
+     * Default: <b>null (dispatches are not traced)</b>
+     *
+     * @param tracer
+     *      The tracer to use
+     * @return
+     *      Returns the {@link net.dv8tion.jda.core.JDABuilder JDABuilder} instance. Useful for chaining.
+     */
+    public JDABuilder setDispatchTracer(DispatchTracer tracer)
+    {
+        this.dispatchTracer = tracer;
+        return this;
+    }
+
     /**
      * Sets whether or not we should mark our session as afk<p>
      * This value can be changed at any time in the {@link net.dv8tion.jda.core.managers.Presence Presence} from a JDA instance.
@@ -356,6 +440,18 @@ public class JDABuilder
         if (audioSendFactory != null)
             jda.setAudioSendFactory(audioSendFactory);
 
+        if (audioReceiveFactory != null)
+            jda.setAudioReceiveFactory(audioReceiveFactory);
+
+        if (requestMetricsListener != null)
+            jda.setRequestMetricsListener(requestMetricsListener);
+
+        if (rawGatewayListener != null)
+            jda.setRawGatewayListener(rawGatewayListener);
+
+        if (dispatchTracer != null)
+            jda.setDispatchTracer(dispatchTracer);
+
         listeners.forEach(jda::addEventListener);
         jda.setStatus(JDA.Status.INITIALIZED);  //This is already set by JDA internally, but this is to make sure the listeners catch it.
 //        jda.login(token, sharding);
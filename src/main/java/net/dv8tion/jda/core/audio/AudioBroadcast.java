@@ -0,0 +1,187 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.core.audio;
+
+import org.apache.http.util.Args;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays the audio of one {@link net.dv8tion.jda.core.audio.AudioSendHandler AudioSendHandler} in many voice connections,
+ * encoding every frame only once.
+ * <p>
+ * Every connection gets its own handler from {@link #createSendHandler()}. The first handler that asks for a new frame
+ * pulls it from the source and encodes it, all other handlers return the same Opus frame, so the connections only
+ * write their own RTP header and encrypt it. The encoding cost depends on the amount of broadcasts,
+ * not on the amount of connections listening to them.
+ * <p>
+ * The broadcast advances whenever the connection furthest ahead asks for the next frame. A connection that falls more than
+ * {@link #BUFFERED_FRAMES} frames behind skips to the newest frame. Connections using the same
+ * {@link net.dv8tion.jda.core.audio.factory.IAudioSendFactory IAudioSendFactory} send at the same rate and stay in step.
+ *
+ * <pre><code>
+ * AudioBroadcast radio = new AudioBroadcast(sourceHandler);
+ * for (Guild guild : guilds)
+ *     guild.getAudioManager().setSendingHandler(radio.createSendHandler());
+ * </code></pre>
+ */
+public class AudioBroadcast
+{
+    /** The amount of recent frames kept for connections that are behind. */
+    public static final int BUFFERED_FRAMES = 16;
+
+    private final AudioSendHandler source;
+    private final byte[][] frames = new byte[BUFFERED_FRAMES][];
+    private Encoder encoder;        //Created on the first frame that needs encoding, guarded by this
+    private long lastFrame = -1;    //Guarded by this
+    private boolean closed = false; //Guarded by this
+
+    private final LongAdder sourceFrames = new LongAdder();
+    private final LongAdder providedFrames = new LongAdder();
+
+    /**
+     * Creates a new broadcast of the provided source.
+     * <br>The source is only ever called by one thread at a time.
+     *
+     * @param  source
+     *         The {@link net.dv8tion.jda.core.audio.AudioSendHandler AudioSendHandler} providing the audio
+     */
+    public AudioBroadcast(AudioSendHandler source)
+    {
+        Args.notNull(source, "Provided AudioSendHandler");
+        this.source = source;
+    }
+
+    /**
+     * Creates a handler playing this broadcast. Every voice connection needs its own handler.
+     *
+     * @return A new {@link net.dv8tion.jda.core.audio.AudioSendHandler AudioSendHandler} providing the frames of this broadcast
+     */
+    public AudioSendHandler createSendHandler()
+    {
+        return new Listener();
+    }
+
+    public AudioSendHandler getSource()
+    {
+        return source;
+    }
+
+    /**
+     * The amount of frames that were pulled from the source.
+     * <br>Each of them was encoded once, unless the source provides Opus.
+     *
+     * @return The amount of frames pulled from the source
+     */
+    public long getSourceFrameCount()
+    {
+        return sourceFrames.sum();
+    }
+
+    /**
+     * The amount of frames that were handed to the connections, the same frame counting once for every connection.
+     *
+     * @return The amount of provided frames
+     */
+    public long getProvidedFrameCount()
+    {
+        return providedFrames.sum();
+    }
+
+    /**
+     * Releases the native encoder. The handlers created by this broadcast no longer provide audio afterwards.
+     */
+    public synchronized void close()
+    {
+        if (encoder != null)
+        {
+            encoder.close();
+            encoder = null;
+        }
+        closed = true;
+    }
+
+    private synchronized boolean canProvide(Listener listener)
+    {
+        if (closed)
+            return false;
+        return (listener.nextFrame >= 0 && listener.nextFrame <= lastFrame) || source.canProvide();
+    }
+
+    private synchronized byte[] provide(Listener listener)
+    {
+        if (closed)
+            return null;
+        long frame = listener.nextFrame;
+        //New connections and connections too far behind join at the current frame.
+        if (frame < 0 || frame <= lastFrame - BUFFERED_FRAMES)
+            frame = Math.max(lastFrame, 0);
+        if (frame > lastFrame)
+        {
+            lastFrame++;
+            frames[(int) (lastFrame % BUFFERED_FRAMES)] = pull();
+            frame = lastFrame;
+        }
+        listener.nextFrame = frame + 1;
+        byte[] audio = frames[(int) (frame % BUFFERED_FRAMES)];
+        if (audio != null)
+            providedFrames.increment();
+        return audio;
+    }
+
+    private byte[] pull()
+    {
+        if (!source.canProvide())
+            return null;
+        byte[] rawAudio = source.provide20MsAudio();
+        if (rawAudio == null || rawAudio.length == 0)
+            return null;
+        sourceFrames.increment();
+
+        //The frame is kept for connections that are behind, so it must not share an array the source reuses.
+        if (source.isOpus())
+            return rawAudio.clone();
+        if (encoder == null)
+            encoder = new Encoder();
+        int length = encoder.encodeToOpus(rawAudio);
+        byte[] opus = new byte[length];
+        System.arraycopy(encoder.getBuffer(), 0, opus, 0, length);
+        return opus;
+    }
+
+    private final class Listener implements AudioSendHandler
+    {
+        private long nextFrame = -1;    //Guarded by the broadcast
+
+        @Override
+        public boolean canProvide()
+        {
+            return AudioBroadcast.this.canProvide(this);
+        }
+
+        @Override
+        public byte[] provide20MsAudio()
+        {
+            return provide(this);
+        }
+
+        @Override
+        public boolean isOpus()
+        {
+            return true;
+        }
+    }
+}
@@ -16,30 +16,20 @@
 
 package net.dv8tion.jda.core.audio;
 
-import com.sun.jna.ptr.PointerByReference;
 import net.dv8tion.jda.core.JDA;
-import net.dv8tion.jda.core.audio.factory.IAudioSendFactory;
-import net.dv8tion.jda.core.audio.factory.IAudioSendSystem;
-import net.dv8tion.jda.core.audio.factory.IPacketProvider;
+import net.dv8tion.jda.core.audio.factory.*;
 import net.dv8tion.jda.core.audio.hooks.ConnectionStatus;
 import net.dv8tion.jda.core.entities.Guild;
 import net.dv8tion.jda.core.entities.User;
 import net.dv8tion.jda.core.entities.VoiceChannel;
 import net.dv8tion.jda.core.entities.impl.JDAImpl;
 import net.dv8tion.jda.core.utils.SimpleLog;
-import org.apache.commons.lang3.tuple.Pair;
 import org.json.JSONObject;
-import tomp2p.opuswrapper.Opus;
 
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
-import java.net.SocketException;
-import java.net.SocketTimeoutException;
-import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
-import java.nio.ShortBuffer;
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -58,14 +48,21 @@ public class AudioConnection
     private VoiceChannel channel;
     private volatile AudioSendHandler sendHandler = null;
     private volatile AudioReceiveHandler receiveHandler = null;
-    private PointerByReference opusEncoder;
-    private volatile HashMap<Integer, String> ssrcMap = new HashMap<>();
-    private volatile HashMap<Integer, Decoder> opusDecoders = new HashMap<>();
-    private volatile HashMap<User, Queue<Pair<Long, short[]>>> combinedQueue = new HashMap<>();
-    private ScheduledExecutorService combinedAudioExecutor;
+    private Encoder opusEncoder;    //Only used by the send system
+    private final AudioStats stats;
+    private final ConcurrentHashMap<Integer, String> ssrcMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, JitterBuffer> jitterBuffers = new ConcurrentHashMap<>();
+    private static final CombinedAudio COMBINED_SILENCE = new CombinedAudio(Collections.emptyList(), new short[AudioMixer.FRAME_SAMPLES]);
+
+    private final ConcurrentHashMap<User, CombinedQueue> combinedQueueMap = new ConcurrentHashMap<>();
+    private volatile CombinedQueue[] combinedQueues = new CombinedQueue[0];
+    private final AudioMixer combinedMixer = new AudioMixer();
+    //Releases overdue frames of the jitter buffers and mixes the combined audio every frame.
+    private ScheduledExecutorService receiveTickExecutor;
+    private final JitterBuffer.FrameHandler frameHandler = this::handleFrame;
 
     private IAudioSendSystem sendSystem;
-    private Thread receiveThread;
+    private IAudioReceiveSystem receiveSystem;
     private long queueTimeout;
 
     private volatile boolean couldReceive = false;
@@ -84,8 +81,8 @@ public class AudioConnection
         final JDAImpl api = (JDAImpl) channel.getJDA();
         this.threadIdentifier = api.getIdentifierString() + " AudioConnection Guild: " + channel.getGuild().getId();
 
-        IntBuffer error = IntBuffer.allocate(4);
-        opusEncoder = Opus.INSTANCE.opus_encoder_create(OPUS_SAMPLE_RATE, OPUS_CHANNEL_COUNT, Opus.OPUS_APPLICATION_AUDIO, error);
+        opusEncoder = new Encoder();
+        stats = new AudioStats(channel.getGuild().getAudioManager().getStats());
     }
 
     public void ready(long timeout)
@@ -186,19 +183,50 @@ public class AudioConnection
         else
         {
             ssrcMap.put(ssrc, userId);
-            opusDecoders.put(ssrc, new Decoder(ssrc));
+            jitterBuffers.put(ssrc, new JitterBuffer(new Decoder(ssrc), stats));
         }
     }
 
+    /**
+     * The {@link net.dv8tion.jda.core.audio.JitterBuffer JitterBuffer} ordering the received audio of the provided user,
+     * which also keeps the loss and jitter statistics of that user.
+     *
+     * @param  user
+     *         The user to get the JitterBuffer of
+     *
+     * @return The JitterBuffer of the user, or {@code null} if the user did not speak in this connection
+     */
+    public JitterBuffer getJitterBuffer(User user)
+    {
+        for (Map.Entry<Integer, String> entry : ssrcMap.entrySet())
+        {
+            if (entry.getValue().equals(user.getId()))
+                return jitterBuffers.get(entry.getKey());
+        }
+        return null;
+    }
+
+    /**
+     * The quality metrics of this connection.
+     * <br>These also count towards the stats of the {@link net.dv8tion.jda.core.managers.AudioManager AudioManager}
+     * and the JDA instance.
+     *
+     * @return The {@link net.dv8tion.jda.core.audio.AudioStats AudioStats} of this connection
+     */
+    public AudioStats getStats()
+    {
+        return stats;
+    }
+
     public void close(ConnectionStatus closeStatus)
     {
 //        setSpeaking(false);
         if (sendSystem != null)
             sendSystem.shutdown();
-        if (receiveThread != null)
-            receiveThread.interrupt();
-        if (combinedAudioExecutor != null)
-            combinedAudioExecutor.shutdownNow();
+        if (receiveSystem != null)
+            receiveSystem.shutdown();
+        if (receiveTickExecutor != null)
+            receiveTickExecutor.shutdownNow();
 
         webSocket.close(closeStatus);
     }
@@ -220,206 +248,89 @@ public class AudioConnection
 
     private synchronized void setupReceiveSystem()
     {
-        if (udpSocket != null && !udpSocket.isClosed() && receiveHandler != null && receiveThread == null)
+        if (udpSocket != null && !udpSocket.isClosed() && receiveHandler != null && receiveSystem == null)
         {
-            setupReceiveThread();
+            IAudioReceiveFactory factory = ((JDAImpl) channel.getJDA()).getAudioReceiveFactory();
+            receiveSystem = factory.createReceiveSystem(new PacketReceiver());
+            receiveSystem.start();
+
+            if (isDecoding(receiveHandler))
+            {
+                setupReceiveTick();
+            }
         }
-        else if (receiveHandler == null && receiveThread != null)
+        else if (receiveHandler == null && receiveSystem != null)
         {
-            receiveThread.interrupt();
-            receiveThread = null;
+            receiveSystem.shutdown();
+            receiveSystem = null;
 
-            if (combinedAudioExecutor != null)
+            if (receiveTickExecutor != null)
             {
-                combinedAudioExecutor.shutdownNow();
-                combinedAudioExecutor = null;
+                receiveTickExecutor.shutdownNow();
+                receiveTickExecutor = null;
             }
         }
-        else if (receiveHandler != null && !receiveHandler.canReceiveCombined() && combinedAudioExecutor != null)
+        else if (receiveHandler != null && !isDecoding(receiveHandler) && receiveTickExecutor != null)
         {
-            combinedAudioExecutor.shutdownNow();
-            combinedAudioExecutor = null;
+            receiveTickExecutor.shutdownNow();
+            receiveTickExecutor = null;
         }
-    }
-
-    private synchronized void setupReceiveThread()
-    {
-        if (receiveThread == null)
+        else if (receiveHandler != null && isDecoding(receiveHandler) && receiveSystem != null)
         {
-            receiveThread = new Thread(threadIdentifier + " Receiving Thread")
-            {
-                @Override
-                public void run()
-                {
-                    try
-                    {
-                        udpSocket.setSoTimeout(1000);
-                    }
-                    catch (SocketException e)
-                    {
-                        LOG.log(e);
-                    }
-                    while (!udpSocket.isClosed() && !this.isInterrupted())
-                    {
-                        DatagramPacket receivedPacket = new DatagramPacket(new byte[1920], 1920);
-                        try
-                        {
-                            udpSocket.receive(receivedPacket);
-
-                            if (receiveHandler != null && (receiveHandler.canReceiveUser() || receiveHandler.canReceiveCombined()) && webSocket.getSecretKey() != null)
-                            {
-                                if (!couldReceive)
-                                {
-                                    couldReceive = true;
-                                    sendSilentPackets();
-                                }
-                                AudioPacket decryptedPacket = AudioPacket.decryptAudioPacket(receivedPacket, webSocket.getSecretKey());
-
-                                String userId = ssrcMap.get(decryptedPacket.getSSRC());
-                                Decoder decoder = opusDecoders.get(decryptedPacket.getSSRC());
-                                if (userId == null)
-                                {
-                                    byte[] audio = decryptedPacket.getEncodedAudio();
-                                    if (!Arrays.equals(audio, silenceBytes))
-                                        LOG.debug("Received audio data with an unknown SSRC id.");
-                                } else if (decoder == null)
-                                    LOG.warn("Received audio data with known SSRC, but opus decoder for this SSRC was null. uh..HOW?!");
-                                else if (!decoder.isInOrder(decryptedPacket.getSequence()))
-                                    LOG.trace("Got out-of-order audio packet. Ignoring.");
-                                else
-                                {
-                                    User user = getJDA().getUserById(userId);
-                                    if (user == null)
-                                        LOG.warn("Received audio data with a known SSRC, but the userId associate with the SSRC is unknown to JDA!");
-                                    else
-                                    {
-//                                            if (decoder.wasPacketLost(decryptedPacket.getSequence()))
-//                                            {
-//                                                LOG.debug("Packet(s) missed. Using Opus packetloss-compensation.");
-//                                                short[] decodedAudio = decoder.decodeFromOpus(null);
-//                                                receiveHandler.handleUserAudio(new UserAudio(user, decodedAudio));
-//                                            }
-                                        short[] decodedAudio = decoder.decodeFromOpus(decryptedPacket);
-
-                                        //If decodedAudio is null, then the Opus decode failed, so throw away the packet.
-                                        if (decodedAudio == null)
-                                        {
-                                            LOG.trace("Received audio data but Opus failed to properly decode, instead it returned an error");
-                                        } else
-                                        {
-                                            if (receiveHandler.canReceiveUser())
-                                            {
-                                                receiveHandler.handleUserAudio(new UserAudio(user, decodedAudio));
-                                            }
-                                            if (receiveHandler.canReceiveCombined())
-                                            {
-                                                Queue<Pair<Long, short[]>> queue = combinedQueue.get(user);
-                                                if (queue == null)
-                                                {
-                                                    queue = new ConcurrentLinkedQueue<>();
-                                                    combinedQueue.put(user, queue);
-                                                }
-                                                queue.add(Pair.<Long, short[]>of(System.currentTimeMillis(), decodedAudio));
-                                            }
-                                        }
-                                    }
-                                }
-                            } else if (couldReceive)
-                            {
-                                couldReceive = false;
-                                sendSilentPackets();
-                            }
-                        }
-                        catch (SocketTimeoutException e)
-                        {
-                            //Ignore. We set a low timeout so that we wont block forever so we can properly shutdown the loop.
-                        }
-                        catch (SocketException e)
-                        {
-                            //The socket was closed while we were listening for the next packet.
-                            //This is expected. Ignore the exception. The thread will exit during the next while
-                            // iteration because the udpSocket.isClosed() will return true.
-                        }
-                        catch (Exception e)
-                        {
-                            LOG.log(e);
-                        }
-                    }
-                }
-            };
-            receiveThread.setDaemon(true);
-            receiveThread.start();
+            setupReceiveTick();
         }
+    }
 
-        if (receiveHandler.canReceiveCombined())
-        {
-            setupCombinedExecutor();
-        }
+    private static boolean isDecoding(AudioReceiveHandler handler)
+    {
+        return handler.canReceiveUser() || handler.canReceiveCombined();
     }
 
-    private synchronized void setupCombinedExecutor()
+    private synchronized void setupReceiveTick()
     {
-        if (combinedAudioExecutor == null)
+        if (receiveTickExecutor == null)
         {
-            combinedAudioExecutor = Executors.newSingleThreadScheduledExecutor( r -> new Thread(r, threadIdentifier + " Combined Thread"));
-            combinedAudioExecutor.scheduleAtFixedRate(() ->
+            receiveTickExecutor = Executors.newSingleThreadScheduledExecutor( r -> new Thread(r, threadIdentifier + " Receive Tick Thread"));
+            receiveTickExecutor.scheduleAtFixedRate(() ->
             {
                 try
                 {
-                    List<User> users = new LinkedList<>();
-                    List<short[]> audioParts = new LinkedList<>();
-                    if (receiveHandler != null && receiveHandler.canReceiveCombined())
+                    AudioReceiveHandler handler = receiveHandler;
+                    if (handler != null && isDecoding(handler))
+                    {
+                        //Release overdue frames first, so they are mixed in this tick.
+                        long now = System.nanoTime();
+                        for (JitterBuffer jitterBuffer : jitterBuffers.values())
+                            jitterBuffer.poll(now, frameHandler);
+                    }
+                    if (handler != null && handler.canReceiveCombined())
                     {
                         long currentTime = System.currentTimeMillis();
-                        for (Map.Entry<User, Queue<Pair<Long, short[]>>> entry : combinedQueue.entrySet())
+                        CombinedQueue[] queues = combinedQueues;
+                        List<User> users = null;
+                        combinedMixer.clear();
+                        for (CombinedQueue queue : queues)
                         {
-                            User user = entry.getKey();
-                            Queue<Pair<Long, short[]>> queue = entry.getValue();
-            
-                            if (queue.isEmpty())
-                                continue;
-            
-                            Pair<Long, short[]> audioData = queue.poll();
-                            //Make sure the audio packet is younger than 100ms
-                            while (audioData != null && currentTime - audioData.getLeft() > queueTimeout)
-                            {
-                                audioData = queue.poll();
-                            }
-            
-                            //If none of the audio packets were younger than 100ms, then there is nothing to add.
-                            if (audioData == null)
-                            {
+                            short[] audio = queue.poll(currentTime - queueTimeout);
+                            if (audio == null)
                                 continue;
-                            }
-                            users.add(user);
-                            audioParts.add(audioData.getRight());
+                            if (users == null)
+                                users = new ArrayList<>(queues.length);
+                            users.add(queue.user);
+                            combinedMixer.add(audio);
                         }
-            
-                        if (!audioParts.isEmpty())
+
+                        if (users != null)
                         {
-                            int audioLength = audioParts.get(0).length;
-                            short[] mix = new short[1920];  //960 PCM samples for each channel
-                            int sample;
-                            for (int i = 0; i < audioLength; i++)
-                            {
-                                sample = 0;
-                                for (short[] audio : audioParts)
-                                {
-                                    sample += audio[i];
-                                }
-                                if (sample > Short.MAX_VALUE)
-                                    mix[i] = Short.MAX_VALUE;
-                                else if (sample < Short.MIN_VALUE)
-                                    mix[i] = Short.MIN_VALUE;
-                                else
-                                    mix[i] = (short) sample;
-                            }
-                            receiveHandler.handleCombinedAudio(new CombinedAudio(users, mix));
+                            //The handler may keep the CombinedAudio, so only the mix it receives is a new array.
+                            short[] mix = new short[AudioMixer.FRAME_SAMPLES];
+                            combinedMixer.mix(mix, handler.getCombinedClipping());
+                            handler.handleCombinedAudio(new CombinedAudio(users, mix));
                         }
                         else
                         {
                             //No audio to mix, provide 20 MS of silence. (960 PCM samples for each channel)
-                            receiveHandler.handleCombinedAudio(new CombinedAudio(new LinkedList(), new short[1920]));
+                            handler.handleCombinedAudio(COMBINED_SILENCE);
                         }
                     }
                 }
@@ -431,10 +342,66 @@ public class AudioConnection
         }
     }
 
+    private synchronized CombinedQueue createCombinedQueue(User user)
+    {
+        CombinedQueue queue = new CombinedQueue(user);
+        CombinedQueue[] queues = Arrays.copyOf(combinedQueues, combinedQueues.length + 1);
+        queues[queues.length - 1] = queue;
+        combinedQueues = queues;
+        return queue;
+    }
+
+    //Frames of one user waiting to be mixed. Filled by the jitter buffer of the user and emptied by the receive tick.
+    private static final class CombinedQueue
+    {
+        private static final int CAPACITY = 16;     //320ms, more than any queue timeout that makes sense
+
+        private final User user;
+        private final short[][] frames = new short[CAPACITY][];
+        private final long[] times = new long[CAPACITY];
+        private volatile long head = 0;     //Next frame to mix, only moved by the receive tick
+        private volatile long tail = 0;     //Next free slot, only moved by the jitter buffer
+
+        private CombinedQueue(User user)
+        {
+            this.user = user;
+        }
+
+        private void offer(short[] frame, long time)
+        {
+            long tail = this.tail;
+            if (tail - head == CAPACITY)
+                return;     //The receive tick fell behind. Dropping the newest frame keeps the queue bounded.
+            int index = (int) (tail % CAPACITY);
+            frames[index] = frame;
+            times[index] = time;
+            this.tail = tail + 1;
+        }
+
+        //Returns the oldest frame that is not older than the provided time, dropping the frames before it.
+        private short[] poll(long oldest)
+        {
+            long head = this.head;
+            long tail = this.tail;
+            short[] frame = null;
+            while (frame == null && head < tail)
+            {
+                int index = (int) (head % CAPACITY);
+                if (times[index] >= oldest)
+                    frame = frames[index];
+                frames[index] = null;
+                head++;
+            }
+            this.head = head;
+            return frame;
+        }
+    }
+
     private class PacketProvider implements IPacketProvider
     {
         char seq = 0;           //Sequence of audio packets. Used to determine the order of the packets.
         int timestamp = 0;      //Used to sync up our packets within the same timeframe of other people talking.
+        final AudioPacketWriter packetWriter = new AudioPacketWriter();
 
         @Override
         public String getIdentifier()
@@ -472,15 +439,21 @@ public class AudioConnection
                     }
                     else
                     {
+                        int audioLength = rawAudio.length;
                         if (!sendHandler.isOpus())
                         {
-                            rawAudio = encodeToOpus(rawAudio);
+                            long encodeStart = System.nanoTime();
+                            audioLength = opusEncoder.encodeToOpus(rawAudio);
+                            rawAudio = opusEncoder.getBuffer();
+                            stats.recordEncodeTime(System.nanoTime() - encodeStart);
                         }
-                        AudioPacket packet = new AudioPacket(seq, timestamp, webSocket.getSSRC(), rawAudio);
                         if (!speaking)
                             setSpeaking(true);
 
-                        nextPacket = packet.asEncryptedUdpPacket(webSocket.getAddress(), webSocket.getSecretKey());
+                        long encryptStart = System.nanoTime();
+                        nextPacket = packetWriter.write(seq, timestamp, webSocket.getSSRC(), rawAudio, 0, audioLength,
+                                webSocket.getAddress(), webSocket.getSecretKey());
+                        stats.recordEncryptionTime(System.nanoTime() - encryptStart);
 
                         if (seq + 1 > Character.MAX_VALUE)
                             seq = 0;
@@ -490,9 +463,8 @@ public class AudioConnection
                 }
                 else if (silenceCounter > -1)
                 {
-                    AudioPacket packet = new AudioPacket(seq, timestamp, webSocket.getSSRC(), silenceBytes);
-
-                    nextPacket = packet.asEncryptedUdpPacket(webSocket.getAddress(), webSocket.getSecretKey());
+                    nextPacket = packetWriter.write(seq, timestamp, webSocket.getSSRC(), silenceBytes, 0, silenceBytes.length,
+                            webSocket.getAddress(), webSocket.getSecretKey());
 
                     if (seq + 1 > Character.MAX_VALUE)
                         seq = 0;
@@ -519,6 +491,18 @@ public class AudioConnection
             return nextPacket;
         }
 
+        @Override
+        public void onPacketSent(long latenessNanos)
+        {
+            stats.recordPacketSent(latenessNanos);
+        }
+
+        @Override
+        public void onSendError(Exception error)
+        {
+            stats.recordSendError();
+        }
+
         @Override
         public void onConnectionError(ConnectionStatus status)
         {
@@ -537,30 +521,101 @@ public class AudioConnection
         }
     }
 
-    private byte[] encodeToOpus(byte[] rawAudio)
+    private class PacketReceiver implements IPacketReceiver
     {
-        ShortBuffer nonEncodedBuffer = ShortBuffer.allocate(rawAudio.length / 2);
-        ByteBuffer encoded = ByteBuffer.allocate(4096);
-        for (int i = 0; i < rawAudio.length; i += 2)
+        @Override
+        public String getIdentifier()
         {
-            int firstByte =  (0x000000FF & rawAudio[i]);      //Promotes to int and handles the fact that it was unsigned.
-            int secondByte = (0x000000FF & rawAudio[i + 1]);  //
+            return threadIdentifier;
+        }
 
-            //Combines the 2 bytes into a short. Opus deals with unsigned shorts, not bytes.
-            short toShort = (short) ((firstByte << 8) | secondByte);
+        @Override
+        public DatagramSocket getUdpSocket()
+        {
+            return AudioConnection.this.udpSocket;
+        }
+
+        @Override
+        public byte[] getSecretKey()
+        {
+            return webSocket.getSecretKey();
+        }
 
-            nonEncodedBuffer.put(toShort);
+        @Override
+        public boolean isReceiving()
+        {
+            AudioReceiveHandler handler = receiveHandler;
+            boolean canReceive = handler != null && (handler.canReceiveUser() || handler.canReceiveCombined() || handler.canReceiveEncoded())
+                    && webSocket.getSecretKey() != null;
+            if (canReceive != couldReceive)
+            {
+                couldReceive = canReceive;
+                sendSilentPackets();
+            }
+            return canReceive;
         }
-        nonEncodedBuffer.flip();
 
-        //TODO: check for 0 / negative value for error.
-        int result = Opus.INSTANCE.opus_encode(opusEncoder, nonEncodedBuffer, OPUS_FRAME_SIZE, encoded, encoded.capacity());
+        @Override
+        public void handleAudio(int ssrc, char seq, int timestamp, byte[] audio, int offset, int length)
+        {
+            stats.recordPacketReceived();
+            String userId = ssrcMap.get(ssrc);
+            JitterBuffer jitterBuffer = jitterBuffers.get(ssrc);
+            if (userId == null)
+            {
+                if (!isSilence(audio, offset, length))
+                    LOG.debug("Received audio data with an unknown SSRC id.");
+            }
+            else if (jitterBuffer == null)
+                LOG.warn("Received audio data with known SSRC, but opus decoder for this SSRC was null. uh..HOW?!");
+            else
+            {
+                User user = getJDA().getUserById(userId);
+                if (user == null)
+                    LOG.warn("Received audio data with a known SSRC, but the userId associate with the SSRC is unknown to JDA!");
+                else
+                {
+                    AudioReceiveHandler handler = receiveHandler;
+                    if (handler == null)
+                        return;
+                    if (handler.canReceiveEncoded())
+                        handler.handleEncodedAudio(user, seq, timestamp, audio, offset, length);
+                    //Only decode if the audio is wanted as PCM
+                    if (isDecoding(handler))
+                        jitterBuffer.offer(user, seq, timestamp, audio, offset, length, System.nanoTime(), frameHandler);
+                }
+            }
+        }
 
-        //ENCODING STOPS HERE
+        private boolean isSilence(byte[] audio, int offset, int length)
+        {
+            if (length != silenceBytes.length)
+                return false;
+            for (int i = 0; i < length; i++)
+            {
+                if (audio[offset + i] != silenceBytes[i])
+                    return false;
+            }
+            return true;
+        }
+    }
 
-        byte[] audio = new byte[result];
-        encoded.get(audio);
-        return audio;
+    private void handleFrame(User user, short[] decodedAudio)
+    {
+        AudioReceiveHandler handler = receiveHandler;
+        if (handler == null)
+            return;
+        if (handler.canReceiveUser())
+        {
+            handler.handleUserAudio(new UserAudio(user, decodedAudio));
+        }
+        if (handler.canReceiveCombined())
+        {
+            CombinedQueue queue = combinedQueueMap.get(user);
+            if (queue == null)
+                queue = combinedQueueMap.computeIfAbsent(user, this::createCombinedQueue);
+            queue.offer(decodedAudio, System.currentTimeMillis());
+        }
     }
 
     private void setSpeaking(boolean isSpeaking)
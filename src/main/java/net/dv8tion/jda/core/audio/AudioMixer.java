@@ -0,0 +1,151 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.audio;
+
+import java.util.Arrays;
+
+/**
+ * Mixes 20 millisecond frames of 48KHz 16bit stereo PCM into reused buffers.
+ * <p>
+ * Frames are summed into an int accumulator, so adding any amount of users cannot overflow, and only
+ * the final {@link #mix(short[], Clipping)} brings the sum back into 16 bit.
+ * The loops are plain indexed loops over arrays so the JIT can vectorize them.
+ * <p>
+ * A mixer must not be used by multiple threads at once.
+ */
+public final class AudioMixer
+{
+    /** The amount of samples of a 20 millisecond stereo frame. */
+    public static final int FRAME_SAMPLES = AudioConnection.OPUS_FRAME_SIZE * AudioConnection.OPUS_CHANNEL_COUNT;
+
+    //Soft clipping leaves samples up to 75% untouched and compresses everything above into the remaining 25%.
+    private static final int SOFT_KNEE = Short.MAX_VALUE * 3 / 4;
+    private static final int SOFT_RANGE = Short.MAX_VALUE - SOFT_KNEE;
+
+    private final int[] accumulator = new int[FRAME_SAMPLES];
+    private int frameCount = 0;
+
+    /**
+     * Removes all added frames.
+     */
+    public void clear()
+    {
+        Arrays.fill(accumulator, 0);
+        frameCount = 0;
+    }
+
+    /**
+     * Adds a frame to the mix. Frames shorter than {@link #FRAME_SAMPLES} are padded with silence.
+     *
+     * @param  frame
+     *         The PCM samples to add
+     */
+    public void add(short[] frame)
+    {
+        int[] acc = accumulator;
+        int length = Math.min(frame.length, acc.length);
+        for (int i = 0; i < length; i++)
+            acc[i] += frame[i];
+        frameCount++;
+    }
+
+    /**
+     * The amount of frames that were added since the last {@link #clear()}.
+     *
+     * @return The amount of added frames
+     */
+    public int getFrameCount()
+    {
+        return frameCount;
+    }
+
+    /**
+     * Writes the mix of all added frames to the provided output, limited to 16 bit by the provided clipping.
+     *
+     * @param  output
+     *         The array to write {@link #FRAME_SAMPLES} samples to
+     * @param  clipping
+     *         How samples outside of 16 bit are handled
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the output is shorter than {@link #FRAME_SAMPLES}
+     */
+    public void mix(short[] output, Clipping clipping)
+    {
+        if (output.length < FRAME_SAMPLES)
+            throw new IllegalArgumentException("Output must hold at least " + FRAME_SAMPLES + " samples");
+        int[] acc = accumulator;
+        switch (clipping)
+        {
+            case SOFT:
+                for (int i = 0; i < FRAME_SAMPLES; i++)
+                {
+                    int sample = acc[i];
+                    int magnitude = Math.abs(sample);
+                    if (magnitude > SOFT_KNEE)
+                    {
+                        int over = magnitude - SOFT_KNEE;
+                        magnitude = SOFT_KNEE + (int) ((long) over * SOFT_RANGE / (SOFT_RANGE + over));
+                        sample = sample < 0 ? -magnitude : magnitude;
+                    }
+                    output[i] = (short) sample;
+                }
+                break;
+            case NORMALIZE:
+                int peak = 0;
+                for (int i = 0; i < FRAME_SAMPLES; i++)
+                    peak = Math.max(peak, Math.abs(acc[i]));
+                if (peak > Short.MAX_VALUE)
+                {
+                    //Gain in 1/32768ths, the product stays below 2^30 for any peak.
+                    int gain = (int) (((long) Short.MAX_VALUE << 15) / peak);
+                    for (int i = 0; i < FRAME_SAMPLES; i++)
+                        output[i] = (short) ((acc[i] * gain) >> 15);
+                }
+                else
+                {
+                    //Nothing to scale, the samples already fit.
+                    clip(acc, output);
+                }
+                break;
+            case HARD:
+            default:
+                clip(acc, output);
+        }
+    }
+
+    private static void clip(int[] acc, short[] output)
+    {
+        for (int i = 0; i < FRAME_SAMPLES; i++)
+            output[i] = (short) Math.min(Short.MAX_VALUE, Math.max(Short.MIN_VALUE, acc[i]));
+    }
+
+    /**
+     * How mixed samples outside of 16 bit are brought back into range.
+     */
+    public enum Clipping
+    {
+        /** Cuts samples off at the 16 bit limits. Cheapest, but loud overlapping speakers distort. */
+        HARD,
+        /** Compresses the loudest quarter of the range, so peaks are rounded off instead of cut. */
+        SOFT,
+        /**
+         * Scales down the whole frame when its peak exceeds 16 bit. Keeps the waveform intact, but as every
+         * frame is scaled on its own, the volume can jump between frames.
+         */
+        NORMALIZE
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.audio;
+
+import com.iwebpp.crypto.TweetNaclFast;
+
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+
+import static net.dv8tion.jda.core.audio.AudioPacket.*;
+
+/**
+ * Builds encrypted audio packets into buffers that are reused for every packet of a connection.
+ * <p>
+ * Unlike {@link AudioPacket#asEncryptedUdpPacket(java.net.InetSocketAddress, byte[])}, which copies the audio several times
+ * and allocates a new packet, nonce and {@link com.iwebpp.crypto.TweetNaclFast.SecretBox SecretBox} per frame,
+ * the writer encrypts straight into the array backing its {@link java.net.DatagramPacket DatagramPacket}
+ * and writes the RTP header in place.
+ * <p>
+ * The returned DatagramPacket is only valid until the next call to {@link #write(char, int, int, byte[], int, int, InetSocketAddress, byte[])}.
+ * A writer must not be used by multiple threads at once.
+ */
+public final class AudioPacketWriter
+{
+    /** The largest encoded audio frame a writer accepts. */
+    public static final int MAX_AUDIO_LENGTH = 4096;
+
+    //crypto_secretbox expects the message after 32 zero bytes and writes the MAC to bytes 16 - 31 of the output,
+    // the encrypted audio follows at 32. Starting the packet at 4 puts the 12 byte RTP header right in front of the MAC.
+    private static final int ZERO_BYTES = 32;
+    private static final int MAC_OFFSET = 16;
+    private static final int PACKET_OFFSET = MAC_OFFSET - RTP_HEADER_BYTE_LENGTH;
+
+    private final byte[] message = new byte[ZERO_BYTES + MAX_AUDIO_LENGTH];
+    private final byte[] cipher = new byte[ZERO_BYTES + MAX_AUDIO_LENGTH];
+    private final byte[] nonce = new byte[XSALSA20_NONCE_LENGTH];
+    private final DatagramPacket packet = new DatagramPacket(cipher, PACKET_OFFSET, 0);
+
+    /**
+     * Encrypts the provided opus audio and wraps it in an RTP packet.
+     *
+     * @param  seq
+     *         The RTP sequence
+     * @param  timestamp
+     *         The RTP timestamp
+     * @param  ssrc
+     *         The SSRC of the connection
+     * @param  audio
+     *         Array containing the encoded audio
+     * @param  offset
+     *         Offset of the audio in the array
+     * @param  length
+     *         Length of the audio
+     * @param  address
+     *         The address the packet is sent to
+     * @param  secretKey
+     *         The secret key of the connection
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the audio is longer than {@link #MAX_AUDIO_LENGTH}
+     *
+     * @return The packet, valid until the next call to this method
+     */
+    public DatagramPacket write(char seq, int timestamp, int ssrc, byte[] audio, int offset, int length, InetSocketAddress address, byte[] secretKey)
+    {
+        if (length > MAX_AUDIO_LENGTH)
+            throw new IllegalArgumentException("Audio frame of " + length + " bytes exceeds the maximum of " + MAX_AUDIO_LENGTH);
+
+        //The RTP header doubles as the first 12 bytes of the Xsalsa20 nonce, the remaining 12 bytes stay 0.
+        nonce[RTP_VERSION_PAD_EXTEND_INDEX] = RTP_VERSION_PAD_EXTEND;
+        nonce[RTP_PAYLOAD_INDEX] = RTP_PAYLOAD_TYPE;
+        nonce[SEQ_INDEX] = (byte) (seq >> 8);
+        nonce[SEQ_INDEX + 1] = (byte) seq;
+        nonce[TIMESTAMP_INDEX] = (byte) (timestamp >> 24);
+        nonce[TIMESTAMP_INDEX + 1] = (byte) (timestamp >> 16);
+        nonce[TIMESTAMP_INDEX + 2] = (byte) (timestamp >> 8);
+        nonce[TIMESTAMP_INDEX + 3] = (byte) timestamp;
+        nonce[SSRC_INDEX] = (byte) (ssrc >> 24);
+        nonce[SSRC_INDEX + 1] = (byte) (ssrc >> 16);
+        nonce[SSRC_INDEX + 2] = (byte) (ssrc >> 8);
+        nonce[SSRC_INDEX + 3] = (byte) ssrc;
+
+        System.arraycopy(audio, offset, message, ZERO_BYTES, length);
+        TweetNaclFast.crypto_secretbox(cipher, message, ZERO_BYTES + length, nonce, secretKey);
+
+        //The secretbox leaves keystream bytes in front of the MAC, the header overwrites them.
+        System.arraycopy(nonce, 0, cipher, PACKET_OFFSET, RTP_HEADER_BYTE_LENGTH);
+
+        packet.setData(cipher, PACKET_OFFSET, RTP_HEADER_BYTE_LENGTH + MAC_OFFSET + length);
+        packet.setSocketAddress(address);
+        return packet;
+    }
+}
@@ -89,4 +89,53 @@ public interface AudioReceiveHandler
      *      The user audio data
      */
     void handleUserAudio(UserAudio userAudio);
+
+    /**
+     * If this method returns true, then JDA will provide the Opus packets of every user to
+     * {@link #handleEncodedAudio(User, char, int, byte[], int, int)} as they arrive, before they are decoded.<br>
+     * If neither {@link #canReceiveUser()} nor {@link #canReceiveCombined()} return true, JDA does not decode the audio at all.
+     *
+     * @return
+     *      If true, JDA provides the encoded audio to {@link #handleEncodedAudio(User, char, int, byte[], int, int)}.<br>
+     *      Default - False.
+     */
+    default boolean canReceiveEncoded()
+    {
+        return false;
+    }
+
+    /**
+     * If {@link #canReceiveEncoded()} returns true, JDA provides every received Opus packet of a user to this method,
+     * in the order they arrive. Packets can be missing, duplicated or out of order.<p>
+     *
+     * The array may be reused for the next packet, so the packet has to be copied if it is needed after this method returns.
+     * This method is called on the receiving thread of the connection and should not block.
+     *
+     * @param user
+     *      The {@link net.dv8tion.jda.core.entities.User User} that sent the audio
+     * @param sequence
+     *      The RTP sequence of the packet
+     * @param timestamp
+     *      The RTP timestamp of the packet, in 48KHz samples
+     * @param audio
+     *      Array holding the Opus packet
+     * @param offset
+     *      Offset of the packet in the array
+     * @param length
+     *      Length of the packet
+     */
+    default void handleEncodedAudio(User user, char sequence, int timestamp, byte[] audio, int offset, int length) {}
+
+    /**
+     * How the {@link net.dv8tion.jda.core.audio.CombinedAudio CombinedAudio} is kept within 16 bit
+     * when the users speaking at once are louder than it can hold.
+     *
+     * @return
+     *      The {@link net.dv8tion.jda.core.audio.AudioMixer.Clipping Clipping} used to mix the combined audio.<br>
+     *      Default - {@link net.dv8tion.jda.core.audio.AudioMixer.Clipping#HARD HARD}.
+     */
+    default AudioMixer.Clipping getCombinedClipping()
+    {
+        return AudioMixer.Clipping.HARD;
+    }
 }
@@ -0,0 +1,313 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.audio;
+
+import net.dv8tion.jda.core.utils.Histogram;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Quality metrics of voice connections, backed by counters and {@link net.dv8tion.jda.core.utils.Histogram Histograms}.
+ * <p>
+ * Every {@link net.dv8tion.jda.core.audio.AudioConnection AudioConnection} records into its own stats,
+ * which are a child of the stats of its {@link net.dv8tion.jda.core.managers.AudioManager AudioManager},
+ * which in turn are a child of the stats of the JDA instance. This way the same metrics are available per connection,
+ * per guild over all of its connections and for the whole JDA instance.
+ * <p>
+ * Counters are added to every parent as they are recorded. Histograms are only recorded by the stats of the connection,
+ * so the send threads of different connections never write to the same histogram. The histogram getters return a snapshot
+ * merging the histograms of all descendants, which is not affected by later recordings and is reset through {@link #reset()}
+ * instead of its own reset. The histograms of a connection are added to its parent once it is {@link #close() closed}.
+ * <p>
+ * Recording does not lock or allocate, so the stats are always on. All times are in nanoseconds.
+ */
+public class AudioStats
+{
+    /** Frames sent more than 5 milliseconds after their scheduled time are counted as late. */
+    public static final long LATE_FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    protected final AudioStats parent;
+    protected final Set<AudioStats> children = ConcurrentHashMap.newKeySet();
+
+    protected final LongAdder sentPackets = new LongAdder();
+    protected final LongAdder receivedPackets = new LongAdder();
+    protected final LongAdder sendErrors = new LongAdder();
+    protected final LongAdder lateFrames = new LongAdder();
+    protected final LongAdder lostFrames = new LongAdder();
+    protected final LongAdder decodeErrors = new LongAdder();
+    protected final Histogram encodeTime = new Histogram();
+    protected final Histogram encryptionTime = new Histogram();
+    protected final Histogram sendLateness = new Histogram();
+    protected final Histogram jitter = new Histogram();
+    protected final Histogram keepAliveRtt = new Histogram();
+
+    /**
+     * Creates stats that do not add their metrics to any other stats.
+     */
+    public AudioStats()
+    {
+        this(null);
+    }
+
+    /**
+     * Creates stats which are aggregated into the provided stats.
+     * <br>Stats with a parent have to be {@link #close() closed} once nothing is recorded into them anymore.
+     *
+     * @param  parent
+     *         The stats to aggregate into, or {@code null}
+     */
+    public AudioStats(AudioStats parent)
+    {
+        this.parent = parent;
+        if (parent != null)
+            parent.children.add(this);
+    }
+
+    void recordPacketSent(long latenessNanos)
+    {
+        sendLateness.record(latenessNanos);
+        boolean late = latenessNanos > LATE_FRAME_NANOS;
+        for (AudioStats stats = this; stats != null; stats = stats.parent)
+        {
+            stats.sentPackets.increment();
+            if (late)
+                stats.lateFrames.increment();
+        }
+    }
+
+    void recordSendError()
+    {
+        for (AudioStats stats = this; stats != null; stats = stats.parent)
+            stats.sendErrors.increment();
+    }
+
+    void recordPacketReceived()
+    {
+        for (AudioStats stats = this; stats != null; stats = stats.parent)
+            stats.receivedPackets.increment();
+    }
+
+    void recordEncodeTime(long nanos)
+    {
+        encodeTime.record(nanos);
+    }
+
+    void recordEncryptionTime(long nanos)
+    {
+        encryptionTime.record(nanos);
+    }
+
+    void recordJitter(long nanos)
+    {
+        jitter.record(nanos);
+    }
+
+    void recordLostFrame()
+    {
+        for (AudioStats stats = this; stats != null; stats = stats.parent)
+            stats.lostFrames.increment();
+    }
+
+    void recordDecodeError()
+    {
+        for (AudioStats stats = this; stats != null; stats = stats.parent)
+            stats.decodeErrors.increment();
+    }
+
+    void recordKeepAliveRtt(long nanos)
+    {
+        keepAliveRtt.record(nanos);
+    }
+
+    /**
+     * The stats these stats add their metrics to.
+     *
+     * @return The parent stats, or {@code null}
+     */
+    public AudioStats getParent()
+    {
+        return parent;
+    }
+
+    public long getSentPacketCount()
+    {
+        return sentPackets.sum();
+    }
+
+    public long getReceivedPacketCount()
+    {
+        return receivedPackets.sum();
+    }
+
+    /**
+     * The amount of packets the send system failed to send, not counting failures caused by closing the connection.
+     *
+     * @return The amount of send errors
+     */
+    public long getSendErrorCount()
+    {
+        return sendErrors.sum();
+    }
+
+    /**
+     * The amount of packets sent more than {@link #LATE_FRAME_NANOS} after their scheduled time.
+     *
+     * @return The amount of late frames
+     */
+    public long getLateFrameCount()
+    {
+        return lateFrames.sum();
+    }
+
+    /**
+     * The amount of received frames that never arrived or arrived too late to be played.
+     * <br>Only measured while the received audio is decoded.
+     *
+     * @return The amount of lost frames
+     */
+    public long getLostFrameCount()
+    {
+        return lostFrames.sum();
+    }
+
+    /**
+     * The amount of received packets Opus failed to decode.
+     *
+     * @return The amount of decode errors
+     */
+    public long getDecodeErrorCount()
+    {
+        return decodeErrors.sum();
+    }
+
+    /**
+     * Histogram of the time it took to encode a frame of PCM audio to Opus.
+     * <br>Audio provided as Opus is not encoded and not recorded.
+     *
+     * @return A snapshot of the encode time histogram
+     */
+    public Histogram getEncodeTime()
+    {
+        return snapshot(stats -> stats.encodeTime);
+    }
+
+    /**
+     * Histogram of the time it took to build and encrypt a packet.
+     *
+     * @return A snapshot of the encryption time histogram
+     */
+    public Histogram getEncryptionTime()
+    {
+        return snapshot(stats -> stats.encryptionTime);
+    }
+
+    /**
+     * Histogram of how long after their scheduled time packets were sent.
+     *
+     * @return A snapshot of the send lateness histogram
+     */
+    public Histogram getSendLateness()
+    {
+        return snapshot(stats -> stats.sendLateness);
+    }
+
+    /**
+     * Histogram of the interarrival jitter of the received audio as defined by RFC 3550, recorded for every packet.
+     * <br>Only measured while the received audio is decoded.
+     *
+     * @return A snapshot of the jitter histogram
+     */
+    public Histogram getJitter()
+    {
+        return snapshot(stats -> stats.jitter);
+    }
+
+    /**
+     * Histogram of the round trip time of the keep alives sent over the voice websocket.
+     * <br>Only millisecond precise.
+     *
+     * @return A snapshot of the keep alive round trip time histogram
+     */
+    public Histogram getKeepAliveRtt()
+    {
+        return snapshot(stats -> stats.keepAliveRtt);
+    }
+
+    /**
+     * Stops aggregating these stats into their parent. The histograms recorded so far are added to the parent,
+     * the counters already are part of it.
+     * <br>Called by JDA when a connection is closed. Does nothing for stats without a parent or if already closed.
+     */
+    public void close()
+    {
+        if (parent == null || !parent.children.remove(this))
+            return;
+        addTo(parent.encodeTime, stats -> stats.encodeTime);
+        addTo(parent.encryptionTime, stats -> stats.encryptionTime);
+        addTo(parent.sendLateness, stats -> stats.sendLateness);
+        addTo(parent.jitter, stats -> stats.jitter);
+        addTo(parent.keepAliveRtt, stats -> stats.keepAliveRtt);
+    }
+
+    /**
+     * Resets all counters and histograms of these stats. The parent stats are not reset.
+     * <br>The histograms of children that are still open are part of the histogram snapshots and are not reset.
+     */
+    public void reset()
+    {
+        sentPackets.reset();
+        receivedPackets.reset();
+        sendErrors.reset();
+        lateFrames.reset();
+        lostFrames.reset();
+        decodeErrors.reset();
+        encodeTime.reset();
+        encryptionTime.reset();
+        sendLateness.reset();
+        jitter.reset();
+        keepAliveRtt.reset();
+    }
+
+    //A new histogram, so resetting it or reading it twice does not depend on whether these stats have children.
+    private Histogram snapshot(Function<AudioStats, Histogram> histogram)
+    {
+        Histogram snapshot = new Histogram();
+        addTo(snapshot, histogram);
+        return snapshot;
+    }
+
+    private void addTo(Histogram target, Function<AudioStats, Histogram> histogram)
+    {
+        target.add(histogram.apply(this));
+        for (AudioStats child : children)
+            child.addTo(target, histogram);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("AudioStats[sent=%d (late=%d, errors=%d), received=%d (lost=%d, decodeErrors=%d), " +
+                        "encode=%.1fus, encryption=%.1fus, jitter=%.2fms, keepAliveRtt=%.0fms]",
+                getSentPacketCount(), getLateFrameCount(), getSendErrorCount(), getReceivedPacketCount(),
+                getLostFrameCount(), getDecodeErrorCount(), getEncodeTime().getMean() / 1000, getEncryptionTime().getMean() / 1000,
+                getJitter().getMean() / 1000000, getKeepAliveRtt().getMean() / 1000000);
+    }
+}
@@ -33,6 +33,7 @@ import org.json.JSONObject;
 import java.io.IOException;
 import java.net.*;
 import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -215,6 +216,8 @@ public class AudioWebSocket extends WebSocketAdapter
             {
                 long timePingSent  = contentAll.getLong("d");
                 long ping = System.currentTimeMillis() - timePingSent;
+                if (audioConnection != null)
+                    audioConnection.getStats().recordKeepAliveRtt(TimeUnit.MILLISECONDS.toNanos(ping));
                 listener.onPing(ping);
                 break;
             }
@@ -325,6 +328,8 @@ public class AudioWebSocket extends WebSocketAdapter
         AudioManagerImpl manager = (AudioManagerImpl) guild.getAudioManager();
         VoiceChannel disconnectedChannel = manager.getConnectedChannel();
         manager.setAudioConnection(null);
+        if (audioConnection != null)
+            audioConnection.getStats().close();
 
         //Verify that it is actually a lost of connection and not due the connected channel being deleted.
         if (closeStatus == ConnectionStatus.ERROR_LOST_CONNECTION)
@@ -387,7 +392,10 @@ public class AudioWebSocket extends WebSocketAdapter
         //This is called UDP hole punching.
         try
         {
-            udpSocket = new DatagramSocket();   //Use UDP, not TCP.
+            //Use UDP, not TCP. Opened through a channel so send systems can use NIO on it.
+            DatagramChannel channel = DatagramChannel.open();
+            channel.bind(null);
+            udpSocket = channel.socket();
 
             //Create a byte array of length 70 containing our ssrc.
             ByteBuffer buffer = ByteBuffer.allocate(70);    //70 taken from https://github.com/Rapptz/discord.py/blob/async/discord/voice_client.py#L208
@@ -467,8 +475,9 @@ public class AudioWebSocket extends WebSocketAdapter
                     ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + 1);
                     buffer.put((byte)0xC9);
                     buffer.putLong(seq);
-                    DatagramPacket keepAlivePacket = new DatagramPacket(buffer.array(), buffer.array().length, address);
-                    udpSocket.send(keepAlivePacket);
+                    buffer.flip();
+                    //Sent through the channel, its socket refuses to send once a receive system made it non-blocking.
+                    udpSocket.getChannel().send(buffer, address);
 
                 }
                 catch (NoRouteToHostException e)
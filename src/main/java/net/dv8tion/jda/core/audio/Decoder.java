@@ -19,6 +19,8 @@ package net.dv8tion.jda.core.audio;
 import com.sun.jna.ptr.PointerByReference;
 import tomp2p.opuswrapper.Opus;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
 
@@ -28,15 +30,15 @@ import java.nio.ShortBuffer;
 public class Decoder
 {
     protected int ssrc;
-    protected char lastSeq;
-    protected int lastTimestamp;
     protected PointerByReference opusDecoder;
 
+    //Reused by decodeFromOpus(byte[], int, int, boolean). Packets of one SSRC are decoded one at a time.
+    private ByteBuffer encodedBuffer;
+    private ShortBuffer decodedBuffer;
+
     protected Decoder(int ssrc)
     {
         this.ssrc = ssrc;
-        this.lastSeq = (char) -1;
-        this.lastTimestamp = -1;
 
         IntBuffer error = IntBuffer.allocate(4);
         opusDecoder = Opus.INSTANCE.opus_decoder_create(AudioConnection.OPUS_SAMPLE_RATE,
@@ -44,38 +46,34 @@ public class Decoder
         //TODO: check `error` for an error flag.
     }
 
-    protected boolean isInOrder(char newSeq)
-    {
-        return lastSeq == -1 || newSeq > lastSeq || lastSeq - newSeq > 10;
-    }
-
-    protected boolean wasPacketLost(char newSeq)
+    /**
+     * Decodes a frame through reused direct buffers.
+     * <br>With {@code fec} the forward error correction data of the provided packet is decoded, which restores
+     * the frame sent right before it. If {@code encodedAudio} is null the lost frame is concealed instead.
+     */
+    protected short[] decodeFromOpus(byte[] encodedAudio, int offset, int length, boolean fec)
     {
-        return newSeq > lastSeq + 1;
-    }
+        if (encodedBuffer == null || encodedBuffer.capacity() < length)
+            encodedBuffer = ByteBuffer.allocateDirect(Math.max(length, AudioPacketWriter.MAX_AUDIO_LENGTH));
+        if (decodedBuffer == null)
+            decodedBuffer = ByteBuffer.allocateDirect(4096 * 2).order(ByteOrder.nativeOrder()).asShortBuffer();
 
-    protected short[] decodeFromOpus(AudioPacket decryptedPacket)
-    {
-        int result;
-        ShortBuffer decoded = ShortBuffer.allocate(4096);
-        if (decryptedPacket == null)    //Flag for packet-loss
+        ByteBuffer encoded = null;
+        if (encodedAudio != null)
         {
-            result = Opus.INSTANCE.opus_decode(opusDecoder, null, 0, decoded,
-                    AudioConnection.OPUS_FRAME_SIZE, 0);
-            lastSeq = (char) -1;
-            lastTimestamp = -1;
+            encoded = encodedBuffer;
+            encoded.clear();
+            encoded.put(encodedAudio, offset, length);
+            encoded.flip();
         }
         else
         {
-            char seq = decryptedPacket.getSequence();
-            this.lastSeq = seq;
-            this.lastTimestamp = decryptedPacket.getTimestamp();
-
-            byte[] encodedAudio = decryptedPacket.getEncodedAudio();
-
-            result = Opus.INSTANCE.opus_decode(opusDecoder, encodedAudio, encodedAudio.length, decoded,
-                    AudioConnection.OPUS_FRAME_SIZE, 0);
+            length = 0;
         }
+        ShortBuffer decoded = decodedBuffer;
+        decoded.clear();
+        int result = Opus.INSTANCE.opus_decode(opusDecoder, encoded, length, decoded,
+                AudioConnection.OPUS_FRAME_SIZE, fec ? 1 : 0);
 
         //If we get a result that is less than 0, then there was an error. Return null as a signifier.
         if (result < 0)
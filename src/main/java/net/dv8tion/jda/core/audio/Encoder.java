@@ -0,0 +1,89 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.dv8tion.jda.core.audio;
+
+import com.sun.jna.ptr.PointerByReference;
+import tomp2p.opuswrapper.Opus;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Class that wraps functionality around the Opus encoder.
+ * <br>An Encoder must not be used by multiple threads at once.
+ */
+public class Encoder
+{
+    protected PointerByReference opusEncoder;
+
+    //Reused by encodeToOpus. Direct buffers are handed to opus without JNA copying them into temporary native memory.
+    private final ShortBuffer pcmBuffer = ByteBuffer.allocateDirect(AudioConnection.OPUS_FRAME_SIZE * AudioConnection.OPUS_CHANNEL_COUNT * 2)
+            .order(ByteOrder.nativeOrder()).asShortBuffer();
+    private final ByteBuffer encodedBuffer = ByteBuffer.allocateDirect(AudioPacketWriter.MAX_AUDIO_LENGTH);
+    private final byte[] opusBuffer = new byte[AudioPacketWriter.MAX_AUDIO_LENGTH];
+
+    protected Encoder()
+    {
+        IntBuffer error = IntBuffer.allocate(4);
+        opusEncoder = Opus.INSTANCE.opus_encoder_create(AudioConnection.OPUS_SAMPLE_RATE, AudioConnection.OPUS_CHANNEL_COUNT,
+                Opus.OPUS_APPLICATION_AUDIO, error);
+    }
+
+    /**
+     * The array {@link #encodeToOpus(byte[])} writes the encoded frame to. Overwritten by the next frame.
+     */
+    protected byte[] getBuffer()
+    {
+        return opusBuffer;
+    }
+
+    //Encodes into the buffer and returns the length of the encoded frame.
+    protected int encodeToOpus(byte[] rawAudio)
+    {
+        ShortBuffer nonEncodedBuffer = pcmBuffer;
+        nonEncodedBuffer.clear();
+        int samples = Math.min(rawAudio.length / 2, nonEncodedBuffer.capacity());
+        for (int i = 0; i < samples * 2; i += 2)
+        {
+            int firstByte =  (0x000000FF & rawAudio[i]);      //Promotes to int and handles the fact that it was unsigned.
+            int secondByte = (0x000000FF & rawAudio[i + 1]);  //
+
+            //Combines the 2 bytes into a short. Opus deals with unsigned shorts, not bytes.
+            short toShort = (short) ((firstByte << 8) | secondByte);
+
+            nonEncodedBuffer.put(toShort);
+        }
+        nonEncodedBuffer.flip();
+
+        ByteBuffer encoded = encodedBuffer;
+        encoded.clear();
+        int result = Opus.INSTANCE.opus_encode(opusEncoder, nonEncodedBuffer, AudioConnection.OPUS_FRAME_SIZE, encoded, encoded.capacity());
+
+        //ENCODING STOPS HERE
+
+        if (result <= 0)
+            throw new IllegalStateException("Opus failed to encode the audio frame, error code: " + result);
+        encoded.get(opusBuffer, 0, result);
+        return result;
+    }
+
+    protected void close()
+    {
+        Opus.INSTANCE.opus_encoder_destroy(opusEncoder);
+    }
+}
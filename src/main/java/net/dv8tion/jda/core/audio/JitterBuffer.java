@@ -0,0 +1,412 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.audio;
+
+import net.dv8tion.jda.core.entities.User;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adaptive jitter buffer for the audio of a single SSRC.
+ * <p>
+ * Packets are handed to the decoder in RTP sequence order. Packets arriving in order are decoded right away,
+ * when a packet is missing the buffer waits for it until more than {@link #getTargetDepth()} packets are queued
+ * behind it or it is overdue by as many frames. The connection polls the buffer every frame, so overdue frames are
+ * released even when no further packet arrives. The target depth follows the measured interarrival jitter
+ * (RFC 3550) between {@link #MIN_DEPTH} and {@link #MAX_DEPTH}.
+ * <br>A frame that did not arrive in time is restored from the forward error correction data of the packet after it
+ * when that packet is already buffered, otherwise it is concealed by the Opus packet loss concealment.
+ * Packets arriving after their frame was played are dropped and counted as late.
+ * <p>
+ * Packets are stored in a fixed ring of reused arrays, so buffering does not allocate.
+ * Offering and polling are synchronized, the statistics can be read from any thread.
+ */
+public class JitterBuffer
+{
+    /** The least amount of packets waited for before a missing frame is considered lost. */
+    public static final int MIN_DEPTH = 1;
+    /** The most amount of packets waited for before a missing frame is considered lost. */
+    public static final int MAX_DEPTH = 10;
+
+    //Lost frames are concealed up to 100ms, longer gaps are skipped instead of filling them with made-up audio.
+    private static final int MAX_CONCEALED_FRAMES = 5;
+    private static final int CAPACITY = 32;
+    private static final int MASK = CAPACITY - 1;
+    //Packets further behind than this (10 seconds) mean the sender restarted its sequence.
+    private static final int RESTART_DISTANCE = 500;
+    private static final long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(AudioConnection.OPUS_FRAME_TIME_AMOUNT);
+    private static final double NANOS_PER_SAMPLE = TimeUnit.SECONDS.toNanos(1) / (double) AudioConnection.OPUS_SAMPLE_RATE;
+
+    private final Decoder decoder;
+    private final AudioStats stats;
+    private final Slot[] slots = new Slot[CAPACITY];
+
+    //Guarded by the buffer itself, the receive thread offers packets while the receive tick polls.
+    private User user;
+    private boolean started = false;
+    private char nextSeq;
+    private volatile int buffered = 0;
+    private boolean waiting = false;
+    private long waitingSince;
+    private int concealedFrames = 0;
+    private char highestSeq;
+    private int highestTimestamp;
+    private long highestArrival;
+    private double jitter = 0;  //nanoseconds
+
+    private volatile int targetDepth = MIN_DEPTH;
+    private volatile long receivedPackets = 0;
+    private volatile long decodedPackets = 0;
+    private volatile long reorderedPackets = 0;
+    private volatile long latePackets = 0;
+    private volatile long duplicatePackets = 0;
+    private volatile long lostFrames = 0;
+    private volatile long recoveredFrames = 0;
+    private volatile long concealedFramesTotal = 0;
+    private volatile long decodeErrors = 0;
+    private volatile double jitterMillis = 0;
+
+    protected JitterBuffer(Decoder decoder, AudioStats stats)
+    {
+        this.decoder = decoder;
+        this.stats = stats;
+    }
+
+    /**
+     * Buffers a received packet and hands every frame that is due to the handler.
+     */
+    protected synchronized void offer(User user, char seq, int timestamp, byte[] audio, int offset, int length, long arrival, FrameHandler handler)
+    {
+        this.user = user;
+        receivedPackets++;
+        if (!started)
+        {
+            started = true;
+            nextSeq = seq;
+            highestSeq = seq;
+            highestTimestamp = timestamp;
+            highestArrival = arrival;
+        }
+        else if ((short) (seq - highestSeq) > 0)
+        {
+            updateJitter(seq, timestamp, arrival);
+        }
+        else if (seq != highestSeq)
+        {
+            reorderedPackets++;
+        }
+
+        int distance = (short) (seq - nextSeq);
+        Slot slot = slots[seq & MASK];
+        if (distance < 0 && distance >= -RESTART_DISTANCE)
+        {
+            if (slot != null && slot.seq == seq && slot.decoded)
+                duplicatePackets++;
+            else
+                latePackets++;
+            return;
+        }
+        if (distance < 0 || distance >= CAPACITY)
+        {
+            //The sender jumped, play what we have and continue from the new sequence.
+            flush(user, handler);
+            nextSeq = seq;
+        }
+
+        if (slot == null)
+            slot = slots[seq & MASK] = new Slot();
+        if (slot.filled)
+        {
+            duplicatePackets++;
+            return;
+        }
+        slot.store(seq, audio, offset, length);
+        buffered++;
+
+        release(user, arrival, handler);
+    }
+
+    /**
+     * Hands the frames that are overdue at the provided time to the handler.
+     * <br>Without this, frames queued behind a missing packet would wait for the next packet of the user.
+     */
+    protected synchronized void poll(long now, FrameHandler handler)
+    {
+        if (buffered > 0)
+            release(user, now, handler);
+    }
+
+    private void updateJitter(char seq, int timestamp, long arrival)
+    {
+        //RFC 3550 6.4.1, the difference of the transit times of two packets, smoothed with a gain of 1/16.
+        double transit = (arrival - highestArrival) - (timestamp - highestTimestamp) * NANOS_PER_SAMPLE;
+        jitter += (Math.abs(transit) - jitter) / 16;
+
+        highestSeq = seq;
+        highestTimestamp = timestamp;
+        highestArrival = arrival;
+
+        int depth = MIN_DEPTH + (int) Math.ceil(2 * jitter / FRAME_NANOS);
+        targetDepth = Math.min(MAX_DEPTH, depth);
+        jitterMillis = jitter / TimeUnit.MILLISECONDS.toNanos(1);
+        stats.recordJitter((long) jitter);
+    }
+
+    private void release(User user, long now, FrameHandler handler)
+    {
+        while (buffered > 0)
+        {
+            Slot slot = slots[nextSeq & MASK];
+            if (slot != null && slot.filled)
+            {
+                emit(user, decoder.decodeFromOpus(slot.data, 0, slot.length, false), handler);
+                slot.filled = false;
+                slot.decoded = true;
+                buffered--;
+                decodedPackets++;
+                nextSeq++;
+                waiting = false;
+                concealedFrames = 0;
+                continue;
+            }
+
+            if (!waiting)
+            {
+                waiting = true;
+                waitingSince = now;
+            }
+            int depth = targetDepth;
+            if (buffered <= depth && now - waitingSince < depth * FRAME_NANOS)
+                return;
+
+            lostFrames++;
+            stats.recordLostFrame();
+            if (concealedFrames >= MAX_CONCEALED_FRAMES)
+            {
+                nextSeq++;
+                continue;
+            }
+
+            Slot next = slots[(char) (nextSeq + 1) & MASK];
+            short[] frame;
+            if (next != null && next.filled)
+            {
+                frame = decoder.decodeFromOpus(next.data, 0, next.length, true);
+                recoveredFrames++;
+            }
+            else
+            {
+                frame = decoder.decodeFromOpus(null, 0, 0, false);
+                concealedFramesTotal++;
+            }
+            concealedFrames++;
+            nextSeq++;
+            emit(user, frame, handler);
+        }
+    }
+
+    private void flush(User user, FrameHandler handler)
+    {
+        while (buffered > 0)
+        {
+            Slot slot = slots[nextSeq & MASK];
+            if (slot != null && slot.filled)
+            {
+                emit(user, decoder.decodeFromOpus(slot.data, 0, slot.length, false), handler);
+                slot.filled = false;
+                slot.decoded = true;
+                buffered--;
+                decodedPackets++;
+            }
+            else
+            {
+                lostFrames++;
+                stats.recordLostFrame();
+            }
+            nextSeq++;
+        }
+        waiting = false;
+        concealedFrames = 0;
+    }
+
+    private void emit(User user, short[] frame, FrameHandler handler)
+    {
+        //If the frame is null, then the Opus decode failed, so throw away the packet.
+        if (frame == null)
+        {
+            decodeErrors++;
+            stats.recordDecodeError();
+            AudioConnection.LOG.trace("Received audio data but Opus failed to properly decode, instead it returned an error");
+        }
+        else
+        {
+            handler.handleFrame(user, frame);
+        }
+    }
+
+    /**
+     * The amount of packets that are currently waiting for a missing packet before them.
+     *
+     * @return The amount of buffered packets
+     */
+    public int getBufferedCount()
+    {
+        return buffered;
+    }
+
+    /**
+     * The amount of packets currently waited for before a missing frame is considered lost.
+     *
+     * @return The current target depth, between {@link #MIN_DEPTH} and {@link #MAX_DEPTH}
+     */
+    public int getTargetDepth()
+    {
+        return targetDepth;
+    }
+
+    /**
+     * The smoothed interarrival jitter as defined by RFC 3550.
+     *
+     * @return The jitter in milliseconds
+     */
+    public double getJitter()
+    {
+        return jitterMillis;
+    }
+
+    public long getReceivedCount()
+    {
+        return receivedPackets;
+    }
+
+    public long getDecodedCount()
+    {
+        return decodedPackets;
+    }
+
+    /**
+     * The amount of packets that arrived after a packet with a higher sequence.
+     * <br>Includes packets that were dropped as late.
+     *
+     * @return The amount of reordered packets
+     */
+    public long getReorderedCount()
+    {
+        return reorderedPackets;
+    }
+
+    /**
+     * The amount of packets that arrived after their frame was already restored, concealed or skipped.
+     *
+     * @return The amount of late packets
+     */
+    public long getLateCount()
+    {
+        return latePackets;
+    }
+
+    /**
+     * The amount of packets that arrived again while buffered or shortly after they were decoded.
+     *
+     * @return The amount of duplicate packets
+     */
+    public long getDuplicateCount()
+    {
+        return duplicatePackets;
+    }
+
+    /**
+     * The amount of frames that did not arrive in time.
+     * <br>This includes the {@link #getRecoveredCount() recovered} and {@link #getConcealedCount() concealed} frames,
+     * as well as frames of gaps too long to conceal.
+     *
+     * @return The amount of lost frames
+     */
+    public long getLostCount()
+    {
+        return lostFrames;
+    }
+
+    /**
+     * The amount of lost frames that were restored from the forward error correction data of the next packet.
+     *
+     * @return The amount of recovered frames
+     */
+    public long getRecoveredCount()
+    {
+        return recoveredFrames;
+    }
+
+    /**
+     * The amount of lost frames that were filled in by the Opus packet loss concealment.
+     *
+     * @return The amount of concealed frames
+     */
+    public long getConcealedCount()
+    {
+        return concealedFramesTotal;
+    }
+
+    public long getDecodeErrorCount()
+    {
+        return decodeErrors;
+    }
+
+    /**
+     * The share of frames that did not arrive in time.
+     *
+     * @return The loss rate, between 0 and 1
+     */
+    public double getLossRate()
+    {
+        long lost = lostFrames;
+        long total = decodedPackets + lost;
+        return total == 0 ? 0 : lost / (double) total;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("JitterBuffer[received=%d, lost=%d (recovered=%d, concealed=%d), late=%d, reordered=%d, jitter=%.2fms, depth=%d]",
+                getReceivedCount(), getLostCount(), getRecoveredCount(), getConcealedCount(), getLateCount(),
+                getReorderedCount(), getJitter(), getTargetDepth());
+    }
+
+    interface FrameHandler
+    {
+        void handleFrame(User user, short[] frame);
+    }
+
+    private static final class Slot
+    {
+        private byte[] data = new byte[256];
+        private int length;
+        private char seq;
+        private boolean filled = false;
+        private boolean decoded = false;
+
+        private void store(char seq, byte[] audio, int offset, int length)
+        {
+            this.seq = seq;
+            this.decoded = false;
+            if (data.length < length)
+                data = new byte[length];
+            System.arraycopy(audio, offset, data, 0, length);
+            this.length = length;
+            this.filled = true;
+        }
+    }
+}
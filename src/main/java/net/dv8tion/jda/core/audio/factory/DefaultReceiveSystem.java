@@ -0,0 +1,98 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.audio.factory;
+
+import net.dv8tion.jda.core.audio.AudioConnection;
+import net.dv8tion.jda.core.audio.AudioPacket;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+
+public class DefaultReceiveSystem implements IAudioReceiveSystem
+{
+    private final IPacketReceiver packetReceiver;
+    private Thread receiveThread;
+    //Interrupting a thread inside a channel operation closes the channel, and with it the whole connection.
+    private volatile boolean running = true;
+
+    public DefaultReceiveSystem(IPacketReceiver packetReceiver)
+    {
+        this.packetReceiver = packetReceiver;
+    }
+
+    @Override
+    public void start()
+    {
+        final DatagramSocket udpSocket = packetReceiver.getUdpSocket();
+
+        receiveThread = new Thread(packetReceiver.getIdentifier() + " Receiving Thread")
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    udpSocket.setSoTimeout(1000);
+                }
+                catch (SocketException e)
+                {
+                    AudioConnection.LOG.log(e);
+                }
+                while (!udpSocket.isClosed() && running)
+                {
+                    DatagramPacket receivedPacket = new DatagramPacket(new byte[1920], 1920);
+                    try
+                    {
+                        udpSocket.receive(receivedPacket);
+
+                        if (packetReceiver.isReceiving())
+                        {
+                            AudioPacket decryptedPacket = AudioPacket.decryptAudioPacket(receivedPacket, packetReceiver.getSecretKey());
+                            byte[] audio = decryptedPacket.getEncodedAudio();
+                            packetReceiver.handleAudio(decryptedPacket.getSSRC(), decryptedPacket.getSequence(),
+                                    decryptedPacket.getTimestamp(), audio, 0, audio.length);
+                        }
+                    }
+                    catch (SocketTimeoutException e)
+                    {
+                        //Ignore. We set a low timeout so that we wont block forever so we can properly shutdown the loop.
+                    }
+                    catch (SocketException e)
+                    {
+                        //The socket was closed while we were listening for the next packet.
+                        //This is expected. Ignore the exception. The thread will exit during the next while
+                        // iteration because the udpSocket.isClosed() will return true.
+                    }
+                    catch (Exception e)
+                    {
+                        AudioConnection.LOG.log(e);
+                    }
+                }
+            }
+        };
+        receiveThread.setDaemon(true);
+        receiveThread.start();
+    }
+
+    @Override
+    public void shutdown()
+    {
+        running = false;
+    }
+}
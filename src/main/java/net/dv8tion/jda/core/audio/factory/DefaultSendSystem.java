@@ -24,6 +24,9 @@ import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.NoRouteToHostException;
 import java.net.SocketException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.TimeUnit;
 
 import static net.dv8tion.jda.core.audio.AudioConnection.OPUS_FRAME_TIME_AMOUNT;
 
@@ -31,6 +34,10 @@ public class DefaultSendSystem implements IAudioSendSystem
 {
     private final IPacketProvider packetProvider;
     private Thread sendThread;
+    //Interrupting a thread inside a channel operation closes the channel, and with it the whole connection.
+    private volatile boolean running = true;
+    //Only used by the send thread.
+    private final PacketTarget target = new PacketTarget();
 
     public DefaultSendSystem(IPacketProvider packetProvider)
     {
@@ -50,7 +57,7 @@ public class DefaultSendSystem implements IAudioSendSystem
             public void run()
             {
                 long lastFrameSent = System.currentTimeMillis();
-                while (!udpSocket.isClosed() && !sendThread.isInterrupted())
+                while (!udpSocket.isClosed() && running)
                 {
                     try
                     {
@@ -58,18 +65,29 @@ public class DefaultSendSystem implements IAudioSendSystem
                         DatagramPacket packet = packetProvider.getNextPacket(changeTalking);
 
                         if (packet != null)
-                            udpSocket.send(packet);
+                        {
+                            DatagramChannel channel = udpSocket.getChannel();
+                            //A non-blocking channel drops the packet instead of waiting if its send buffer is full.
+                            boolean sent = true;
+                            if (channel != null)
+                                sent = channel.send(target.wrap(packet), target.addressOf(packet)) > 0;
+                            else
+                                udpSocket.send(packet);
+                            if (sent)
+                                packetProvider.onPacketSent(TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - lastFrameSent));
+                        }
                     }
                     catch (NoRouteToHostException e)
                     {
                         packetProvider.onConnectionLost();
                     }
-                    catch (SocketException e)
+                    catch (SocketException | ClosedChannelException e)
                     {
                         //Most likely the socket has been closed due to the audio connection be closed. Next iteration will kill loop.
                     }
                     catch (Exception e)
                     {
+                        packetProvider.onSendError(e);
                         AudioConnection.LOG.log(e);
                     }
                     finally
@@ -85,7 +103,7 @@ public class DefaultSendSystem implements IAudioSendSystem
                             catch (InterruptedException e)
                             {
                                 //We've been asked to stop.
-                                Thread.currentThread().interrupt();
+                                running = false;
                             }
                         }
                         if (System.currentTimeMillis() < lastFrameSent + 60) // If the sending didn't took longer than 60ms (3 times the time frame)
@@ -108,7 +126,6 @@ public class DefaultSendSystem implements IAudioSendSystem
     @Override
     public void shutdown()
     {
-        if (sendThread != null)
-            sendThread.interrupt();
+        running = false;
     }
 }
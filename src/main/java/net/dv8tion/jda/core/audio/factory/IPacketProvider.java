@@ -32,6 +32,22 @@ public interface IPacketProvider
 
     DatagramPacket getNextPacket(boolean changeTalking);
 
+    /**
+     * Called by the send system after it sent a packet returned by {@link #getNextPacket(boolean)}.
+     *
+     * @param  latenessNanos
+     *         How many nanoseconds after its scheduled time the packet was sent
+     */
+    default void onPacketSent(long latenessNanos) {}
+
+    /**
+     * Called by the send system when sending a packet failed for another reason than the socket being closed.
+     *
+     * @param  error
+     *         The error that occurred
+     */
+    default void onSendError(Exception error) {}
+
     void onConnectionError(ConnectionStatus status);
 
     void onConnectionLost();
@@ -0,0 +1,59 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.audio.factory;
+
+import java.net.DatagramSocket;
+
+/**
+ * The receiving side of an {@link net.dv8tion.jda.core.audio.AudioConnection AudioConnection},
+ * fed by an {@link net.dv8tion.jda.core.audio.factory.IAudioReceiveSystem IAudioReceiveSystem}.
+ */
+public interface IPacketReceiver
+{
+    String getIdentifier();
+
+    DatagramSocket getUdpSocket();
+
+    /**
+     * Whether the connection currently wants audio. Called for every received packet,
+     * packets received while this is {@code false} should be discarded without decrypting them.
+     *
+     * @return True, if a receive handler wants audio and the secret key is known
+     */
+    boolean isReceiving();
+
+    byte[] getSecretKey();
+
+    /**
+     * Handles the decrypted opus audio of a packet.
+     * <br>Calls for the same connection must not happen concurrently and should be in the order the packets were received.
+     *
+     * @param  ssrc
+     *         The SSRC of the speaking user
+     * @param  seq
+     *         The RTP sequence of the packet
+     * @param  timestamp
+     *         The RTP timestamp of the packet
+     * @param  audio
+     *         Array containing the opus audio, only valid during this call
+     * @param  offset
+     *         Offset of the audio in the array
+     * @param  length
+     *         Length of the audio
+     */
+    void handleAudio(int ssrc, char seq, int timestamp, byte[] audio, int offset, int length);
+}
@@ -0,0 +1,54 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.audio.factory;
+
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Adapts the {@link java.net.DatagramPacket DatagramPackets} of an {@link IPacketProvider} for
+ * {@link java.nio.channels.DatagramChannel#send(ByteBuffer, java.net.SocketAddress)} without allocating per packet.
+ * <br>Providers usually reuse their packet, so the buffer wrapping its array and the target address are kept
+ * until the packet changes. Not thread-safe, every sending thread needs its own instance.
+ */
+final class PacketTarget
+{
+    private ByteBuffer buffer;
+    private InetSocketAddress address;
+
+    /**
+     * The data of the packet, positioned at its offset and limited to its length.
+     */
+    ByteBuffer wrap(DatagramPacket packet)
+    {
+        if (buffer == null || buffer.array() != packet.getData())
+            buffer = ByteBuffer.wrap(packet.getData());
+        buffer.limit(packet.getOffset() + packet.getLength()).position(packet.getOffset());
+        return buffer;
+    }
+
+    /**
+     * The address the packet is sent to.
+     */
+    InetSocketAddress addressOf(DatagramPacket packet)
+    {
+        if (address == null || address.getPort() != packet.getPort() || !address.getAddress().equals(packet.getAddress()))
+            address = new InetSocketAddress(packet.getAddress(), packet.getPort());
+        return address;
+    }
+}
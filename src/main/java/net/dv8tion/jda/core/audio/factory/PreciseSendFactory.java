@@ -0,0 +1,417 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.audio.factory;
+
+import net.dv8tion.jda.core.audio.AudioConnection;
+import net.dv8tion.jda.core.audio.AudioPacketWriter;
+import net.dv8tion.jda.core.audio.AudioStats;
+import net.dv8tion.jda.core.utils.Histogram;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static net.dv8tion.jda.core.audio.AudioConnection.OPUS_FRAME_TIME_AMOUNT;
+
+/**
+ * {@link net.dv8tion.jda.core.audio.factory.IAudioSendFactory IAudioSendFactory} pacing the frames of every connection
+ * on an absolute {@link System#nanoTime()} schedule.
+ * <p>
+ * Like the {@link net.dv8tion.jda.core.audio.factory.DefaultSendFactory DefaultSendFactory} every connection gets its
+ * own sending thread. Instead of sleeping for the rest of the frame in milliseconds, the thread parks until shortly
+ * before the deadline of the next frame and spins for the remaining microseconds. Deadlines are exactly 20 milliseconds
+ * apart, so a late frame does not delay the following ones. A connection more than 3 frames behind skips the missed frames
+ * instead of sending a burst of packets.
+ * <p>
+ * With a prefetch of at least one frame, a second thread per connection asks for the next packets ahead of time and the
+ * sending thread only sends them, so a slow {@link net.dv8tion.jda.core.audio.AudioSendHandler AudioSendHandler}
+ * or encoder does not make the frame late. Every prefetched frame adds 20 milliseconds of latency
+ * to changes of the audio.
+ *
+ * <p><b>Example</b>
+ * <pre><code>
+ * PreciseSendFactory sendFactory = new PreciseSendFactory(2);
+ * JDA jda = new JDABuilder(AccountType.BOT)
+ *         .setAudioSendFactory(sendFactory)
+ *         ...
+ * </code></pre>
+ */
+public class PreciseSendFactory implements IAudioSendFactory
+{
+    /** The most frames that can be prefetched. */
+    public static final int MAX_PREFETCH_FRAMES = 10;
+
+    private static final long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(OPUS_FRAME_TIME_AMOUNT);
+    //Parking usually overshoots by up to ~100 microseconds, the rest of the wait is spent spinning.
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final int MAX_PACKET_SIZE = AudioPacketWriter.MAX_AUDIO_LENGTH + 32;
+
+    private final int prefetchFrames;
+
+    private final Histogram sendLateness = new Histogram();
+    private final Histogram provideTime = new Histogram();
+    private final LongAdder sentPackets = new LongAdder();
+    private final LongAdder droppedPackets = new LongAdder();
+    private final LongAdder lateFrames = new LongAdder();
+    private final LongAdder skippedFrames = new LongAdder();
+    private final LongAdder emptyFrames = new LongAdder();
+
+    /**
+     * Creates a factory sending every packet as soon as it is provided at the deadline, without prefetching.
+     */
+    public PreciseSendFactory()
+    {
+        this(0);
+    }
+
+    /**
+     * Creates a factory prefetching the provided amount of frames ahead of their deadline.
+     *
+     * @param  prefetchFrames
+     *         The amount of frames to prepare ahead, 0 to disable prefetching
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the amount is negative or more than {@link #MAX_PREFETCH_FRAMES}
+     */
+    public PreciseSendFactory(int prefetchFrames)
+    {
+        if (prefetchFrames < 0 || prefetchFrames > MAX_PREFETCH_FRAMES)
+            throw new IllegalArgumentException("Prefetch frames must be between 0 and " + MAX_PREFETCH_FRAMES);
+        this.prefetchFrames = prefetchFrames;
+    }
+
+    @Override
+    public IAudioSendSystem createSendSystem(IPacketProvider packetProvider)
+    {
+        return new PreciseSendSystem(packetProvider);
+    }
+
+    public int getPrefetchFrames()
+    {
+        return prefetchFrames;
+    }
+
+    public long getSentPacketCount()
+    {
+        return sentPackets.sum();
+    }
+
+    /**
+     * The amount of packets that could not be sent because the send buffer of the channel was full.
+     *
+     * @return The amount of dropped packets
+     */
+    public long getDroppedPacketCount()
+    {
+        return droppedPackets.sum();
+    }
+
+    /**
+     * The amount of packets sent more than {@link net.dv8tion.jda.core.audio.AudioStats#LATE_FRAME_NANOS AudioStats.LATE_FRAME_NANOS}
+     * after their deadline.
+     *
+     * @return The amount of late frames
+     */
+    public long getLateFrameCount()
+    {
+        return lateFrames.sum();
+    }
+
+    /**
+     * The amount of frames that were skipped because a connection fell behind by more than 3 frames.
+     *
+     * @return The amount of skipped frames
+     */
+    public long getSkippedFrameCount()
+    {
+        return skippedFrames.sum();
+    }
+
+    /**
+     * The amount of deadlines at which no prefetched frame was ready, although the connection was speaking.
+     * <br>Always 0 without prefetching.
+     *
+     * @return The amount of deadlines missed by the prefetch
+     */
+    public long getPrefetchUnderrunCount()
+    {
+        return emptyFrames.sum();
+    }
+
+    /**
+     * Nanoseconds a packet was sent after its deadline, the send jitter of all connections.
+     *
+     * @return The lateness {@link net.dv8tion.jda.core.utils.Histogram Histogram}
+     */
+    public Histogram getSendLateness()
+    {
+        return sendLateness;
+    }
+
+    /**
+     * Nanoseconds the connections took to provide, encode and encrypt a packet.
+     *
+     * @return The provide time {@link net.dv8tion.jda.core.utils.Histogram Histogram}
+     */
+    public Histogram getProvideTime()
+    {
+        return provideTime;
+    }
+
+    private class PreciseSendSystem implements IAudioSendSystem
+    {
+        private final IPacketProvider packetProvider;
+        private final ArrayBlockingQueue<Frame> readyFrames;
+        private final ArrayBlockingQueue<Frame> freeFrames;
+        private DatagramSocket udpSocket;
+        private DatagramChannel channel;
+        private Thread sendThread;
+        private Thread prefetchThread;
+        //Interrupting a thread inside a channel operation closes the channel, and with it the whole connection.
+        private volatile boolean running = false;
+        private volatile boolean speaking = false;
+
+        //Only used by one thread, the prefetch thread if there is one and the sending thread otherwise.
+        private final PacketTarget target = new PacketTarget();
+
+        private PreciseSendSystem(IPacketProvider packetProvider)
+        {
+            this.packetProvider = packetProvider;
+            if (prefetchFrames > 0)
+            {
+                readyFrames = new ArrayBlockingQueue<>(prefetchFrames);
+                freeFrames = new ArrayBlockingQueue<>(prefetchFrames);
+                for (int i = 0; i < prefetchFrames; i++)
+                    freeFrames.add(new Frame());
+            }
+            else
+            {
+                readyFrames = null;
+                freeFrames = null;
+            }
+        }
+
+        @Override
+        public synchronized void start()
+        {
+            if (running)
+                return;
+            running = true;
+            udpSocket = packetProvider.getUdpSocket();
+            channel = udpSocket.getChannel();
+
+            sendThread = new Thread(this::send, packetProvider.getIdentifier() + " Sending Thread");
+            sendThread.setPriority((Thread.NORM_PRIORITY + Thread.MAX_PRIORITY) / 2);
+            sendThread.setDaemon(true);
+            if (readyFrames != null)
+            {
+                prefetchThread = new Thread(this::prefetch, packetProvider.getIdentifier() + " Prefetch Thread");
+                prefetchThread.setDaemon(true);
+                prefetchThread.start();
+            }
+            sendThread.start();
+        }
+
+        @Override
+        public synchronized void shutdown()
+        {
+            running = false;
+            if (sendThread != null)
+                LockSupport.unpark(sendThread);
+            if (prefetchThread != null)
+                LockSupport.unpark(prefetchThread);
+        }
+
+        private void send()
+        {
+            long deadline = System.nanoTime();
+            while (running && !udpSocket.isClosed())
+            {
+                if (!awaitDeadline(deadline))
+                    return;
+
+                try
+                {
+                    if (readyFrames != null)
+                        sendPrefetched(deadline);
+                    else
+                        sendProvided(deadline);
+                }
+                catch (NoRouteToHostException e)
+                {
+                    packetProvider.onConnectionLost();
+                }
+                catch (SocketException | ClosedChannelException e)
+                {
+                    //Most likely the socket has been closed due to the audio connection be closed. Next iteration will kill loop.
+                }
+                catch (Exception e)
+                {
+                    packetProvider.onSendError(e);
+                    AudioConnection.LOG.log(e);
+                }
+
+                //Deadlines stay exactly one frame apart, a late frame does not shift the following ones.
+                deadline += FRAME_NANOS;
+                long behind = System.nanoTime() - deadline;
+                if (behind > 3 * FRAME_NANOS)
+                {
+                    //Too far behind to catch up without bursting packets, drop the missed frames.
+                    long missed = behind / FRAME_NANOS;
+                    skippedFrames.add(missed);
+                    deadline += missed * FRAME_NANOS;
+                }
+            }
+        }
+
+        private boolean awaitDeadline(long deadline)
+        {
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > SPIN_NANOS)
+            {
+                LockSupport.parkNanos(this, remaining - SPIN_NANOS);
+                if (!running)
+                    return false;
+            }
+            while (System.nanoTime() < deadline)
+            {
+                //Spin for the last microseconds, parking is not precise enough.
+            }
+            return running;
+        }
+
+        private void sendProvided(long deadline) throws Exception
+        {
+            long start = System.nanoTime();
+            DatagramPacket packet = packetProvider.getNextPacket(start - deadline > FRAME_NANOS);
+            provideTime.record(System.nanoTime() - start);
+            if (packet == null)
+                return;
+
+            transmit(packet, target.wrap(packet), target.addressOf(packet), deadline);
+        }
+
+        private void sendPrefetched(long deadline) throws Exception
+        {
+            Frame frame = readyFrames.poll();
+            if (frame == null)
+            {
+                if (speaking)
+                    emptyFrames.increment();
+                return;
+            }
+            try
+            {
+                frame.buffer.limit(frame.length).position(0);
+                transmit(frame.packet, frame.buffer, frame.address, deadline);
+            }
+            finally
+            {
+                freeFrames.offer(frame);
+                LockSupport.unpark(prefetchThread);
+            }
+        }
+
+        private void transmit(DatagramPacket packet, ByteBuffer data, InetSocketAddress address, long deadline) throws Exception
+        {
+            if (channel != null)
+            {
+                //A non-blocking channel drops the packet instead of waiting if its send buffer is full.
+                if (channel.send(data, address) == 0)
+                {
+                    droppedPackets.increment();
+                    return;
+                }
+            }
+            else
+            {
+                packet.setSocketAddress(address);
+                udpSocket.send(packet);
+            }
+            sentPackets.increment();
+
+            long lateness = System.nanoTime() - deadline;
+            sendLateness.record(lateness);
+            if (lateness > AudioStats.LATE_FRAME_NANOS)
+                lateFrames.increment();
+            packetProvider.onPacketSent(lateness);
+        }
+
+        private void prefetch()
+        {
+            while (running && !udpSocket.isClosed())
+            {
+                Frame frame = freeFrames.poll();
+                if (frame == null)
+                {
+                    //All frames are prepared, the sending thread unparks us once it sent one.
+                    LockSupport.parkNanos(this, FRAME_NANOS);
+                    continue;
+                }
+
+                DatagramPacket packet = null;
+                try
+                {
+                    long start = System.nanoTime();
+                    packet = packetProvider.getNextPacket(readyFrames.isEmpty());
+                    provideTime.record(System.nanoTime() - start);
+                    if (packet != null)
+                    {
+                        frame.copy(packet, target.addressOf(packet));
+                        readyFrames.offer(frame);
+                    }
+                }
+                catch (Exception e)
+                {
+                    AudioConnection.LOG.log(e);
+                }
+                speaking = packet != null;
+                if (packet == null)
+                {
+                    freeFrames.offer(frame);
+                    //Nothing to send right now, check again in a quarter frame.
+                    LockSupport.parkNanos(this, FRAME_NANOS / 4);
+                }
+            }
+        }
+    }
+
+    private static final class Frame
+    {
+        private final byte[] data = new byte[MAX_PACKET_SIZE];
+        private final ByteBuffer buffer = ByteBuffer.wrap(data);
+        private final DatagramPacket packet = new DatagramPacket(data, 0);
+        private InetSocketAddress address;
+        private int length;
+
+        private void copy(DatagramPacket source, InetSocketAddress target)
+        {
+            length = Math.min(source.getLength(), data.length);
+            System.arraycopy(source.getData(), source.getOffset(), data, 0, length);
+            packet.setLength(length);
+            address = target;
+        }
+    }
+}
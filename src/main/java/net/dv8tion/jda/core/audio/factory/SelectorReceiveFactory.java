@@ -0,0 +1,458 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.audio.factory;
+
+import com.iwebpp.crypto.TweetNaclFast;
+import net.dv8tion.jda.core.audio.AudioConnection;
+import net.dv8tion.jda.core.audio.AudioPacket;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link net.dv8tion.jda.core.audio.factory.IAudioReceiveFactory IAudioReceiveFactory} receiving the audio of all
+ * connections on a single selector thread instead of one blocked thread per connection.
+ * <p>
+ * The UDP channels of the connections are switched to non-blocking mode and registered on a shared
+ * {@link java.nio.channels.Selector Selector}. Packets are read into a fixed pool of buffers and handed to a bounded
+ * pool of worker threads, which decrypt them in place and pass the audio on to the connection for decoding.
+ * Every connection is served by one worker, so its packets stay in order.
+ * If all buffers are in use or the queue of a worker is full, packets are dropped and counted
+ * instead of piling up.
+ * <p>
+ * One factory can be shared by multiple JDA instances. Its threads are started on the first connection
+ * and run until {@link #shutdown()} is called.
+ */
+public class SelectorReceiveFactory implements IAudioReceiveFactory
+{
+    /** The largest packet that is received, longer packets are truncated and fail to decrypt. */
+    public static final int MAX_PACKET_SIZE = 1920;
+
+    //Packets are read to offset 4, so the 12 byte RTP header ends where crypto_secretbox_open expects the MAC (16)
+    // and the encrypted audio starts at 32. The audio is then decrypted in place, see AudioPacketWriter.
+    private static final int PACKET_OFFSET = 4;
+    private static final int AUDIO_OFFSET = 32;
+    private static final int MIN_PACKET_SIZE = AUDIO_OFFSET - PACKET_OFFSET;
+    private static final int READS_PER_SELECT = 16;
+
+    private final Worker[] workers;
+    private final ArrayBlockingQueue<PacketBuffer> bufferPool;
+    private final ConcurrentLinkedQueue<SelectorReceiveSystem> pendingChanges = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer discardBuffer = ByteBuffer.allocate(MAX_PACKET_SIZE);
+
+    private final LongAdder receivedPackets = new LongAdder();
+    private final LongAdder droppedPackets = new LongAdder();
+    private final LongAdder failedPackets = new LongAdder();
+
+    private volatile Selector selector;
+    private volatile boolean shutdown = false;
+
+    /**
+     * Creates a factory using one worker per two available processors, at most 4, and 1024 buffers.
+     */
+    public SelectorReceiveFactory()
+    {
+        this(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)), 1024);
+    }
+
+    /**
+     * Creates a factory using the provided amount of workers and buffers.
+     *
+     * @param  workerCount
+     *         The amount of worker threads decrypting packets and handing them to the connections, at least 1
+     * @param  bufferCount
+     *         The amount of packets that can be waiting for a worker at once, at least 1
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If either count is smaller than 1
+     */
+    public SelectorReceiveFactory(int workerCount, int bufferCount)
+    {
+        if (workerCount < 1)
+            throw new IllegalArgumentException("Worker count must be at least 1");
+        if (bufferCount < 1)
+            throw new IllegalArgumentException("Buffer count must be at least 1");
+        this.bufferPool = new ArrayBlockingQueue<>(bufferCount);
+        for (int i = 0; i < bufferCount; i++)
+            bufferPool.add(new PacketBuffer());
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++)
+            workers[i] = new Worker(i, bufferCount);
+    }
+
+    @Override
+    public IAudioReceiveSystem createReceiveSystem(IPacketReceiver packetReceiver)
+    {
+        return new SelectorReceiveSystem(packetReceiver);
+    }
+
+    /**
+     * The amount of packets that were read from the channels of all connections.
+     *
+     * @return The amount of received packets
+     */
+    public long getReceivedPacketCount()
+    {
+        return receivedPackets.sum();
+    }
+
+    /**
+     * The amount of packets that were discarded because no buffer was free or the queue of the worker was full.
+     *
+     * @return The amount of dropped packets
+     */
+    public long getDroppedPacketCount()
+    {
+        return droppedPackets.sum();
+    }
+
+    /**
+     * The amount of packets that could not be decrypted or made the connection throw.
+     *
+     * @return The amount of failed packets
+     */
+    public long getFailedPacketCount()
+    {
+        return failedPackets.sum();
+    }
+
+    /**
+     * The amount of buffers that are currently free to receive packets into.
+     *
+     * @return The amount of free buffers
+     */
+    public int getFreeBufferCount()
+    {
+        return bufferPool.size();
+    }
+
+    /**
+     * The amount of connections currently receiving through this factory.
+     *
+     * @return The amount of connections
+     */
+    public int getConnectionCount()
+    {
+        int count = 0;
+        for (Worker worker : workers)
+            count += worker.connections.get();
+        return count;
+    }
+
+    /**
+     * Stops the selector and worker threads. Connections still using this factory stop receiving audio.
+     */
+    public void shutdown()
+    {
+        shutdown = true;
+        Selector selector = this.selector;
+        if (selector != null)
+            selector.wakeup();
+        for (Worker worker : workers)
+        {
+            if (worker.thread != null)
+                worker.thread.interrupt();
+        }
+    }
+
+    private synchronized void startThreads() throws IOException
+    {
+        if (selector != null)
+            return;
+        selector = Selector.open();
+
+        Thread selectorThread = new Thread(this::select, "JDA SelectorReceiveFactory Selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+        for (Worker worker : workers)
+        {
+            Thread thread = new Thread(worker::run, "JDA SelectorReceiveFactory Worker " + worker.index);
+            thread.setDaemon(true);
+            worker.thread = thread;
+            thread.start();
+        }
+    }
+
+    private synchronized Worker leastLoaded()
+    {
+        Worker best = workers[0];
+        for (Worker worker : workers)
+        {
+            if (worker.connections.get() < best.connections.get())
+                best = worker;
+        }
+        best.connections.incrementAndGet();
+        return best;
+    }
+
+    private void select()
+    {
+        try
+        {
+            while (!shutdown)
+            {
+                selector.select();
+                applyPendingChanges();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext())
+                {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isReadable())
+                        read((SelectorReceiveSystem) key.attachment());
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            AudioConnection.LOG.fatal("The selector of the SelectorReceiveFactory failed, audio is no longer received");
+            AudioConnection.LOG.log(e);
+        }
+        finally
+        {
+            try
+            {
+                selector.close();
+            }
+            catch (IOException ignored) {}
+        }
+    }
+
+    private void applyPendingChanges()
+    {
+        SelectorReceiveSystem system;
+        while ((system = pendingChanges.poll()) != null)
+        {
+            if (system.active && system.key == null)
+            {
+                try
+                {
+                    system.channel.configureBlocking(false);
+                    system.key = system.channel.register(selector, SelectionKey.OP_READ, system);
+                }
+                catch (ClosedChannelException e)
+                {
+                    //The connection was closed before it could be registered.
+                }
+                catch (IOException e)
+                {
+                    AudioConnection.LOG.log(e);
+                }
+            }
+            else if (!system.active && system.key != null)
+            {
+                system.key.cancel();
+                system.key = null;
+            }
+        }
+    }
+
+    private void read(SelectorReceiveSystem system)
+    {
+        try
+        {
+            for (int i = 0; i < READS_PER_SELECT; i++)
+            {
+                PacketBuffer buffer = bufferPool.poll();
+                if (buffer == null)
+                {
+                    discardBuffer.clear();
+                    if (system.channel.receive(discardBuffer) == null)
+                        return;
+                    receivedPackets.increment();
+                    droppedPackets.increment();
+                    continue;
+                }
+
+                ByteBuffer byteBuffer = buffer.byteBuffer;
+                byteBuffer.clear();
+                byteBuffer.position(PACKET_OFFSET);
+                if (system.channel.receive(byteBuffer) == null)
+                {
+                    bufferPool.offer(buffer);
+                    return;
+                }
+                receivedPackets.increment();
+
+                buffer.length = byteBuffer.position() - PACKET_OFFSET;
+                buffer.system = system;
+                if (buffer.length < MIN_PACKET_SIZE || !system.active || !system.receiver.isReceiving())
+                {
+                    //Too short to be audio (for example keep-alive responses) or nobody wants the audio
+                    buffer.system = null;
+                    bufferPool.offer(buffer);
+                }
+                else if (!system.worker.queue.offer(buffer))
+                {
+                    droppedPackets.increment();
+                    buffer.system = null;
+                    bufferPool.offer(buffer);
+                }
+            }
+        }
+        catch (ClosedChannelException e)
+        {
+            //The connection was closed, closing the channel cancelled its key.
+        }
+        catch (IOException e)
+        {
+            AudioConnection.LOG.log(e);
+        }
+    }
+
+    private class SelectorReceiveSystem implements IAudioReceiveSystem
+    {
+        private final IPacketReceiver receiver;
+        private DatagramChannel channel;
+        private Worker worker;
+        private volatile boolean active = false;
+        private SelectionKey key;   //Only accessed by the selector thread
+
+        private SelectorReceiveSystem(IPacketReceiver receiver)
+        {
+            this.receiver = receiver;
+        }
+
+        @Override
+        public synchronized void start()
+        {
+            if (shutdown)
+                throw new IllegalStateException("The SelectorReceiveFactory has been shut down");
+            if (active)
+                return;
+            DatagramSocket socket = receiver.getUdpSocket();
+            if (socket.getChannel() == null)
+                throw new IllegalStateException("The UDP socket of " + receiver.getIdentifier() + " was not opened through a DatagramChannel");
+            try
+            {
+                startThreads();
+            }
+            catch (IOException e)
+            {
+                throw new IllegalStateException("Could not open the selector", e);
+            }
+            channel = socket.getChannel();
+            worker = leastLoaded();
+            active = true;
+            pendingChanges.add(this);
+            selector.wakeup();
+        }
+
+        @Override
+        public synchronized void shutdown()
+        {
+            if (!active)
+                return;
+            active = false;
+            worker.connections.decrementAndGet();
+            pendingChanges.add(this);
+            selector.wakeup();
+        }
+    }
+
+    private static final class PacketBuffer
+    {
+        private final byte[] array = new byte[PACKET_OFFSET + MAX_PACKET_SIZE];
+        private final ByteBuffer byteBuffer = ByteBuffer.wrap(array);
+        private SelectorReceiveSystem system;
+        private int length;
+    }
+
+    private final class Worker
+    {
+        private final int index;
+        private final ArrayBlockingQueue<PacketBuffer> queue;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final byte[] nonce = new byte[AudioPacket.XSALSA20_NONCE_LENGTH];
+        private volatile Thread thread;
+
+        private Worker(int index, int capacity)
+        {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void run()
+        {
+            while (!shutdown)
+            {
+                PacketBuffer buffer;
+                try
+                {
+                    buffer = queue.poll(1, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e)
+                {
+                    //We've been asked to stop.
+                    return;
+                }
+                if (buffer == null)
+                    continue;
+
+                try
+                {
+                    if (buffer.system.active)
+                        handle(buffer);
+                }
+                catch (Throwable t)
+                {
+                    failedPackets.increment();
+                    AudioConnection.LOG.log(t);
+                }
+                finally
+                {
+                    buffer.system = null;
+                    bufferPool.offer(buffer);
+                }
+            }
+        }
+
+        private void handle(PacketBuffer buffer)
+        {
+            IPacketReceiver receiver = buffer.system.receiver;
+            byte[] secretKey = receiver.getSecretKey();
+            if (secretKey == null)
+                return;
+
+            byte[] array = buffer.array;
+            System.arraycopy(array, PACKET_OFFSET, nonce, 0, AudioPacket.RTP_HEADER_BYTE_LENGTH);
+            char seq = (char) (((nonce[AudioPacket.SEQ_INDEX] & 0xFF) << 8) | (nonce[AudioPacket.SEQ_INDEX + 1] & 0xFF));
+            int timestamp = readInt(nonce, AudioPacket.TIMESTAMP_INDEX);
+            int ssrc = readInt(nonce, AudioPacket.SSRC_INDEX);
+
+            if (TweetNaclFast.crypto_secretbox_open(array, array, PACKET_OFFSET + buffer.length, nonce, secretKey) != 0)
+            {
+                failedPackets.increment();
+                return;
+            }
+            receiver.handleAudio(ssrc, seq, timestamp, array, AUDIO_OFFSET, PACKET_OFFSET + buffer.length - AUDIO_OFFSET);
+        }
+    }
+
+    private static int readInt(byte[] array, int index)
+    {
+        return ((array[index] & 0xFF) << 24) | ((array[index + 1] & 0xFF) << 16) | ((array[index + 2] & 0xFF) << 8) | (array[index + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,409 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.audio.factory;
+
+import net.dv8tion.jda.core.audio.AudioConnection;
+import net.dv8tion.jda.core.utils.Histogram;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static net.dv8tion.jda.core.audio.AudioConnection.OPUS_FRAME_TIME_AMOUNT;
+
+/**
+ * {@link net.dv8tion.jda.core.audio.factory.IAudioSendFactory IAudioSendFactory} sending the audio of all connections
+ * from a small, fixed amount of timer threads instead of one thread per connection.
+ * <p>
+ * Every 20 milliseconds each {@link net.dv8tion.jda.core.audio.factory.SharedSendFactory.Ticker Ticker} asks all of its
+ * {@link net.dv8tion.jda.core.audio.factory.IPacketProvider IPacketProviders} for their next packet and sends it through
+ * the {@link java.nio.channels.DatagramChannel DatagramChannel} of the connection. New connections are assigned to the
+ * ticker with the fewest connections. A tick that takes longer than a frame is counted as overrun,
+ * if the tickers overrun regularly more threads are needed.
+ * <p>
+ * One factory can be shared by multiple JDA instances. Its threads are started on the first connection
+ * and run until {@link #shutdown()} is called.
+ *
+ * <p><b>Example</b>
+ * <pre><code>
+ * SharedSendFactory sendFactory = new SharedSendFactory(4);
+ * JDA jda = new JDABuilder(AccountType.BOT)
+ *         .setAudioSendFactory(sendFactory)
+ *         ...
+ * </code></pre>
+ */
+public class SharedSendFactory implements IAudioSendFactory
+{
+    private static final long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(OPUS_FRAME_TIME_AMOUNT);
+
+    private final Ticker[] tickers;
+    private volatile boolean started = false;
+    private volatile boolean shutdown = false;
+
+    /**
+     * Creates a factory using one timer thread per two available processors, at most 4.
+     */
+    public SharedSendFactory()
+    {
+        this(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+    }
+
+    /**
+     * Creates a factory using the provided amount of timer threads.
+     *
+     * @param  threadCount
+     *         The amount of timer threads, at least 1
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the thread count is smaller than 1
+     */
+    public SharedSendFactory(int threadCount)
+    {
+        if (threadCount < 1)
+            throw new IllegalArgumentException("Thread count must be at least 1");
+        this.tickers = new Ticker[threadCount];
+        for (int i = 0; i < threadCount; i++)
+            tickers[i] = new Ticker(i);
+    }
+
+    @Override
+    public IAudioSendSystem createSendSystem(IPacketProvider packetProvider)
+    {
+        return new SharedSendSystem(packetProvider);
+    }
+
+    /**
+     * The timer threads of this factory, to inspect their load and overrun statistics.
+     *
+     * @return Immutable list of the tickers
+     */
+    public List<Ticker> getTickers()
+    {
+        return Collections.unmodifiableList(Arrays.asList(tickers));
+    }
+
+    /**
+     * The amount of connections currently sending through this factory.
+     *
+     * @return The amount of connections
+     */
+    public int getConnectionCount()
+    {
+        int count = 0;
+        for (Ticker ticker : tickers)
+            count += ticker.getConnectionCount();
+        return count;
+    }
+
+    /**
+     * Stops all timer threads. Connections still using this factory stop sending audio.
+     */
+    public void shutdown()
+    {
+        shutdown = true;
+        for (Ticker ticker : tickers)
+        {
+            if (ticker.thread != null)
+                LockSupport.unpark(ticker.thread);
+        }
+    }
+
+    private synchronized void startTickers()
+    {
+        if (started)
+            return;
+        for (Ticker ticker : tickers)
+        {
+            Thread thread = new Thread(ticker::run, "JDA SharedSendFactory Ticker " + ticker.index);
+            thread.setPriority((Thread.NORM_PRIORITY + Thread.MAX_PRIORITY) / 2);
+            thread.setDaemon(true);
+            ticker.thread = thread;
+            thread.start();
+        }
+        started = true;
+    }
+
+    private synchronized Ticker leastLoaded()
+    {
+        Ticker best = tickers[0];
+        for (Ticker ticker : tickers)
+        {
+            if (ticker.connections.size() < best.connections.size())
+                best = ticker;
+        }
+        return best;
+    }
+
+    private class SharedSendSystem implements IAudioSendSystem
+    {
+        private final IPacketProvider packetProvider;
+        private volatile Ticker ticker;
+
+        private SharedSendSystem(IPacketProvider packetProvider)
+        {
+            this.packetProvider = packetProvider;
+        }
+
+        @Override
+        public void start()
+        {
+            if (shutdown)
+                throw new IllegalStateException("The SharedSendFactory has been shut down");
+            if (ticker != null)
+                return;
+            startTickers();
+            DatagramSocket socket = packetProvider.getUdpSocket();
+            synchronized (SharedSendFactory.this)
+            {
+                ticker = leastLoaded();
+                ticker.connections.add(new Connection(packetProvider, socket, socket.getChannel()));
+            }
+        }
+
+        @Override
+        public void shutdown()
+        {
+            Ticker current = ticker;
+            if (current != null)
+            {
+                current.remove(packetProvider);
+                ticker = null;
+            }
+        }
+    }
+
+    private static final class Connection
+    {
+        private final IPacketProvider provider;
+        private final DatagramSocket socket;
+        private final DatagramChannel channel;
+
+        private final PacketTarget target = new PacketTarget();
+
+        private Connection(IPacketProvider provider, DatagramSocket socket, DatagramChannel channel)
+        {
+            this.provider = provider;
+            this.socket = socket;
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * A timer thread of the {@link net.dv8tion.jda.core.audio.factory.SharedSendFactory SharedSendFactory}
+     * and the statistics of its ticks.
+     */
+    public final class Ticker
+    {
+        private final int index;
+        private final List<Connection> connections = new CopyOnWriteArrayList<>();
+        private final Histogram tickTime = new Histogram();
+        private final Histogram tickLateness = new Histogram();
+        private final LongAdder ticks = new LongAdder();
+        private final LongAdder overruns = new LongAdder();
+        private final LongAdder skippedTicks = new LongAdder();
+        private final LongAdder sentPackets = new LongAdder();
+        private final LongAdder droppedPackets = new LongAdder();
+        private volatile Thread thread;
+
+        private Ticker(int index)
+        {
+            this.index = index;
+        }
+
+        public int getIndex()
+        {
+            return index;
+        }
+
+        public int getConnectionCount()
+        {
+            return connections.size();
+        }
+
+        public long getTickCount()
+        {
+            return ticks.sum();
+        }
+
+        /**
+         * The amount of ticks that took longer than a frame (20 milliseconds) to send the packets of all connections.
+         *
+         * @return The amount of overrun ticks
+         */
+        public long getOverrunCount()
+        {
+            return overruns.sum();
+        }
+
+        /**
+         * The amount of ticks that were skipped because the ticker fell behind by more than 3 frames.
+         *
+         * @return The amount of skipped ticks
+         */
+        public long getSkippedTickCount()
+        {
+            return skippedTicks.sum();
+        }
+
+        public long getSentPacketCount()
+        {
+            return sentPackets.sum();
+        }
+
+        /**
+         * The amount of packets that could not be sent because the send buffer of the channel was full.
+         *
+         * @return The amount of dropped packets
+         */
+        public long getDroppedPacketCount()
+        {
+            return droppedPackets.sum();
+        }
+
+        /**
+         * Nanoseconds a tick took to provide and send the packets of all connections.
+         *
+         * @return The tick time {@link net.dv8tion.jda.core.utils.Histogram Histogram}
+         */
+        public Histogram getTickTime()
+        {
+            return tickTime;
+        }
+
+        /**
+         * Nanoseconds a tick started after its scheduled time.
+         *
+         * @return The lateness {@link net.dv8tion.jda.core.utils.Histogram Histogram}
+         */
+        public Histogram getTickLateness()
+        {
+            return tickLateness;
+        }
+
+        private void remove(IPacketProvider provider)
+        {
+            connections.removeIf(connection -> connection.provider == provider);
+        }
+
+        private void run()
+        {
+            long nextTick = System.nanoTime();
+            while (!shutdown)
+            {
+                long now = System.nanoTime();
+                if (now < nextTick)
+                {
+                    LockSupport.parkNanos(nextTick - now);
+                    continue;
+                }
+
+                long lateness = now - nextTick;
+                tickLateness.record(lateness);
+                tick(nextTick, lateness > FRAME_NANOS);
+                ticks.increment();
+
+                long tookNanos = System.nanoTime() - now;
+                tickTime.record(tookNanos);
+                if (tookNanos > FRAME_NANOS)
+                    overruns.increment();
+
+                nextTick += FRAME_NANOS;
+                long behind = System.nanoTime() - nextTick;
+                if (behind > 3 * FRAME_NANOS)
+                {
+                    //Too far behind to catch up without bursting packets, drop the missed ticks.
+                    long missed = behind / FRAME_NANOS;
+                    skippedTicks.add(missed);
+                    nextTick += missed * FRAME_NANOS;
+                }
+            }
+        }
+
+        private void tick(long deadline, boolean changeTalking)
+        {
+            List<Connection> closed = null;
+            for (Connection connection : connections)
+            {
+                if (connection.socket.isClosed())
+                {
+                    if (closed == null)
+                        closed = new ArrayList<>();
+                    closed.add(connection);
+                    continue;
+                }
+                send(connection, deadline, changeTalking);
+            }
+            if (closed != null)
+                connections.removeAll(closed);
+        }
+
+        private void send(Connection connection, long deadline, boolean changeTalking)
+        {
+            try
+            {
+                DatagramPacket packet = connection.provider.getNextPacket(changeTalking);
+                if (packet == null)
+                    return;
+
+                if (connection.channel != null)
+                {
+                    if (connection.channel.send(connection.target.wrap(packet), connection.target.addressOf(packet)) == 0)
+                    {
+                        droppedPackets.increment();
+                        return;
+                    }
+                }
+                else
+                {
+                    connection.socket.send(packet);
+                }
+                sentPackets.increment();
+                connection.provider.onPacketSent(System.nanoTime() - deadline);
+            }
+            catch (NoRouteToHostException e)
+            {
+                connection.provider.onConnectionLost();
+            }
+            catch (SocketException | ClosedChannelException e)
+            {
+                //Most likely the socket has been closed due to the audio connection be closed. Next tick will remove it.
+            }
+            catch (Exception e)
+            {
+                connection.provider.onSendError(e);
+                AudioConnection.LOG.log(e);
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Ticker(" + index + ") connections: " + getConnectionCount() + " overruns: " + getOverrunCount()
+                    + " skipped: " + getSkippedTickCount() + " tick time: " + tickTime.toString(TimeUnit.MICROSECONDS);
+        }
+    }
+}
@@ -0,0 +1,388 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.audio.ogg;
+
+import org.apache.http.util.Args;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An Ogg Opus file mapped into memory, ready to be played by any amount of
+ * {@link net.dv8tion.jda.core.audio.ogg.OggOpusSendHandler OggOpusSendHandlers} at once.
+ * <p>
+ * Opening the file reads it once to index the offset of every Ogg page and the first Opus packet starting on it.
+ * The audio itself is never loaded into the heap, the handlers copy each packet straight from the mapped file.
+ * A file is immutable and can be shared between all guilds playing it.
+ * <p>
+ * Only files with a single Opus stream of 20 millisecond packets are supported, which is what common encoders
+ * like {@code opusenc} and {@code ffmpeg -c:a libopus} write by default.
+ */
+public class OggOpusFile
+{
+    //"OggS" read as a little endian int
+    private static final int CAPTURE_PATTERN = 0x5367674F;
+    private static final int PAGE_HEADER_LENGTH = 27;
+    private static final int CONTINUED_PACKET = 0x01;
+    //The OpusHead and OpusTags packets come before the audio.
+    private static final int HEADER_PACKETS = 2;
+    //Frames per entry of the block index, which finds the page of a frame without searching.
+    private static final int BLOCK_SHIFT = 6;
+    private static final long FRAME_MICROS = 20000;
+    private static final long[] SILK_FRAME_MICROS = {10000, 20000, 40000, 60000};
+    private static final long[] CELT_FRAME_MICROS = {2500, 5000, 10000, 20000};
+
+    private final File file;
+    private final ByteBuffer data;
+    private final int[] pageTableOffsets;
+    private final int[] pageDataOffsets;
+    private final int[] pageFirstPackets;
+    private final int[] blockPages;
+    private final int pageCount;
+    private final int packetCount;
+    private final int channelCount;
+    private final int preSkip;
+
+    /**
+     * Maps and indexes the provided Ogg Opus file.
+     *
+     * @param  file
+     *         The file to open
+     *
+     * @throws java.io.IOException
+     *         If the file cannot be read or is not a valid Ogg file
+     * @throws java.lang.IllegalArgumentException
+     *         If the file is larger than 2GB, does not contain Opus, or its packets are not 20 milliseconds long
+     */
+    public OggOpusFile(File file) throws IOException
+    {
+        Args.notNull(file, "Provided File");
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Ogg files larger than 2GB are not supported: " + file);
+            //The mapping stays valid after the channel is closed.
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            this.data = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        int capacity = Math.max(16, data.capacity() / 4096);
+        int[] tableOffsets = new int[capacity];
+        int[] dataOffsets = new int[capacity];
+        int[] firstPackets = new int[capacity];
+        int pages = 0;
+        int packets = 0;
+        boolean inPacket = false;
+        int position = 0;
+        int limit = data.capacity();
+        while (position + PAGE_HEADER_LENGTH <= limit)
+        {
+            if (data.getInt(position) != CAPTURE_PATTERN)
+                throw new IOException("Invalid Ogg page at offset " + position + " of " + file);
+            int segments = data.get(position + 26) & 0xFF;
+            int tableOffset = position + PAGE_HEADER_LENGTH;
+            int dataOffset = tableOffset + segments;
+            if (dataOffset > limit)
+                throw new IOException("Truncated Ogg page at offset " + position + " of " + file);
+
+            if (pages == tableOffsets.length)
+            {
+                tableOffsets = Arrays.copyOf(tableOffsets, pages * 2);
+                dataOffsets = Arrays.copyOf(dataOffsets, pages * 2);
+                firstPackets = Arrays.copyOf(firstPackets, pages * 2);
+            }
+            tableOffsets[pages] = tableOffset;
+            dataOffsets[pages] = dataOffset;
+            firstPackets[pages] = packets;
+            pages++;
+
+            int dataLength = 0;
+            for (int i = 0; i < segments; i++)
+            {
+                int lacing = data.get(tableOffset + i) & 0xFF;
+                dataLength += lacing;
+                if (!inPacket)
+                {
+                    packets++;
+                    inPacket = true;
+                }
+                if (lacing < 255)
+                    inPacket = false;
+            }
+            position = dataOffset + dataLength;
+            if (position > limit)
+                throw new IOException("Truncated Ogg page at offset " + (dataOffset - segments - PAGE_HEADER_LENGTH) + " of " + file);
+        }
+        if (inPacket)
+            packets--;  //The last packet was cut off
+
+        this.pageCount = pages;
+        this.pageTableOffsets = Arrays.copyOf(tableOffsets, pages);
+        this.pageDataOffsets = Arrays.copyOf(dataOffsets, pages);
+        this.pageFirstPackets = Arrays.copyOf(firstPackets, pages);
+        this.packetCount = packets;
+
+        if (pages == 0 || packets < HEADER_PACKETS || !startsWith(pageDataOffsets[0], "OpusHead"))
+            throw new IllegalArgumentException("Not an Ogg Opus file: " + file);
+        this.channelCount = data.get(pageDataOffsets[0] + 9) & 0xFF;
+        this.preSkip = data.getShort(pageDataOffsets[0] + 10) & 0xFFFF;
+
+        int frames = getFrameCount();
+        this.blockPages = new int[(frames >> BLOCK_SHIFT) + 1];
+        int page = 0;
+        for (int block = 0; block < blockPages.length; block++)
+        {
+            int packet = (block << BLOCK_SHIFT) + HEADER_PACKETS;
+            while (page + 1 < pages && pageFirstPackets[page + 1] <= packet)
+                page++;
+            blockPages[block] = page;
+        }
+
+        if (frames > 0)
+        {
+            Cursor cursor = new Cursor();
+            cursor.seek(0);
+            byte[] first = cursor.readPacket();
+            if (first != null && first.length > 0 && getPacketMicros(first) != FRAME_MICROS)
+                throw new IllegalArgumentException("Only 20ms Opus packets are supported, found " + getPacketMicros(first) + "us in " + file);
+        }
+    }
+
+    public File getFile()
+    {
+        return file;
+    }
+
+    /**
+     * The amount of 20 millisecond frames in this file.
+     *
+     * @return The amount of frames
+     */
+    public int getFrameCount()
+    {
+        return Math.max(0, packetCount - HEADER_PACKETS);
+    }
+
+    /**
+     * The playing time of this file.
+     *
+     * @param  unit
+     *         The unit to return the duration in
+     *
+     * @return The duration in the provided unit
+     */
+    public long getDuration(TimeUnit unit)
+    {
+        return unit.convert(getFrameCount() * FRAME_MICROS, TimeUnit.MICROSECONDS);
+    }
+
+    public int getChannelCount()
+    {
+        return channelCount;
+    }
+
+    /**
+     * The amount of samples at the start of the stream the encoder asks players to discard.
+     *
+     * @return The pre-skip in 48KHz samples
+     */
+    public int getPreSkip()
+    {
+        return preSkip;
+    }
+
+    public int getPageCount()
+    {
+        return pageCount;
+    }
+
+    /**
+     * Creates a new handler playing this file from the start.
+     *
+     * @return A new {@link net.dv8tion.jda.core.audio.ogg.OggOpusSendHandler OggOpusSendHandler}
+     */
+    public OggOpusSendHandler createSendHandler()
+    {
+        return new OggOpusSendHandler(this);
+    }
+
+    Cursor createCursor()
+    {
+        return new Cursor();
+    }
+
+    private boolean startsWith(int offset, String magic)
+    {
+        if (offset + magic.length() > data.capacity())
+            return false;
+        for (int i = 0; i < magic.length(); i++)
+        {
+            if (data.get(offset + i) != magic.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    //The duration of an Opus packet, from its TOC byte (RFC 6716 3.1).
+    private static long getPacketMicros(byte[] packet)
+    {
+        int config = (packet[0] & 0xFF) >> 3;
+        long frameMicros;
+        if (config < 12)
+            frameMicros = SILK_FRAME_MICROS[config & 3];
+        else if (config < 16)
+            frameMicros = (config & 1) == 0 ? 10000 : 20000;
+        else
+            frameMicros = CELT_FRAME_MICROS[config & 3];
+
+        int frames;
+        switch (packet[0] & 0x03)
+        {
+            case 0:
+                frames = 1;
+                break;
+            case 3:
+                frames = packet.length > 1 ? packet[1] & 0x3F : 0;
+                break;
+            default:
+                frames = 2;
+        }
+        return frames * frameMicros;
+    }
+
+    /**
+     * Reads the packets of the file in order. Every handler owns one cursor, cursors share the mapped file.
+     */
+    final class Cursor
+    {
+        private final ByteBuffer view = data.duplicate();
+        private int page;
+        private int segment;
+        private int dataPosition;
+
+        /**
+         * Moves to the provided frame, in constant time.
+         */
+        void seek(int frame)
+        {
+            int packet = frame + HEADER_PACKETS;
+            int page = blockPages[frame >> BLOCK_SHIFT];
+            while (page + 1 < pageCount && pageFirstPackets[page + 1] <= packet)
+                page++;
+
+            this.page = page;
+            this.segment = 0;
+            this.dataPosition = pageDataOffsets[page];
+            if ((data.get(pageTableOffsets[page] - PAGE_HEADER_LENGTH + 5) & CONTINUED_PACKET) != 0)
+                skipPacket();   //The end of a packet that started on an earlier page
+            for (int i = pageFirstPackets[page]; i < packet; i++)
+                skipPacket();
+        }
+
+        /**
+         * Copies the next packet out of the mapped file.
+         *
+         * @return The packet, or {@code null} at the end of the file
+         */
+        byte[] readPacket()
+        {
+            int length = 0;
+            int page = this.page;
+            int segment = this.segment;
+            while (true)
+            {
+                if (segment == segmentCount(page))
+                {
+                    if (++page >= pageCount)
+                        return null;
+                    segment = 0;
+                }
+                int lacing = lacing(page, segment++);
+                length += lacing;
+                if (lacing < 255)
+                    break;
+            }
+
+            byte[] packet = new byte[length];
+            int copied = 0;
+            boolean complete = false;
+            while (!complete)
+            {
+                if (this.segment == segmentCount(this.page))
+                    nextPage();
+                int run = 0;
+                while (this.segment < segmentCount(this.page))
+                {
+                    int lacing = lacing(this.page, this.segment++);
+                    run += lacing;
+                    if (lacing < 255)
+                    {
+                        complete = true;
+                        break;
+                    }
+                }
+                view.position(dataPosition);
+                view.get(packet, copied, run);
+                copied += run;
+                dataPosition += run;
+            }
+            return packet;
+        }
+
+        private void skipPacket()
+        {
+            while (true)
+            {
+                if (segment == segmentCount(page))
+                {
+                    if (page + 1 >= pageCount)
+                        return;
+                    nextPage();
+                }
+                int lacing = lacing(page, segment++);
+                dataPosition += lacing;
+                if (lacing < 255)
+                    return;
+            }
+        }
+
+        private void nextPage()
+        {
+            page++;
+            segment = 0;
+            dataPosition = pageDataOffsets[page];
+        }
+
+        private int segmentCount(int page)
+        {
+            return pageDataOffsets[page] - pageTableOffsets[page];
+        }
+
+        private int lacing(int page, int segment)
+        {
+            return data.get(pageTableOffsets[page] + segment) & 0xFF;
+        }
+    }
+}
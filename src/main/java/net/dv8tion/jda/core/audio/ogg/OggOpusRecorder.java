@@ -0,0 +1,404 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.audio.ogg;
+
+import net.dv8tion.jda.core.audio.AudioConnection;
+import net.dv8tion.jda.core.audio.AudioReceiveHandler;
+import net.dv8tion.jda.core.audio.CombinedAudio;
+import net.dv8tion.jda.core.audio.UserAudio;
+import net.dv8tion.jda.core.entities.User;
+import org.apache.http.util.Args;
+
+import java.io.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link net.dv8tion.jda.core.audio.AudioReceiveHandler AudioReceiveHandler} recording every user to its own Ogg Opus file.
+ * <p>
+ * The received Opus packets are written as they are, nothing is decoded. The receiving thread only copies each packet
+ * into one of a fixed amount of buffers, a dedicated thread writes them to disk. If the disk cannot keep up and all buffers
+ * are in use, packets are dropped and counted, so memory use does not grow with the length of the recording.
+ * <p>
+ * The files are named {@code <user id>-<start time in millis>.ogg}. Silence between packets is filled in with silent frames,
+ * so the files of all users start at their first packet and stay in sync with real time from there.
+ * A page is written once it holds a second of audio or its first packet is a second old,
+ * so a crash loses at most about the last second of every file, even while a user is silent.
+ * <p>
+ * A recorder is meant for one {@link net.dv8tion.jda.core.managers.AudioManager AudioManager}.
+ * Call {@link #close()} after removing it, to write the end of all files.
+ *
+ * <pre><code>
+ * OggOpusRecorder recorder = new OggOpusRecorder(new File("recordings/" + guild.getId()));
+ * guild.getAudioManager().setReceivingHandler(recorder);
+ * ...
+ * guild.getAudioManager().setReceivingHandler(null);
+ * recorder.close();
+ * </code></pre>
+ */
+public class OggOpusRecorder implements AudioReceiveHandler, Closeable
+{
+    /** The default amount of packets that can wait to be written, 10 seconds of 10 users speaking. */
+    public static final int DEFAULT_BUFFERED_PACKETS = 5000;
+
+    private static final int FRAME_SAMPLES = AudioConnection.OPUS_FRAME_SIZE;
+    private static final int MAX_PACKET_LENGTH = 1500;
+    //Gaps longer than 10 minutes are not filled, the timeline of that file jumps instead.
+    private static final int MAX_SILENT_FRAMES = 10 * 60 * 50;
+    private static final byte[] SILENCE = {(byte) 0xF8, (byte) 0xFF, (byte) 0xFE};
+    //Pages are written once they hold a second of audio, or once their first packet is a second old.
+    private static final long MAX_PAGE_AGE = TimeUnit.SECONDS.toNanos(1);
+    private static final long FLUSH_CHECK_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final File directory;
+    private final ConcurrentMap<String, Recording> recordings = new ConcurrentHashMap<>();
+    private final ArrayBlockingQueue<Packet> freePackets;
+    private final ArrayBlockingQueue<Packet> queuedPackets;
+    private final Thread writerThread;
+    private volatile boolean closed = false;
+    //Calls of handleEncodedAudio in progress. After closing, the writer waits for them, so no packet or file is left behind.
+    private final AtomicInteger handling = new AtomicInteger();
+
+    private final LongAdder recordedPackets = new LongAdder();
+    private final LongAdder droppedPackets = new LongAdder();
+    private final LongAdder reorderedPackets = new LongAdder();
+
+    /**
+     * Creates a recorder writing to the provided directory, buffering up to {@link #DEFAULT_BUFFERED_PACKETS} packets.
+     *
+     * @param  directory
+     *         The directory to write the recordings to, created if it does not exist
+     *
+     * @throws java.io.IOException
+     *         If the directory cannot be created
+     */
+    public OggOpusRecorder(File directory) throws IOException
+    {
+        this(directory, DEFAULT_BUFFERED_PACKETS);
+    }
+
+    /**
+     * Creates a recorder writing to the provided directory.
+     *
+     * @param  directory
+     *         The directory to write the recordings to, created if it does not exist
+     * @param  bufferedPackets
+     *         The amount of packets that can wait to be written, each takes 1.5KB
+     *
+     * @throws java.io.IOException
+     *         If the directory cannot be created
+     * @throws java.lang.IllegalArgumentException
+     *         If the directory is null or the amount of packets is smaller than 1
+     */
+    public OggOpusRecorder(File directory, int bufferedPackets) throws IOException
+    {
+        Args.notNull(directory, "Provided directory");
+        if (bufferedPackets < 1)
+            throw new IllegalArgumentException("Buffered packets must be at least 1");
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Could not create the directory " + directory);
+        this.directory = directory;
+        this.freePackets = new ArrayBlockingQueue<>(bufferedPackets);
+        this.queuedPackets = new ArrayBlockingQueue<>(bufferedPackets);
+        for (int i = 0; i < bufferedPackets; i++)
+            freePackets.add(new Packet());
+
+        writerThread = new Thread(this::write, "JDA OggOpusRecorder " + directory.getName());
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public boolean canReceiveCombined()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean canReceiveUser()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean canReceiveEncoded()
+    {
+        return !closed;
+    }
+
+    @Override
+    public void handleCombinedAudio(CombinedAudio combinedAudio) {}
+
+    @Override
+    public void handleUserAudio(UserAudio userAudio) {}
+
+    @Override
+    public void handleEncodedAudio(User user, char sequence, int timestamp, byte[] audio, int offset, int length)
+    {
+        //Counted before checking closed, so the writer either sees this call or this call sees the recorder closed.
+        handling.incrementAndGet();
+        try
+        {
+            if (closed || length > MAX_PACKET_LENGTH)
+                return;
+            Packet packet = freePackets.poll();
+            if (packet == null)
+            {
+                droppedPackets.increment();
+                return;
+            }
+            Recording recording = recordings.get(user.getId());
+            if (recording == null)
+                recording = recordings.computeIfAbsent(user.getId(), id -> new Recording(new File(directory, id + "-" + System.currentTimeMillis() + ".ogg")));
+            packet.recording = recording;
+            packet.timestamp = timestamp;
+            packet.length = length;
+            System.arraycopy(audio, offset, packet.data, 0, length);
+            queuedPackets.offer(packet);
+        }
+        finally
+        {
+            handling.decrementAndGet();
+        }
+    }
+
+    /**
+     * The file the audio of the provided user is recorded to.
+     *
+     * @param  user
+     *         The user
+     *
+     * @return The file, or {@code null} if the user did not speak yet
+     */
+    public File getFile(User user)
+    {
+        Recording recording = recordings.get(user.getId());
+        return recording == null ? null : recording.file;
+    }
+
+    /**
+     * The amount of packets written to the files.
+     *
+     * @return The amount of recorded packets
+     */
+    public long getRecordedPacketCount()
+    {
+        return recordedPackets.sum();
+    }
+
+    /**
+     * The amount of packets dropped because all buffers were waiting to be written.
+     *
+     * @return The amount of dropped packets
+     */
+    public long getDroppedPacketCount()
+    {
+        return droppedPackets.sum();
+    }
+
+    /**
+     * The amount of packets dropped because they arrived after a newer packet of the same user.
+     *
+     * @return The amount of reordered packets
+     */
+    public long getReorderedPacketCount()
+    {
+        return reorderedPackets.sum();
+    }
+
+    /**
+     * Whether {@link #close()} was called.
+     *
+     * @return True, if this recorder no longer records
+     */
+    public boolean isClosed()
+    {
+        return closed;
+    }
+
+    /**
+     * Stops recording, writes the remaining packets and finishes all files.
+     * <br>Blocks until all files are closed.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        try
+        {
+            writerThread.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write()
+    {
+        try
+        {
+            long nextFlushCheck = System.nanoTime() + FLUSH_CHECK_INTERVAL;
+            while (!closed || handling.get() > 0 || !queuedPackets.isEmpty())
+            {
+                long now = System.nanoTime();
+                if (now - nextFlushCheck >= 0)
+                {
+                    nextFlushCheck = now + FLUSH_CHECK_INTERVAL;
+                    for (Recording recording : recordings.values())
+                        recording.flushIfOlder(now - MAX_PAGE_AGE);
+                }
+
+                Packet packet;
+                try
+                {
+                    packet = queuedPackets.poll(100, TimeUnit.MILLISECONDS);
+                }
+                catch (InterruptedException e)
+                {
+                    break;
+                }
+                if (packet == null)
+                    continue;
+                try
+                {
+                    packet.recording.write(packet);
+                }
+                finally
+                {
+                    packet.recording = null;
+                    freePackets.offer(packet);
+                }
+            }
+        }
+        finally
+        {
+            for (Recording recording : recordings.values())
+                recording.close();
+        }
+    }
+
+    private final class Recording
+    {
+        private final File file;
+        //Only accessed by the writer thread
+        private OutputStream out;
+        private OggPageWriter writer;
+        private boolean failed = false;
+        private int lastTimestamp;
+        private long granulePosition = 0;
+        private long pageStarted;    //When the first packet of the buffered page was written
+
+        private Recording(File file)
+        {
+            this.file = file;
+        }
+
+        private void write(Packet packet)
+        {
+            if (failed)
+                return;
+            try
+            {
+                if (writer == null)
+                {
+                    out = new BufferedOutputStream(new FileOutputStream(file), 16 * 1024);
+                    writer = new OggPageWriter(out, file.hashCode(), 16 * 1024);
+                    writer.writeHeaders(AudioConnection.OPUS_CHANNEL_COUNT);
+                }
+                else
+                {
+                    int distance = packet.timestamp - lastTimestamp;
+                    if (distance <= 0)
+                    {
+                        reorderedPackets.increment();
+                        return;
+                    }
+                    int silentFrames = distance / FRAME_SAMPLES - 1;
+                    if (silentFrames > 0 && silentFrames <= MAX_SILENT_FRAMES)
+                    {
+                        for (int i = 0; i < silentFrames; i++)
+                        {
+                            granulePosition += FRAME_SAMPLES;
+                            writer.writePacket(SILENCE, 0, SILENCE.length, granulePosition);
+                        }
+                    }
+                }
+                lastTimestamp = packet.timestamp;
+                granulePosition += FRAME_SAMPLES;
+                writer.writePacket(packet.data, 0, packet.length, granulePosition);
+                if (writer.getBufferedPackets() == 1)
+                    pageStarted = System.nanoTime();
+                recordedPackets.increment();
+            }
+            catch (IOException e)
+            {
+                fail(e);
+            }
+        }
+
+        private void flushIfOlder(long time)
+        {
+            if (failed || writer == null || writer.getBufferedPackets() == 0 || pageStarted - time > 0)
+                return;
+            try
+            {
+                writer.flush();
+            }
+            catch (IOException e)
+            {
+                fail(e);
+            }
+        }
+
+        private void fail(IOException e)
+        {
+            failed = true;
+            AudioConnection.LOG.fatal("Could not write the recording " + file + ", no longer recording it");
+            AudioConnection.LOG.log(e);
+            close();
+        }
+
+        private void close()
+        {
+            if (out == null)
+                return;
+            try
+            {
+                if (!failed)
+                    writer.finish();
+                out.close();
+            }
+            catch (IOException e)
+            {
+                AudioConnection.LOG.log(e);
+            }
+            out = null;
+        }
+    }
+
+    private static final class Packet
+    {
+        private final byte[] data = new byte[MAX_PACKET_LENGTH];
+        private Recording recording;
+        private int timestamp;
+        private int length;
+    }
+}
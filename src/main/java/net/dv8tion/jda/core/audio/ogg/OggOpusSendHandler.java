@@ -0,0 +1,121 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.audio.ogg;
+
+import net.dv8tion.jda.core.audio.AudioSendHandler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link net.dv8tion.jda.core.audio.AudioSendHandler AudioSendHandler} playing an
+ * {@link net.dv8tion.jda.core.audio.ogg.OggOpusFile OggOpusFile} without encoding.
+ * <p>
+ * Every call to {@link #provide20MsAudio()} copies the next Opus packet out of the mapped file, the only memory a
+ * playing handler holds is its position. Handlers are created by {@link OggOpusFile#createSendHandler()},
+ * every guild playing the file needs its own handler.
+ * <p>
+ * The first time a part of the file is played it may have to be read from disk.
+ * Combine it with a {@link net.dv8tion.jda.core.audio.factory.PreciseSendFactory PreciseSendFactory} that prefetches
+ * frames if the files are not in the page cache.
+ */
+public class OggOpusSendHandler implements AudioSendHandler
+{
+    private final OggOpusFile file;
+    private final OggOpusFile.Cursor cursor;
+    private int frame = 0;
+    private boolean paused = false;
+
+    OggOpusSendHandler(OggOpusFile file)
+    {
+        this.file = file;
+        this.cursor = file.createCursor();
+        cursor.seek(0);
+    }
+
+    public OggOpusFile getFile()
+    {
+        return file;
+    }
+
+    @Override
+    public synchronized boolean canProvide()
+    {
+        return !paused && frame < file.getFrameCount();
+    }
+
+    @Override
+    public synchronized byte[] provide20MsAudio()
+    {
+        if (frame >= file.getFrameCount())
+            return null;
+        frame++;
+        return cursor.readPacket();
+    }
+
+    @Override
+    public boolean isOpus()
+    {
+        return true;
+    }
+
+    /**
+     * Moves playback to the provided position. Positions past the end finish playback.
+     *
+     * @param  position
+     *         The position to continue playing from
+     * @param  unit
+     *         The unit of the position
+     */
+    public synchronized void seek(long position, TimeUnit unit)
+    {
+        long frame = unit.toMillis(position) / 20;
+        this.frame = (int) Math.max(0, Math.min(frame, file.getFrameCount()));
+        cursor.seek(this.frame);
+    }
+
+    /**
+     * The position of the next frame that is played.
+     *
+     * @param  unit
+     *         The unit to return the position in
+     *
+     * @return The position in the provided unit
+     */
+    public synchronized long getPosition(TimeUnit unit)
+    {
+        return unit.convert(frame * 20L, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized boolean isPaused()
+    {
+        return paused;
+    }
+
+    public synchronized void setPaused(boolean paused)
+    {
+        this.paused = paused;
+    }
+
+    /**
+     * Whether all frames of the file were played.
+     *
+     * @return True, if the handler reached the end of the file
+     */
+    public synchronized boolean isFinished()
+    {
+        return frame >= file.getFrameCount();
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.audio.ogg;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes Opus packets into the pages of an Ogg stream (RFC 3533, RFC 7845).
+ * <br>Packets are never split across pages, a page is written once it holds {@link #PACKETS_PER_PAGE} packets
+ * or the next packet does not fit. Only one page is buffered at a time.
+ */
+final class OggPageWriter
+{
+    /** One second of 20 millisecond packets. */
+    static final int PACKETS_PER_PAGE = 50;
+
+    private static final int FLAG_BEGINNING_OF_STREAM = 0x02;
+    private static final int FLAG_END_OF_STREAM = 0x04;
+    private static final int HEADER_LENGTH = 27;
+    private static final int MAX_SEGMENTS = 255;
+    private static final int[] CRC_TABLE = new int[256];
+
+    static
+    {
+        //The Ogg CRC-32: polynomial 0x04C11DB7, not reflected, initial value and final xor 0.
+        for (int i = 0; i < CRC_TABLE.length; i++)
+        {
+            int crc = i << 24;
+            for (int bit = 0; bit < 8; bit++)
+                crc = (crc & 0x80000000) != 0 ? (crc << 1) ^ 0x04C11DB7 : crc << 1;
+            CRC_TABLE[i] = crc;
+        }
+    }
+
+    private final OutputStream out;
+    private final int serial;
+    private final byte[] header = new byte[HEADER_LENGTH + MAX_SEGMENTS];
+    private final byte[] body;
+    private int bodyLength = 0;
+    private int segments = 0;
+    private int packets = 0;
+    private int pageSequence = 0;
+    private long granulePosition = 0;
+
+    OggPageWriter(OutputStream out, int serial, int bodyCapacity)
+    {
+        this.out = out;
+        this.serial = serial;
+        this.body = new byte[bodyCapacity];
+    }
+
+    /**
+     * Writes the OpusHead and OpusTags pages for a 48KHz stream.
+     */
+    void writeHeaders(int channelCount) throws IOException
+    {
+        byte[] head = new byte[19];
+        putAscii(head, 0, "OpusHead");
+        head[8] = 1;                            //Version
+        head[9] = (byte) channelCount;
+        putLittleEndian(head, 10, 0, 2);        //Pre-skip
+        putLittleEndian(head, 12, 48000, 4);    //Input sample rate
+        putLittleEndian(head, 16, 0, 2);        //Output gain
+        head[18] = 0;                           //Channel mapping family
+        writePacket(head, 0, head.length, 0);
+        writePage(FLAG_BEGINNING_OF_STREAM);
+
+        byte[] vendor = "JDA".getBytes(StandardCharsets.UTF_8);
+        byte[] tags = new byte[8 + 4 + vendor.length + 4];
+        putAscii(tags, 0, "OpusTags");
+        putLittleEndian(tags, 8, vendor.length, 4);
+        System.arraycopy(vendor, 0, tags, 12, vendor.length);
+        putLittleEndian(tags, 12 + vendor.length, 0, 4);    //No user comments
+        writePacket(tags, 0, tags.length, 0);
+        writePage(0);
+    }
+
+    /**
+     * Adds a packet to the current page, writing the page first if the packet does not fit anymore.
+     *
+     * @param granulePosition
+     *        The amount of samples up to the end of this packet
+     */
+    void writePacket(byte[] data, int offset, int length, long granulePosition) throws IOException
+    {
+        int needed = length / 255 + 1;
+        if (needed > MAX_SEGMENTS || length > body.length)
+            throw new IllegalArgumentException("Packet of " + length + " bytes does not fit into a page");
+        if (segments + needed > MAX_SEGMENTS || bodyLength + length > body.length)
+            writePage(0);
+
+        int remaining = length;
+        for (int i = 0; i < needed; i++)
+        {
+            header[HEADER_LENGTH + segments++] = (byte) Math.min(255, remaining);
+            remaining -= 255;
+        }
+        System.arraycopy(data, offset, body, bodyLength, length);
+        bodyLength += length;
+        this.granulePosition = granulePosition;
+        if (++packets >= PACKETS_PER_PAGE)
+            writePage(0);
+    }
+
+    /**
+     * Writes the buffered packets as a page right away, if there are any.
+     */
+    void flush() throws IOException
+    {
+        writePage(0);
+    }
+
+    /**
+     * The amount of packets buffered for the current page.
+     */
+    int getBufferedPackets()
+    {
+        return packets;
+    }
+
+    /**
+     * Writes the buffered packets as the last page of the stream.
+     */
+    void finish() throws IOException
+    {
+        writePage(FLAG_END_OF_STREAM);
+    }
+
+    private void writePage(int flags) throws IOException
+    {
+        if (segments == 0 && flags == 0)
+            return;
+        putAscii(header, 0, "OggS");
+        header[4] = 0;
+        header[5] = (byte) flags;
+        putLittleEndian(header, 6, granulePosition, 8);
+        putLittleEndian(header, 14, serial, 4);
+        putLittleEndian(header, 18, pageSequence++, 4);
+        putLittleEndian(header, 22, 0, 4);
+        header[26] = (byte) segments;
+
+        int headerLength = HEADER_LENGTH + segments;
+        int crc = crc(0, header, headerLength);
+        crc = crc(crc, body, bodyLength);
+        putLittleEndian(header, 22, crc, 4);
+
+        out.write(header, 0, headerLength);
+        out.write(body, 0, bodyLength);
+        out.flush();
+        segments = 0;
+        bodyLength = 0;
+        packets = 0;
+    }
+
+    private static int crc(int crc, byte[] data, int length)
+    {
+        for (int i = 0; i < length; i++)
+            crc = (crc << 8) ^ CRC_TABLE[((crc >>> 24) ^ data[i]) & 0xFF];
+        return crc;
+    }
+
+    private static void putAscii(byte[] array, int offset, String text)
+    {
+        for (int i = 0; i < text.length(); i++)
+            array[offset + i] = (byte) text.charAt(i);
+    }
+
+    private static void putLittleEndian(byte[] array, int offset, long value, int length)
+    {
+        for (int i = 0; i < length; i++)
+            array[offset + i] = (byte) (value >>> (8 * i));
+    }
+}
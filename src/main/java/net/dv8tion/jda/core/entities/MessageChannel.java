@@ -23,6 +23,7 @@ import net.dv8tion.jda.core.requests.Request;
 import net.dv8tion.jda.core.requests.Response;
 import net.dv8tion.jda.core.requests.RestAction;
 import net.dv8tion.jda.core.requests.Route;
+import net.dv8tion.jda.core.requests.UploadProgressListener;
 import org.apache.http.util.Args;
 import org.json.JSONObject;
 //import net.dv8tion.jda.core.exceptions.VerificationLevelException;
@@ -32,6 +33,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.nio.file.Path;
 import java.util.List;
 
 /**
@@ -149,6 +151,75 @@ public interface MessageChannel extends ISnowflake
     RestAction<Message> sendFile(InputStream data, String fileName, Message message);
     RestAction<Message> sendFile(byte[] data, String fileName, Message message);
 
+    /**
+     * Uploads a file to the Discord servers and sends it to this channel, optionally with the provided
+     * {@link net.dv8tion.jda.core.entities.Message Message}.<br>
+     * The file is streamed to Discord with a small fixed-size buffer and never read into memory as a whole.
+     *
+     * @param file
+     *          The file to upload.
+     * @param fileName
+     *          The name of the file as it will be displayed in Discord.
+     * @param message
+     *          The message to be sent along with the uploaded file. This value can be <code>null</code>.
+     * @return
+     *      The {@link net.dv8tion.jda.core.entities.Message Message} created from this upload.
+     * @throws IOException
+     *      If an I/O error occurs while accessing the file.
+     * @see #sendFile(java.nio.file.Path, String, Message, net.dv8tion.jda.core.requests.UploadProgressListener)
+     */
+    default RestAction<Message> sendFile(Path file, String fileName, Message message) throws IOException
+    {
+        return sendFile(file, fileName, message, null);
+    }
+
+    /**
+     * Uploads a file to the Discord servers and sends it to this channel, optionally with the provided
+     * {@link net.dv8tion.jda.core.entities.Message Message}, and reports the upload progress to the provided listener.<br>
+     * The file is streamed to Discord with a small fixed-size buffer and never read into memory as a whole.
+     *
+     * @param file
+     *          The file to upload.
+     * @param fileName
+     *          The name of the file as it will be displayed in Discord.
+     * @param message
+     *          The message to be sent along with the uploaded file. This value can be <code>null</code>.
+     * @param progressListener
+     *          The listener receiving upload progress updates. This value can be <code>null</code>.
+     * @return
+     *      The {@link net.dv8tion.jda.core.entities.Message Message} created from this upload.
+     * @throws net.dv8tion.jda.core.exceptions.PermissionException
+     *      If this is a {@link net.dv8tion.jda.core.entities.TextChannel TextChannel} and the logged in account does
+     *      not have {@link net.dv8tion.jda.core.Permission#MESSAGE_WRITE Permission.MESSAGE_WRITE} or
+     *      {@link net.dv8tion.jda.core.Permission#MESSAGE_ATTACH_FILES Permission.MESSAGE_ATTACH_FILES}.
+     * @throws IOException
+     *      If an I/O error occurs while accessing the file.
+     */
+    RestAction<Message> sendFile(Path file, String fileName, Message message, UploadProgressListener progressListener) throws IOException;
+
+    /**
+     * Uploads the data of the provided InputStream to the Discord servers and sends it to this channel, optionally with
+     * the provided {@link net.dv8tion.jda.core.entities.Message Message}, and reports the upload progress to the
+     * provided listener.<br>
+     * The stream is copied to the connection with a small fixed-size buffer and closed afterwards.
+     *
+     * @param data
+     *          The data to upload.
+     * @param fileName
+     *          The name of the file as it will be displayed in Discord.
+     * @param message
+     *          The message to be sent along with the uploaded file. This value can be <code>null</code>.
+     * @param progressListener
+     *          The listener receiving upload progress updates. This value can be <code>null</code>.
+     * @return
+     *      The {@link net.dv8tion.jda.core.entities.Message Message} created from this upload.
+     * @throws net.dv8tion.jda.core.exceptions.PermissionException
+     *      If this is a {@link net.dv8tion.jda.core.entities.TextChannel TextChannel} and the logged in account does
+     *      not have {@link net.dv8tion.jda.core.Permission#MESSAGE_WRITE Permission.MESSAGE_WRITE} or
+     *      {@link net.dv8tion.jda.core.Permission#MESSAGE_ATTACH_FILES Permission.MESSAGE_ATTACH_FILES}.
+     */
+    RestAction<Message> sendFile(InputStream data, String fileName, Message message, UploadProgressListener progressListener);
+
     /**
      * Attempts to get a {@link net.dv8tion.jda.core.entities.Message Message} from the Discord servers that has
      * the same id as the id provided.<br>
@@ -23,12 +23,18 @@ import net.dv8tion.jda.client.JDAClient;
 import net.dv8tion.jda.client.entities.impl.JDAClientImpl;
 import net.dv8tion.jda.core.AccountType;
 import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.audio.AudioStats;
 import net.dv8tion.jda.core.audio.AudioWebSocket;
+import net.dv8tion.jda.core.audio.factory.DefaultReceiveFactory;
 import net.dv8tion.jda.core.audio.factory.DefaultSendFactory;
+import net.dv8tion.jda.core.audio.factory.IAudioReceiveFactory;
 import net.dv8tion.jda.core.audio.factory.IAudioSendFactory;
 import net.dv8tion.jda.core.entities.*;
 import net.dv8tion.jda.core.exceptions.AccountTypeException;
 import net.dv8tion.jda.core.exceptions.RateLimitedException;
+import net.dv8tion.jda.core.handle.EventCache;
+import net.dv8tion.jda.core.hooks.EventFilter;
+import net.dv8tion.jda.core.hooks.FilteredEventListener;
 import net.dv8tion.jda.core.hooks.IEventManager;
 import net.dv8tion.jda.core.hooks.InterfacedEventManager;
 import net.dv8tion.jda.core.managers.AudioManager;
@@ -74,6 +80,11 @@ public class JDAImpl implements JDA
     protected Requester requester;
     protected IEventManager eventManager = new InterfacedEventManager();
     protected IAudioSendFactory audioSendFactory = new DefaultSendFactory();
+    protected IAudioReceiveFactory audioReceiveFactory = new DefaultReceiveFactory();
+    protected final AudioStats audioStats = new AudioStats();
+    protected RequestMetricsListener requestMetricsListener = new RequestMetricsListener() {};
+    protected RawGatewayListener rawGatewayListener = null;
+    protected volatile DispatchTracer dispatchTracer = null;
     protected Status status = Status.INITIALIZING;
     protected SelfUser selfUser;
     protected ShardInfo shardInfo;
@@ -469,6 +480,8 @@ public class JDAImpl implements JDA
             AudioWebSocket.KEEP_ALIVE_POOLS.get(this).shutdownNow();
         getClient().setAutoReconnect(false);
         getClient().close();
+        EventCache.remove(this);
+        GuildLock.remove(this);
 
         if (free)
         {
@@ -491,6 +504,8 @@ public class JDAImpl implements JDA
             AudioWebSocket.KEEP_ALIVE_POOLS.get(this).shutdownNow();
         getClient().setAutoReconnect(false);
         getClient().close();
+        EventCache.remove(this);
+        GuildLock.remove(this);
 
         if (free)
         {
@@ -565,11 +580,25 @@ public class JDAImpl implements JDA
             eventManager.register(listener);
     }
 
+    @Override
+    public void addEventListener(Object listener, EventFilter filter)
+    {
+        eventManager.register(listener, filter);
+    }
+
     @Override
     public void removeEventListener(Object... listeners)
     {
         for (Object listener: listeners)
+        {
             eventManager.unregister(listener);
+            //Event managers without filter support hold the filtered listener in a wrapper.
+            for (Object registered : eventManager.getRegisteredListeners())
+            {
+                if (registered instanceof FilteredEventListener && ((FilteredEventListener) registered).getListener() == listener)
+                    eventManager.unregister(registered);
+            }
+        }
     }
 
     @Override
@@ -589,6 +618,58 @@ public class JDAImpl implements JDA
         this.audioSendFactory = factory;
     }
 
+    public IAudioReceiveFactory getAudioReceiveFactory()
+    {
+        return audioReceiveFactory;
+    }
+
+    public void setAudioReceiveFactory(IAudioReceiveFactory factory)
+    {
+        Args.notNull(factory, "Provided IAudioReceiveFactory");
+        this.audioReceiveFactory = factory;
+    }
+
+    /**
+     * The quality metrics of all audio connections of this JDA instance.
+     *
+     * @return The {@link net.dv8tion.jda.core.audio.AudioStats AudioStats} of this instance
+     */
+    public AudioStats getAudioStats()
+    {
+        return audioStats;
+    }
+
+    public RequestMetricsListener getRequestMetricsListener()
+    {
+        return requestMetricsListener;
+    }
+
+    public void setRequestMetricsListener(RequestMetricsListener listener)
+    {
+        Args.notNull(listener, "Provided RequestMetricsListener");
+        this.requestMetricsListener = listener;
+    }
+
+    public RawGatewayListener getRawGatewayListener()
+    {
+        return rawGatewayListener;
+    }
+
+    public void setRawGatewayListener(RawGatewayListener listener)
+    {
+        this.rawGatewayListener = listener;
+    }
+
+    public DispatchTracer getDispatchTracer()
+    {
+        return dispatchTracer;
+    }
+
+    public void setDispatchTracer(DispatchTracer tracer)
+    {
+        this.dispatchTracer = tracer;
+    }
+
     public Requester getRequester()
     {
         return requester;
@@ -604,6 +685,11 @@ public class JDAImpl implements JDA
         return client;
     }
 
+    public void setClient(WebSocketClient client)
+    {
+        this.client = client;
+    }
+
     public HashMap<String, User> getUserMap()
     {
         return users;
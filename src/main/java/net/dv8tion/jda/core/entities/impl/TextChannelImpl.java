@@ -26,7 +26,6 @@ import net.dv8tion.jda.core.exceptions.PermissionException;
 import net.dv8tion.jda.core.managers.ChannelManager;
 import net.dv8tion.jda.core.managers.ChannelManagerUpdatable;
 import net.dv8tion.jda.core.requests.*;
-import net.dv8tion.jda.core.utils.IOUtil;
 import org.apache.http.util.Args;
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -34,6 +33,8 @@ import org.json.JSONObject;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -235,23 +236,48 @@ public class TextChannelImpl implements TextChannel
         if (file.length() > 8<<20)   //8MB
             throw new IllegalArgumentException("File is to big! Max file-size is 8MB");
 
-        return sendFile(IOUtil.readFully(file), fileName, message);
+        return sendFile(file.toPath(), fileName, message, null);
+    }
+
+    @Override
+    public RestAction<Message> sendFile(Path file, String fileName, Message message, UploadProgressListener progressListener) throws IOException
+    {
+        checkNull(file, "file");
+
+        if (!Files.isRegularFile(file) || !Files.isReadable(file))
+            throw new IllegalArgumentException("Provided file either doesn't exist or is not readable!");
+        if (Files.size(file) > 8<<20)   //8MB
+            throw new IllegalArgumentException("File is to big! Max file-size is 8MB");
+
+        return sendFile(UploadBody.fromFile(file, fileName, progressListener), message);
     }
 
     @Override
     public RestAction<Message> sendFile(InputStream data, String fileName, Message message)
+    {
+        return sendFile(data, fileName, message, null);
+    }
+
+    @Override
+    public RestAction<Message> sendFile(InputStream data, String fileName, Message message, UploadProgressListener progressListener)
+    {
+        checkNull(data, "data InputStream");
+        checkNull(fileName, "fileName");
+
+        return sendFile(UploadBody.fromStream(data, fileName, progressListener), message);
+    }
+
+    private RestAction<Message> sendFile(UploadBody file, Message message)
     {
         checkVerification();
         checkPermission(Permission.MESSAGE_WRITE);
         checkPermission(Permission.MESSAGE_ATTACH_FILES);
-        checkNull(data, "data InputStream");
-        checkNull(fileName, "fileName");
 
         Route.CompiledRoute route = Route.Messages.SEND_MESSAGE.compile(id);
         MultipartBody body = Unirest.post(Requester.DISCORD_API_PREFIX + route.getCompiledRoute())
                 .fields(null); //We use this to change from an HttpRequest to a MultipartBody
 
-        body.field("file", data, fileName);
+        body.field("file", file, true);
 
         if (message != null)
         {
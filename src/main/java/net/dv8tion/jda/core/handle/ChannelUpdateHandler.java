@@ -82,28 +82,31 @@ public class ChannelUpdateHandler extends SocketHandler
                 {
                     String oldName = channel.getName();
                     channel.setName(name);
-                    api.getEventManager().handle(
-                            new TextChannelUpdateNameEvent(
-                                    api, responseNumber,
-                                    channel, oldName));
+                    if (api.getEventManager().isListening(TextChannelUpdateNameEvent.class))
+                        api.getEventManager().handle(
+                                new TextChannelUpdateNameEvent(
+                                        api, responseNumber,
+                                        channel, oldName));
                 }
                 if (!StringUtils.equals(channel.getTopic(), topic))
                 {
                     String oldTopic = channel.getTopic();
                     channel.setTopic(topic);
-                    api.getEventManager().handle(
-                            new TextChannelUpdateTopicEvent(
-                                    api, responseNumber,
-                                    channel, oldTopic));
+                    if (api.getEventManager().isListening(TextChannelUpdateTopicEvent.class))
+                        api.getEventManager().handle(
+                                new TextChannelUpdateTopicEvent(
+                                        api, responseNumber,
+                                        channel, oldTopic));
                 }
                 if (channel.getPositionRaw() != position)
                 {
                     int oldPosition = channel.getPositionRaw();
                     channel.setRawPosition(position);
-                    api.getEventManager().handle(
-                            new TextChannelUpdatePositionEvent(
-                                    api, responseNumber,
-                                    channel, oldPosition));
+                    if (api.getEventManager().isListening(TextChannelUpdatePositionEvent.class))
+                        api.getEventManager().handle(
+                                new TextChannelUpdatePositionEvent(
+                                        api, responseNumber,
+                                        channel, oldPosition));
                 }
 
                 //Determines if a new PermissionOverride was created or updated.
@@ -132,11 +135,12 @@ public class ChannelUpdateHandler extends SocketHandler
                 if (!changedRoles.isEmpty()
                         || !changedMembers.isEmpty())
                 {
-                    api.getEventManager().handle(
-                            new TextChannelUpdatePermissionsEvent(
-                                    api, responseNumber,
-                                    channel,
-                                    changedRoles, changedMembers));
+                    if (api.getEventManager().isListening(TextChannelUpdatePermissionsEvent.class))
+                        api.getEventManager().handle(
+                                new TextChannelUpdatePermissionsEvent(
+                                        api, responseNumber,
+                                        channel,
+                                        changedRoles, changedMembers));
                 }
                 break;  //Finish the TextChannelUpdate case
             }
@@ -159,37 +163,41 @@ public class ChannelUpdateHandler extends SocketHandler
                 {
                     String oldName = channel.getName();
                     channel.setName(name);
-                    api.getEventManager().handle(
-                            new VoiceChannelUpdateNameEvent(
-                                    api, responseNumber,
-                                    channel, oldName));
+                    if (api.getEventManager().isListening(VoiceChannelUpdateNameEvent.class))
+                        api.getEventManager().handle(
+                                new VoiceChannelUpdateNameEvent(
+                                        api, responseNumber,
+                                        channel, oldName));
                 }
                 if (channel.getPositionRaw() != position)
                 {
                     int oldPosition = channel.getPositionRaw();
                     channel.setRawPosition(position);
-                    api.getEventManager().handle(
-                            new VoiceChannelUpdatePositionEvent(
-                                    api, responseNumber,
-                                    channel, oldPosition));
+                    if (api.getEventManager().isListening(VoiceChannelUpdatePositionEvent.class))
+                        api.getEventManager().handle(
+                                new VoiceChannelUpdatePositionEvent(
+                                        api, responseNumber,
+                                        channel, oldPosition));
                 }
                 if (channel.getUserLimit() != userLimit)
                 {
                     int oldLimit = channel.getUserLimit();
                     channel.setUserLimit(userLimit);
-                    api.getEventManager().handle(
-                            new VoiceChannelUpdateUserLimitEvent(
-                                    api, responseNumber,
-                                    channel, oldLimit));
+                    if (api.getEventManager().isListening(VoiceChannelUpdateUserLimitEvent.class))
+                        api.getEventManager().handle(
+                                new VoiceChannelUpdateUserLimitEvent(
+                                        api, responseNumber,
+                                        channel, oldLimit));
                 }
                 if (channel.getBitrate() != bitrate)
                 {
                     int oldBitrate = channel.getBitrate();
                     channel.setBitrate(bitrate);
-                    api.getEventManager().handle(
-                            new VoiceChannelUpdateBitrateEvent(
-                                    api, responseNumber,
-                                    channel, oldBitrate));
+                    if (api.getEventManager().isListening(VoiceChannelUpdateBitrateEvent.class))
+                        api.getEventManager().handle(
+                                new VoiceChannelUpdateBitrateEvent(
+                                        api, responseNumber,
+                                        channel, oldBitrate));
                 }
 
                 //Determines if a new PermissionOverride was created or updated.
@@ -218,11 +226,12 @@ public class ChannelUpdateHandler extends SocketHandler
                 if (!changedRoles.isEmpty()
                         || !changedMembers.isEmpty())
                 {
-                    api.getEventManager().handle(
-                            new VoiceChannelUpdatePermissionsEvent(
-                                    api, responseNumber,
-                                    channel,
-                                    changedRoles, changedMembers));
+                    if (api.getEventManager().isListening(VoiceChannelUpdatePermissionsEvent.class))
+                        api.getEventManager().handle(
+                                new VoiceChannelUpdatePermissionsEvent(
+                                        api, responseNumber,
+                                        channel,
+                                        changedRoles, changedMembers));
                 }
                 break;  //Finish the TextChannelUpdate case
             }
@@ -336,28 +345,31 @@ public class ChannelUpdateHandler extends SocketHandler
         {
             String oldName = group.getName();
             group.setName(name);
-            api.getEventManager().handle(
-                    new GroupUpdateNameEvent(
-                            api, responseNumber,
-                            group, oldName));
+            if (api.getEventManager().isListening(GroupUpdateNameEvent.class))
+                api.getEventManager().handle(
+                        new GroupUpdateNameEvent(
+                                api, responseNumber,
+                                group, oldName));
         }
         if (!Objects.equals(iconId, group.getIconId()))
         {
             String oldIconId = group.getIconId();
             group.setIconId(iconId);
-            api.getEventManager().handle(
-                    new GroupUpdateIconEvent(
-                            api, responseNumber,
-                            group, oldIconId));
+            if (api.getEventManager().isListening(GroupUpdateIconEvent.class))
+                api.getEventManager().handle(
+                        new GroupUpdateIconEvent(
+                                api, responseNumber,
+                                group, oldIconId));
         }
         if (!Objects.equals(owner, group.getOwner()))
         {
             User oldOwner = group.getOwner();
             group.setOwner(owner);
-            api.getEventManager().handle(
-                    new GroupUpdateOwnerEvent(
-                            api, responseNumber,
-                            group, oldOwner));
+            if (api.getEventManager().isListening(GroupUpdateOwnerEvent.class))
+                api.getEventManager().handle(
+                        new GroupUpdateOwnerEvent(
+                                api, responseNumber,
+                                group, oldOwner));
         }
     }
 }
@@ -18,91 +18,289 @@ package net.dv8tion.jda.core.handle;
 import net.dv8tion.jda.core.JDA;
 import net.dv8tion.jda.core.utils.SimpleLog;
 
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Holds back events that reference an entity JDA does not know yet (for example a message in a channel
+ * whose CHANNEL_CREATE has not arrived) until that entity shows up and the events can be replayed.
+ *
+ * <p>Entries expire after {@link #getTimeToLive(TimeUnit) a time-to-live} and the total amount of held back
+ * events is capped by {@link #getMaxSize()}, so ids that never get resolved can not grow the cache without limit.
+ * All methods are safe to call from any thread.
+ */
 public class EventCache
 {
     public static final SimpleLog LOG = SimpleLog.getLog("EventCache");
-    private static HashMap<JDA, EventCache> caches = new HashMap<>();
-    private HashMap<Type, HashMap<String, List<Runnable>>> eventCache = new HashMap<>();
+    public static final long DEFAULT_TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(5);
+    public static final int DEFAULT_MAX_SIZE = 10000;
+    //While full, expired events are purged at most this often. Events arriving in between are dropped right away.
+    private static final long FULL_PURGE_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private static final ConcurrentMap<JDA, EventCache> caches = new ConcurrentHashMap<>();
+
+    private final Map<Type, ConcurrentMap<String, List<CachedEvent>>> eventCache = new EnumMap<>(Type.class);
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long timeToLive = TimeUnit.MILLISECONDS.toNanos(DEFAULT_TIME_TO_LIVE);
+    private volatile int maxSize = DEFAULT_MAX_SIZE;
+    private volatile long nextPurge = System.nanoTime() + timeToLive;
+    private volatile long nextFullPurge = System.nanoTime();
 
     public static EventCache get(JDA jda)
     {
-        EventCache cache = caches.get(jda);
-        if (cache == null)
-        {
-            cache = new EventCache();
-            caches.put(jda, cache);
-        }
-        return cache;
+        return caches.computeIfAbsent(jda, k -> new EventCache());
+    }
+
+    /**
+     * Drops the EventCache of the given JDA instance, including all events it still holds.
+     * <br>Called when the instance shuts down so it does not stay reachable through this class.
+     *
+     * @param  jda
+     *         The JDA instance whose cache should be released
+     */
+    public static void remove(JDA jda)
+    {
+        EventCache cache = caches.remove(jda);
+        if (cache != null)
+            cache.clear();
+    }
+
+    private EventCache()
+    {
+        for (Type type : Type.values())
+            eventCache.put(type, new ConcurrentHashMap<>());
     }
 
     public void cache(Type type, String triggerId, Runnable handler)
     {
-        HashMap<String, List<Runnable>> triggerCache = eventCache.get(type);
-        if (triggerCache == null)
-        {
-            triggerCache = new HashMap<>();
-            eventCache.put(type, triggerCache);
-        }
+        long now = System.nanoTime();
+        if (now - nextPurge >= 0 || (size.get() >= maxSize && now - nextFullPurge >= 0))
+            purge(now);
 
-        List<Runnable> items = triggerCache.get(triggerId);
-        if (items == null)
+        if (size.get() >= maxSize)
         {
-            items = new LinkedList<>();
-            triggerCache.put(triggerId, items);
+            dropped.incrementAndGet();
+            LOG.warn("EventCache is full (" + maxSize + " events), dropping event for a " + type + " with id: " + triggerId);
+            return;
         }
 
-        items.add(handler);
+        eventCache.get(type).compute(triggerId, (id, items) ->
+        {
+            if (items == null)
+                items = new ArrayList<>();
+            items.add(new CachedEvent(handler, now));
+            return items;
+        });
+        size.incrementAndGet();
     }
 
     public void playbackCache(Type type, String triggerId)
     {
-        List<Runnable> items;
-        try
+        List<CachedEvent> items = eventCache.get(type).remove(triggerId);
+        if (items == null || items.isEmpty())
+            return;
+
+        size.addAndGet(-items.size());
+        long deadline = System.nanoTime() - timeToLive;
+        List<Runnable> handlers = new ArrayList<>(items.size());
+        for (CachedEvent item : items)
         {
-            items = eventCache.get(type).get(triggerId);
+            if (item.cachedAt - deadline > 0)
+                handlers.add(item.handler);
         }
-        catch (NullPointerException e)
+        int stale = items.size() - handlers.size();
+        if (stale > 0)
         {
-            //If we encounter an NPE that means something didn't exist.
-            return;
+            expired.addAndGet(stale);
+            LOG.debug("Discarded " + stale + " expired events from the EventCache for a " + type + " with id: " + triggerId);
         }
 
-        if (items != null && !items.isEmpty())
+        if (!handlers.isEmpty())
         {
-            EventCache.LOG.debug("Replaying " + items.size() + " events from the EventCache for a " + type + " with id: " + triggerId);
-            List<Runnable> itemsCopy = new LinkedList<>(items);
-            items.clear();
-            for (Runnable item : itemsCopy)
-            {
-                item.run();
-            }
+            LOG.debug("Replaying " + handlers.size() + " events from the EventCache for a " + type + " with id: " + triggerId);
+            handlers.forEach(Runnable::run);
         }
     }
 
-    public int size()
+    /**
+     * Removes all events that have been held back for longer than the {@link #getTimeToLive(TimeUnit) time-to-live}.
+     * <br>This happens automatically while new events are cached, calling it manually is only needed
+     * to release memory while no further events arrive.
+     *
+     * @return The amount of events that were removed
+     */
+    public int purgeExpired()
     {
-        int count = 0;
-        for (HashMap<String, List<Runnable>> typeMap : eventCache.values())
+        return purge(System.nanoTime());
+    }
+
+    private int purge(long now)
+    {
+        nextPurge = now + timeToLive;
+        nextFullPurge = now + FULL_PURGE_INTERVAL;
+        long deadline = now - timeToLive;
+        AtomicInteger removed = new AtomicInteger();
+        for (ConcurrentMap<String, List<CachedEvent>> triggerCache : eventCache.values())
         {
-            for (List<Runnable> eventList : typeMap.values())
+            for (String triggerId : triggerCache.keySet())
             {
-                count += eventList.size();
+                triggerCache.computeIfPresent(triggerId, (id, items) ->
+                {
+                    for (Iterator<CachedEvent> it = items.iterator(); it.hasNext(); )
+                    {
+                        if (it.next().cachedAt - deadline <= 0)
+                        {
+                            it.remove();
+                            removed.incrementAndGet();
+                        }
+                    }
+                    return items.isEmpty() ? null : items;
+                });
             }
         }
+        int count = removed.get();
+        if (count > 0)
+        {
+            size.addAndGet(-count);
+            expired.addAndGet(count);
+            LOG.debug("Purged " + count + " expired events from the EventCache");
+        }
         return count;
     }
 
+    /**
+     * The amount of events currently held back by this cache.
+     *
+     * @return The current size
+     */
+    public int size()
+    {
+        return size.get();
+    }
+
+    /**
+     * The amount of events currently held back for the given {@link Type Type}.
+     *
+     * @param  type
+     *         The type of entity the events are waiting for
+     *
+     * @return The current size for that type
+     */
+    public int size(Type type)
+    {
+        int count = 0;
+        for (List<CachedEvent> items : eventCache.get(type).values())
+            count += items.size();
+        return count;
+    }
+
+    /**
+     * The total amount of events that were discarded because they outlived the time-to-live.
+     *
+     * @return The amount of expired events
+     */
+    public long getExpiredCount()
+    {
+        return expired.get();
+    }
+
+    /**
+     * The total amount of events that were not cached because the cache was at its {@link #getMaxSize() max size}.
+     *
+     * @return The amount of dropped events
+     */
+    public long getDroppedCount()
+    {
+        return dropped.get();
+    }
+
+    public long getTimeToLive(TimeUnit unit)
+    {
+        return unit.convert(timeToLive, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets how long an event may be held back before it is discarded.
+     * <br>Default: {@value #DEFAULT_TIME_TO_LIVE} milliseconds
+     *
+     * @param  timeToLive
+     *         The time-to-live, must be positive
+     * @param  unit
+     *         The unit of the time-to-live
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the time-to-live is not positive or the unit is null
+     */
+    public void setTimeToLive(long timeToLive, TimeUnit unit)
+    {
+        if (timeToLive <= 0)
+            throw new IllegalArgumentException("Time-to-live must be positive");
+        if (unit == null)
+            throw new IllegalArgumentException("Unit may not be null");
+        this.timeToLive = unit.toNanos(timeToLive);
+        this.nextPurge = System.nanoTime();
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum amount of events this cache holds back at once.
+     * <br>Once reached, expired events are purged and if that does not free any room new events are dropped.
+     * <br>Default: {@value #DEFAULT_MAX_SIZE}
+     *
+     * @param  maxSize
+     *         The maximum size, must be positive
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the size is not positive
+     */
+    public void setMaxSize(int maxSize)
+    {
+        if (maxSize <= 0)
+            throw new IllegalArgumentException("Max size must be positive");
+        this.maxSize = maxSize;
+    }
+
     public void clear()
     {
-        eventCache.clear();
+        for (ConcurrentMap<String, List<CachedEvent>> triggerCache : eventCache.values())
+        {
+            for (String triggerId : triggerCache.keySet())
+            {
+                List<CachedEvent> items = triggerCache.remove(triggerId);
+                if (items != null)
+                    size.addAndGet(-items.size());
+            }
+        }
     }
 
     public enum Type
     {
         USER, GUILD, CHANNEL, ROLE, RELATIONSHIP, CALL
     }
+
+    private static final class CachedEvent
+    {
+        private final Runnable handler;
+        private final long cachedAt;
+
+        private CachedEvent(Runnable handler, long cachedAt)
+        {
+            this.handler = handler;
+            this.cachedAt = cachedAt;
+        }
+    }
 }
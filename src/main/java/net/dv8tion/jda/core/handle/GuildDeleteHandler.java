@@ -69,7 +69,10 @@ public class GuildDeleteHandler extends SocketHandler
         }
 
         if (manager != null)
+        {
             api.getAudioManagerMap().remove(guild.getId());
+            manager.getStats().close();
+        }
 
         //cleaning up all users that we do not share a guild with anymore
         // Anything left in memberIds will be removed from the main userMap
@@ -100,14 +100,14 @@ public class GuildMemberUpdateHandler extends SocketHandler
         if (newRoles.size() > 0)
             currentRoles.addAll(newRoles);
 
-        if (removedRoles.size() > 0)
+        if (removedRoles.size() > 0 && api.getEventManager().isListening(GuildMemberRoleRemoveEvent.class))
         {
             api.getEventManager().handle(
                     new GuildMemberRoleRemoveEvent(
                             api, responseNumber,
                             guild, member, removedRoles));
         }
-        if (newRoles.size() > 0)
+        if (newRoles.size() > 0 && api.getEventManager().isListening(GuildMemberRoleAddEvent.class))
         {
             api.getEventManager().handle(
                     new GuildMemberRoleAddEvent(
@@ -121,10 +121,11 @@ public class GuildMemberUpdateHandler extends SocketHandler
             if (!StringUtils.equals(prevNick, newNick))
             {
                 member.setNickname(newNick);
-                api.getEventManager().handle(
-                        new GuildMemberNickChangeEvent(
-                                api, responseNumber,
-                                guild, member, prevNick, newNick));
+                if (api.getEventManager().isListening(GuildMemberNickChangeEvent.class))
+                    api.getEventManager().handle(
+                            new GuildMemberNickChangeEvent(
+                                    api, responseNumber,
+                                    guild, member, prevNick, newNick));
             }
         }
         return null;
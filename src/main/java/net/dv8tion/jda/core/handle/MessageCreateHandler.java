@@ -24,6 +24,7 @@ import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
 //import net.dv8tion.jda.core.events.message.priv.PrivateMessageReceivedEvent;
 import net.dv8tion.jda.core.events.message.guild.GuildMessageReceivedEvent;
 import net.dv8tion.jda.core.events.message.priv.PrivateMessageReceivedEvent;
+import net.dv8tion.jda.core.hooks.IEventManager;
 import net.dv8tion.jda.core.requests.GuildLock;
 //import net.dv8tion.jda.core.utils.InviteUtil;
 import net.dv8tion.jda.core.requests.WebSocketClient;
@@ -57,6 +58,10 @@ public class MessageCreateHandler extends SocketHandler
 
     private String handleDefaultMessage(JSONObject content)
     {
+        //Building the Message is the expensive part, skip it if nobody would receive it.
+        if (!hasListeners(content.getString("channel_id")))
+            return null;
+
         Message message;
         try
         {
@@ -146,4 +151,24 @@ public class MessageCreateHandler extends SocketHandler
 //        }
         return null;
     }
+
+    //Only decides for cached text and private channels. Unknown channels have to reach the EventCache
+    // and group messages update the fake users of the group, so those are always built.
+    private boolean hasListeners(String channelId)
+    {
+        IEventManager manager = api.getEventManager();
+        TextChannel channel = api.getTextChannelMap().get(channelId);
+        if (channel != null)
+        {
+            String guildId = channel.getGuild().getId();
+            return manager.isListening(MessageReceivedEvent.class, guildId, channelId)
+                    || manager.isListening(GuildMessageReceivedEvent.class, guildId, channelId);
+        }
+        if (api.getPrivateChannelMap().containsKey(channelId) || api.getFakePrivateChannelMap().containsKey(channelId))
+        {
+            return manager.isListening(MessageReceivedEvent.class, null, channelId)
+                    || manager.isListening(PrivateMessageReceivedEvent.class, null, channelId);
+        }
+        return true;
+    }
 }
@@ -64,20 +64,22 @@ public class PresenceUpdateHandler extends SocketHandler
                     String oldDiscriminator = user.getDiscriminator();
                     user.setName(name);
                     user.setDiscriminator(discriminator);
-                    api.getEventManager().handle(
-                            new UserNameUpdateEvent(
-                                    api, responseNumber,
-                                    user, oldUsername, oldDiscriminator));
+                    if (api.getEventManager().isListening(UserNameUpdateEvent.class))
+                        api.getEventManager().handle(
+                                new UserNameUpdateEvent(
+                                        api, responseNumber,
+                                        user, oldUsername, oldDiscriminator));
                 }
                 String oldAvatar = user.getAvatarId();
                 if (!(avatarId == null && oldAvatar == null) && !StringUtils.equals(avatarId, oldAvatar))
                 {
                     String oldAvatarId = user.getAvatarId();
                     user.setAvatarId(avatarId);
-                    api.getEventManager().handle(
-                            new UserAvatarUpdateEvent(
-                                    api, responseNumber,
-                                    user, oldAvatarId));
+                    if (api.getEventManager().isListening(UserAvatarUpdateEvent.class))
+                        api.getEventManager().handle(
+                                new UserAvatarUpdateEvent(
+                                        api, responseNumber,
+                                        user, oldAvatarId));
                 }
             }
 
@@ -135,19 +137,21 @@ public class PresenceUpdateHandler extends SocketHandler
                     {
                         OnlineStatus oldStatus = member.getOnlineStatus();
                         member.setOnlineStatus(status);
-                        api.getEventManager().handle(
-                                new UserOnlineStatusUpdateEvent(
-                                        api, responseNumber,
-                                        user, guild, oldStatus));
+                        if (api.getEventManager().isListening(UserOnlineStatusUpdateEvent.class))
+                            api.getEventManager().handle(
+                                    new UserOnlineStatusUpdateEvent(
+                                            api, responseNumber,
+                                            user, guild, oldStatus));
                     }
                     if(member.getGame() == null ? nextGame != null : !member.getGame().equals(nextGame))
                     {
                         Game oldGame = member.getGame();
                         member.setGame(nextGame);
-                        api.getEventManager().handle(
-                                new UserGameUpdateEvent(
-                                        api, responseNumber,
-                                        user, guild, oldGame));
+                        if (api.getEventManager().isListening(UserGameUpdateEvent.class))
+                            api.getEventManager().handle(
+                                    new UserGameUpdateEvent(
+                                            api, responseNumber,
+                                            user, guild, oldGame));
                     }
                 }
             }
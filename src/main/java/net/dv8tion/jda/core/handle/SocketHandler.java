@@ -16,6 +16,7 @@
 package net.dv8tion.jda.core.handle;
 
 import net.dv8tion.jda.core.entities.impl.JDAImpl;
+import net.dv8tion.jda.core.requests.DispatchTracer;
 import net.dv8tion.jda.core.requests.GuildLock;
 import org.json.JSONObject;
 
@@ -36,6 +37,9 @@ public abstract class SocketHandler
         this.allContent = o;
         this.responseNumber = responseTotal;
         String guildId = handleInternally(o.getJSONObject("d"));
+        DispatchTracer tracer = api.getDispatchTracer();
+        if (tracer != null)
+            tracer.handled();
         if (guildId != null)
         {
             GuildLock.get(api).queue(guildId, o);
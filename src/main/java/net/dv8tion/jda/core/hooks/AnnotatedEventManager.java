@@ -17,106 +17,273 @@ package net.dv8tion.jda.core.hooks;
 
 import net.dv8tion.jda.core.entities.impl.JDAImpl;
 import net.dv8tion.jda.core.events.Event;
+import net.dv8tion.jda.core.requests.DispatchTracer;
+import org.apache.http.util.Args;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.*;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * An {@link net.dv8tion.jda.core.hooks.IEventManager IEventManager} which calls every method annotated with
+ * {@link net.dv8tion.jda.core.hooks.SubscribeEvent SubscribeEvent} whose parameter is a superclass of the fired event.
+ * <br>If a {@link java.lang.Class Class} is registered, its static annotated methods are used.
+ * <p>
+ * An invoker is generated for every annotated method when its listener is registered, so events are not dispatched
+ * through reflection. The subscribers for a concrete event class are resolved once and cached. Registering and
+ * unregistering builds a new immutable lookup structure that replaces the current one atomically, so this manager
+ * can safely be used from multiple threads.
+ */
 public class AnnotatedEventManager implements IEventManager
 {
-    private final Set<Object> listeners = new HashSet<>();
-    private final Map<Class<? extends Event>, Map<Object, List<Method>>> methods = new HashMap<>();
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Event.class);
+    private static final Subscriber[] NO_SUBSCRIBERS = new Subscriber[0];
+
+    private final Object lock = new Object();
+    private volatile Subscribers subscribers = new Subscribers(Collections.emptySet(), Collections.emptyMap());
 
     @Override
     public void register(Object listener)
     {
-        if (listeners.add(listener))
+        addListener(listener, null);
+    }
+
+    @Override
+    public void register(Object listener, EventFilter filter)
+    {
+        Args.notNull(filter, "filter");
+        addListener(listener, filter.copy());
+    }
+
+    private void addListener(Object listener, EventFilter filter)
+    {
+        synchronized (lock)
         {
-            updateMethods();
+            Subscribers current = subscribers;
+            if (current.listeners.contains(listener))
+                return;
+            Set<Object> listeners = new LinkedHashSet<>(current.listeners);
+            listeners.add(listener);
+
+            Map<Class<?>, List<Subscriber>> byEventClass = copy(current.byEventClass);
+            for (Subscriber subscriber : createSubscribers(listener, filter))
+                byEventClass.computeIfAbsent(subscriber.eventClass, k -> new ArrayList<>()).add(subscriber);
+            subscribers = new Subscribers(listeners, byEventClass);
         }
     }
 
     @Override
     public void unregister(Object listener)
     {
-        if (listeners.remove(listener))
+        synchronized (lock)
         {
-            updateMethods();
+            Subscribers current = subscribers;
+            if (!current.listeners.contains(listener))
+                return;
+            Set<Object> listeners = new LinkedHashSet<>(current.listeners);
+            listeners.remove(listener);
+
+            Map<Class<?>, List<Subscriber>> byEventClass = copy(current.byEventClass);
+            byEventClass.values().forEach(list -> list.removeIf(subscriber -> subscriber.listener == listener));
+            byEventClass.values().removeIf(List::isEmpty);
+            subscribers = new Subscribers(listeners, byEventClass);
         }
     }
 
     @Override
     public List<Object> getRegisteredListeners()
     {
-        return Collections.unmodifiableList(new LinkedList<>(listeners));
+        return Collections.unmodifiableList(new LinkedList<>(subscribers.listeners));
+    }
+
+    @Override
+    public boolean isListening(Class<? extends Event> eventClass)
+    {
+        return subscribers.get(eventClass).length > 0;
+    }
+
+    @Override
+    public boolean isListening(Class<? extends Event> eventClass, String guildId, String channelId)
+    {
+        for (Subscriber subscriber : subscribers.get(eventClass))
+        {
+            if (subscriber.filter == null || subscriber.filter.accepts(eventClass, guildId, channelId))
+                return true;
+        }
+        return false;
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public void handle(Event event)
     {
-        Class<? extends Event> eventClass = event.getClass();
-        do
+        DispatchTracer tracer = DispatchTracer.of(event);
+        for (Subscriber subscriber : subscribers.get(event.getClass()))
         {
-            Map<Object, List<Method>> listeners = methods.get(eventClass);
-            if (listeners != null)
+            if (subscriber.filter != null && !subscriber.filter.test(event))
+                continue;
+            long start = tracer == null ? 0 : tracer.listenerStarted();
+            try
             {
-                listeners.entrySet().forEach(e -> e.getValue().forEach(method ->
-                {
-                    try
-                    {
-                        method.setAccessible(true);
-                        method.invoke(e.getKey(), event);
-                    }
-                    catch (IllegalAccessException | InvocationTargetException e1)
-                    {
-                        JDAImpl.LOG.log(e1);
-                    }
-                    catch (Throwable throwable)
-                    {
-                        JDAImpl.LOG.fatal("One of the EventListeners had an uncaught exception");
-                        JDAImpl.LOG.log(throwable);
-                    }
-                }));
+                subscriber.invoker.invoke(subscriber.listener, event);
             }
-            eventClass = eventClass == Event.class ? null : (Class<? extends Event>) eventClass.getSuperclass();
+            catch (Throwable throwable)
+            {
+                JDAImpl.LOG.fatal("One of the EventListeners had an uncaught exception");
+                JDAImpl.LOG.log(throwable);
+            }
+            if (tracer != null)
+                tracer.listenerFinished(subscriber.listener, start);
         }
-        while (eventClass != null);
     }
 
-    private void updateMethods()
+    private static Map<Class<?>, List<Subscriber>> copy(Map<Class<?>, List<Subscriber>> map)
+    {
+        Map<Class<?>, List<Subscriber>> copy = new HashMap<>();
+        map.forEach((eventClass, list) -> copy.put(eventClass, new ArrayList<>(list)));
+        return copy;
+    }
+
+    private static List<Subscriber> createSubscribers(Object listener, EventFilter filter)
     {
-        methods.clear();
-        for (Object listener : listeners)
+        boolean isClass = listener instanceof Class;
+        Class<?> c = isClass ? (Class) listener : listener.getClass();
+        List<Subscriber> subscribers = new ArrayList<>();
+        for (Method m : c.getDeclaredMethods())
         {
-            boolean isClass = listener instanceof Class;
-            Class<?> c = isClass ? (Class) listener : listener.getClass();
-            Method[] allMethods = c.getDeclaredMethods();
-            for (Method m : allMethods)
+            if (!m.isAnnotationPresent(SubscribeEvent.class) || (isClass && !Modifier.isStatic(m.getModifiers())))
             {
-                if (!m.isAnnotationPresent(SubscribeEvent.class) || (isClass && !Modifier.isStatic(m.getModifiers())))
-                {
+                continue;
+            }
+            Class<?>[] pType  = m.getParameterTypes();
+            if (pType.length == 1 && Event.class.isAssignableFrom(pType[0]))
+            {
+                subscribers.add(new Subscriber(pType[0], listener, filter, createInvoker(m)));
+            }
+        }
+        return subscribers;
+    }
+
+    private static EventInvoker createInvoker(Method method)
+    {
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        MethodHandle handle;
+        try
+        {
+            method.setAccessible(true);
+            handle = LOOKUP.unreflect(method);
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new IllegalArgumentException("Unable to access event method " + method, e);
+        }
+
+        if (isStatic)
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        handle = handle.asType(INVOKER_TYPE);
+
+        if (!isStatic && canSpinInvoker(method))
+        {
+            try
+            {
+                MethodHandle target = LOOKUP.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "invoke",
+                        MethodType.methodType(EventInvoker.class), INVOKER_TYPE, target,
+                        MethodType.methodType(void.class, method.getDeclaringClass(), method.getParameterTypes()[0]));
+                return (EventInvoker) site.getTarget().invokeExact();
+            }
+            catch (Throwable ignored)
+            {
+                // fall back to the method handle
+            }
+        }
+
+        MethodHandle invoker = handle;
+        return invoker::invokeExact;
+    }
+
+    // A generated invoker links against the listener class from our class loader, so it has to be public and visible
+    private static boolean canSpinInvoker(Method method)
+    {
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (!Modifier.isPublic(method.getModifiers()))
+            return false;
+        for (Class<?> c = declaringClass; c != null; c = c.getEnclosingClass())
+        {
+            if (!Modifier.isPublic(c.getModifiers()))
+                return false;
+        }
+        try
+        {
+            return Class.forName(declaringClass.getName(), false, AnnotatedEventManager.class.getClassLoader()) == declaringClass;
+        }
+        catch (ClassNotFoundException e)
+        {
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    private interface EventInvoker
+    {
+        void invoke(Object listener, Event event) throws Throwable;
+    }
+
+    private static final class Subscriber
+    {
+        private final Class<?> eventClass;
+        private final Object listener;
+        private final EventFilter filter;
+        private final EventInvoker invoker;
+
+        private Subscriber(Class<?> eventClass, Object listener, EventFilter filter, EventInvoker invoker)
+        {
+            this.eventClass = eventClass;
+            this.listener = listener;
+            this.filter = filter;
+            this.invoker = invoker;
+        }
+    }
+
+    private static final class Subscribers
+    {
+        private final Set<Object> listeners;
+        private final Map<Class<?>, List<Subscriber>> byEventClass;
+        private final ConcurrentMap<Class<?>, Subscriber[]> flattened = new ConcurrentHashMap<>();
+
+        private Subscribers(Set<Object> listeners, Map<Class<?>, List<Subscriber>> byEventClass)
+        {
+            this.listeners = Collections.unmodifiableSet(listeners);
+            this.byEventClass = Collections.unmodifiableMap(byEventClass);
+        }
+
+        private Subscriber[] get(Class<?> eventClass)
+        {
+            Subscriber[] result = flattened.get(eventClass);
+            if (result == null)
+                result = flattened.computeIfAbsent(eventClass, this::flatten);
+            return result;
+        }
+
+        // most specific event class first, just like walking the superclass chain of the event on every call
+        private Subscriber[] flatten(Class<?> eventClass)
+        {
+            List<Subscriber> result = new ArrayList<>();
+            for (Class<?> c = eventClass; c != null && Event.class.isAssignableFrom(c); c = c.getSuperclass())
+            {
+                List<Subscriber> list = byEventClass.get(c);
+                if (list == null)
                     continue;
-                }
-                Class<?>[] pType  = m.getParameterTypes();
-                if (pType.length == 1 && Event.class.isAssignableFrom(pType[0]))
+                for (Subscriber subscriber : list)
                 {
-                    @SuppressWarnings("unchecked")
-                    Class<? extends Event> eventClass = (Class<? extends Event>) pType[0];
-                    if (!methods.containsKey(eventClass))
-                    {
-                        methods.put(eventClass, new HashMap<>());
-                    }
-
-                    if (!methods.get(eventClass).containsKey(listener))
-                    {
-                        methods.get(eventClass).put(listener, new ArrayList<>());
-                    }
-
-                    methods.get(eventClass).get(listener).add(m);
+                    if (subscriber.filter == null || subscriber.filter.acceptsType(eventClass))
+                        result.add(subscriber);
                 }
             }
+            return result.isEmpty() ? NO_SUBSCRIBERS : result.toArray(new Subscriber[result.size()]);
         }
     }
-}
\ No newline at end of file
+}
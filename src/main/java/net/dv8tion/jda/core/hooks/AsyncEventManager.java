@@ -0,0 +1,458 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.hooks;
+
+import net.dv8tion.jda.core.entities.MessageChannel;
+import net.dv8tion.jda.core.entities.impl.JDAImpl;
+import net.dv8tion.jda.core.events.Event;
+import net.dv8tion.jda.core.requests.DispatchTracer;
+import net.dv8tion.jda.core.utils.Histogram;
+import org.apache.http.util.Args;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link net.dv8tion.jda.core.hooks.IEventManager IEventManager} that delivers events on a worker pool
+ * instead of the thread that fired them.
+ * <p>
+ * Events are sharded onto a fixed number of {@link Lane Lanes}. Every lane handles its events one after another,
+ * so events of the same {@link net.dv8tion.jda.core.entities.MessageChannel MessageChannel} (message, reaction and typing events)
+ * and of the same {@link net.dv8tion.jda.core.entities.Guild Guild} (all other guild related events) are handled in the order they were fired.
+ * Events without a guild or channel are all handled by the same lane. The key can be changed by overriding {@link #getLaneKey(Event)}.
+ * <p>
+ * The listeners themselves are managed by a delegate IEventManager, by default an {@link InterfacedEventManager}.
+ * <br>Every lane has a bounded queue. The {@link OverflowPolicy} decides what happens when a queue is full.
+ * <p>
+ * Example:
+ * <pre><code>
+ * AsyncEventManager manager = new AsyncEventManager(new InterfacedEventManager(), 4, 1000, AsyncEventManager.OverflowPolicy.BLOCK, null);
+ * JDA jda = new JDABuilder(AccountType.BOT).setToken(token).setEventManager(manager).buildAsync();
+ * </code></pre>
+ */
+public class AsyncEventManager implements IEventManager
+{
+    /** The amount of events a lane handles before it gives its thread back to the {@link java.util.concurrent.Executor Executor}. */
+    public static final int BATCH_SIZE = 64;
+
+    private final IEventManager delegate;
+    private final OverflowPolicy overflowPolicy;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final Lane[] lanes;
+
+    /**
+     * Creates a new AsyncEventManager with one lane per available processor, queues holding up to 1000 events
+     * and the {@link OverflowPolicy#BLOCK BLOCK} overflow policy.
+     */
+    public AsyncEventManager()
+    {
+        this(new InterfacedEventManager(), Runtime.getRuntime().availableProcessors(), 1000, OverflowPolicy.BLOCK, null);
+    }
+
+    /**
+     * Creates a new AsyncEventManager.
+     *
+     * @param  delegate
+     *         The IEventManager that manages the listeners and is used to handle the events on the lanes
+     * @param  laneCount
+     *         The amount of lanes the events are sharded onto
+     * @param  queueCapacity
+     *         The maximum amount of events waiting in a single lane
+     * @param  overflowPolicy
+     *         What to do when an event is fired while its lane is full
+     * @param  executor
+     *         The {@link java.util.concurrent.Executor Executor} running the lanes, for example one creating virtual threads.
+     *         If {@code null} a daemon thread pool with one thread per lane is created, which can be stopped with {@link #shutdown()}.
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the delegate or overflow policy is null, or the lane count or queue capacity is not positive
+     */
+    public AsyncEventManager(IEventManager delegate, int laneCount, int queueCapacity, OverflowPolicy overflowPolicy, Executor executor)
+    {
+        Args.notNull(delegate, "delegate");
+        Args.notNull(overflowPolicy, "overflowPolicy");
+        Args.positive(laneCount, "laneCount");
+        Args.positive(queueCapacity, "queueCapacity");
+        this.delegate = delegate;
+        this.overflowPolicy = overflowPolicy;
+        if (executor == null)
+        {
+            this.ownedExecutor = Executors.newFixedThreadPool(laneCount, new LaneThreadFactory());
+            this.executor = ownedExecutor;
+        }
+        else
+        {
+            this.ownedExecutor = null;
+            this.executor = executor;
+        }
+
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++)
+            lanes[i] = new Lane(i, queueCapacity);
+    }
+
+    @Override
+    public void register(Object listener)
+    {
+        delegate.register(listener);
+    }
+
+    @Override
+    public void register(Object listener, EventFilter filter)
+    {
+        delegate.register(listener, filter);
+    }
+
+    @Override
+    public void unregister(Object listener)
+    {
+        delegate.unregister(listener);
+    }
+
+    @Override
+    public List<Object> getRegisteredListeners()
+    {
+        return delegate.getRegisteredListeners();
+    }
+
+    @Override
+    public boolean isListening(Class<? extends Event> eventClass)
+    {
+        return delegate.isListening(eventClass);
+    }
+
+    @Override
+    public boolean isListening(Class<? extends Event> eventClass, String guildId, String channelId)
+    {
+        return delegate.isListening(eventClass, guildId, channelId);
+    }
+
+    @Override
+    public void handle(Event event)
+    {
+        Object key = getLaneKey(event);
+        int index = key == null ? 0 : Math.floorMod(spread(key.hashCode()), lanes.length);
+        lanes[index].enqueue(event);
+    }
+
+    /**
+     * The key used to choose the lane of the provided event. Events with equal keys are handled in the order they are fired.
+     * <br>By default this is the id of the {@link net.dv8tion.jda.core.entities.MessageChannel MessageChannel} for
+     * message, reaction and typing events, the id of the {@link net.dv8tion.jda.core.entities.Guild Guild} for other
+     * guild related events and {@code null} for everything else.
+     *
+     * @param  event
+     *         The fired event
+     *
+     * @return The key of the event, or {@code null} to use the first lane
+     */
+    protected Object getLaneKey(Event event)
+    {
+        MessageChannel channel = EventFilter.getMessageChannel(event);
+        return channel != null ? channel.getId() : EventFilter.getGuildId(event);
+    }
+
+    /**
+     * The lanes of this manager with their metrics.
+     *
+     * @return Immutable list of all lanes
+     */
+    public List<Lane> getLanes()
+    {
+        List<Lane> list = new ArrayList<>(lanes.length);
+        Collections.addAll(list, lanes);
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * The amount of events currently waiting in all lanes.
+     *
+     * @return The total queue depth
+     */
+    public int getQueueDepth()
+    {
+        int depth = 0;
+        for (Lane lane : lanes)
+            depth += lane.getQueueDepth();
+        return depth;
+    }
+
+    /**
+     * The amount of events dropped by all lanes because of the {@link OverflowPolicy}.
+     *
+     * @return The total amount of dropped events
+     */
+    public long getDroppedEvents()
+    {
+        long dropped = 0;
+        for (Lane lane : lanes)
+            dropped += lane.getDroppedEvents();
+        return dropped;
+    }
+
+    /**
+     * Stops the thread pool created by this manager. Events that are still queued will not be handled.
+     * <br>Does nothing if a custom {@link java.util.concurrent.Executor Executor} was provided.
+     */
+    public void shutdown()
+    {
+        if (ownedExecutor != null)
+            ownedExecutor.shutdown();
+    }
+
+    private static int spread(int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Decides what happens with an event that is fired while its lane is full.
+     */
+    public enum OverflowPolicy
+    {
+        /** The thread firing the event waits until the lane has room. This slows down reading from the WebSocket. */
+        BLOCK,
+        /** The new event is dropped. */
+        DROP_NEWEST,
+        /** The oldest event waiting in the lane is dropped to make room for the new one. */
+        DROP_OLDEST
+    }
+
+    /**
+     * A single-threaded lane that handles the events of all keys that are sharded onto it, in order.
+     */
+    public final class Lane
+    {
+        private final int index;
+        private final BlockingQueue<QueuedEvent> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+        private final LongAdder handledEvents = new LongAdder();
+        private final LongAdder droppedEvents = new LongAdder();
+        private final Histogram queueLatency = new Histogram();
+        private final Histogram handleTime = new Histogram();
+        private final Runnable drain = this::drain;
+
+        private Lane(int index, int capacity)
+        {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        /**
+         * The index of this lane.
+         *
+         * @return The index of this lane
+         */
+        public int getIndex()
+        {
+            return index;
+        }
+
+        /**
+         * The amount of events currently waiting in this lane.
+         *
+         * @return The current queue depth
+         */
+        public int getQueueDepth()
+        {
+            return queue.size();
+        }
+
+        /**
+         * The highest amount of events that were waiting in this lane at the same time.
+         *
+         * @return The maximum queue depth
+         */
+        public int getMaxQueueDepth()
+        {
+            return maxQueueDepth.get();
+        }
+
+        /**
+         * The amount of events this lane has handled.
+         *
+         * @return The amount of handled events
+         */
+        public long getHandledEvents()
+        {
+            return handledEvents.sum();
+        }
+
+        /**
+         * The amount of events this lane dropped because of the {@link OverflowPolicy}.
+         *
+         * @return The amount of dropped events
+         */
+        public long getDroppedEvents()
+        {
+            return droppedEvents.sum();
+        }
+
+        /**
+         * Nanoseconds between firing an event and this lane starting to handle it.
+         *
+         * @return The queue latency {@link net.dv8tion.jda.core.utils.Histogram Histogram}
+         */
+        public Histogram getQueueLatency()
+        {
+            return queueLatency;
+        }
+
+        /**
+         * Nanoseconds the listeners took to handle an event.
+         *
+         * @return The handle time {@link net.dv8tion.jda.core.utils.Histogram Histogram}
+         */
+        public Histogram getHandleTime()
+        {
+            return handleTime;
+        }
+
+        private void enqueue(Event event)
+        {
+            DispatchTracer tracer = DispatchTracer.of(event);
+            QueuedEvent queued = new QueuedEvent(event, System.nanoTime(), tracer, tracer == null ? null : tracer.current());
+            if (!queue.offer(queued))
+            {
+                switch (overflowPolicy)
+                {
+                    case BLOCK:
+                        try
+                        {
+                            queue.put(queued);
+                        }
+                        catch (InterruptedException e)
+                        {
+                            Thread.currentThread().interrupt();
+                            droppedEvents.increment();
+                            return;
+                        }
+                        break;
+                    case DROP_NEWEST:
+                        droppedEvents.increment();
+                        return;
+                    case DROP_OLDEST:
+                        while (!queue.offer(queued))
+                        {
+                            if (queue.poll() != null)
+                                droppedEvents.increment();
+                        }
+                        break;
+                }
+            }
+            int depth = queue.size();
+            int max;
+            while (depth > (max = maxQueueDepth.get()) && !maxQueueDepth.compareAndSet(max, depth));
+            schedule();
+        }
+
+        private void schedule()
+        {
+            if (!scheduled.compareAndSet(false, true))
+                return;
+            try
+            {
+                executor.execute(drain);
+            }
+            catch (RejectedExecutionException e)
+            {
+                scheduled.set(false);
+                JDAImpl.LOG.fatal("The Executor of the AsyncEventManager rejected lane " + index);
+            }
+        }
+
+        private void drain()
+        {
+            try
+            {
+                QueuedEvent queued;
+                for (int i = 0; i < BATCH_SIZE && (queued = queue.poll()) != null; i++)
+                {
+                    long start = System.nanoTime();
+                    queueLatency.record(start - queued.time);
+                    DispatchTracer.Trace previous = queued.tracer == null ? null : queued.tracer.attach(queued.trace);
+                    try
+                    {
+                        delegate.handle(queued.event);
+                    }
+                    catch (Throwable throwable)
+                    {
+                        JDAImpl.LOG.fatal("The event manager had an uncaught exception while handling an event");
+                        JDAImpl.LOG.log(throwable);
+                    }
+                    finally
+                    {
+                        if (queued.tracer != null)
+                            queued.tracer.restore(previous);
+                    }
+                    handleTime.record(System.nanoTime() - start);
+                    handledEvents.increment();
+                }
+            }
+            finally
+            {
+                scheduled.set(false);
+                if (!queue.isEmpty())
+                    schedule();
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Lane(" + index + ") depth: " + getQueueDepth() + " max depth: " + getMaxQueueDepth()
+                    + " handled: " + getHandledEvents() + " dropped: " + getDroppedEvents()
+                    + " latency: " + queueLatency.toString(TimeUnit.MICROSECONDS);
+        }
+    }
+
+    private static final class QueuedEvent
+    {
+        private final Event event;
+        private final long time;
+        private final DispatchTracer tracer;
+        private final DispatchTracer.Trace trace;
+
+        private QueuedEvent(Event event, long time, DispatchTracer tracer, DispatchTracer.Trace trace)
+        {
+            this.event = event;
+            this.time = time;
+            this.tracer = tracer;
+            this.trace = trace;
+        }
+    }
+
+    private static class LaneThreadFactory implements ThreadFactory
+    {
+        final AtomicInteger threadCount = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable r)
+        {
+            Thread t = new Thread(r, "JDA AsyncEventManager Pool - Thread " + threadCount.getAndIncrement());
+            t.setDaemon(true);
+
+            return t;
+        }
+    }
+}
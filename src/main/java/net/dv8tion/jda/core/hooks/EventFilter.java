@@ -0,0 +1,324 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.hooks;
+
+import net.dv8tion.jda.core.entities.*;
+import net.dv8tion.jda.core.events.Event;
+import net.dv8tion.jda.core.events.channel.text.GenericTextChannelEvent;
+import net.dv8tion.jda.core.events.channel.voice.GenericVoiceChannelEvent;
+import net.dv8tion.jda.core.events.guild.GenericGuildEvent;
+import net.dv8tion.jda.core.events.message.GenericMessageEvent;
+import net.dv8tion.jda.core.events.message.MessageBulkDeleteEvent;
+import net.dv8tion.jda.core.events.message.MessageDeleteEvent;
+import net.dv8tion.jda.core.events.message.guild.GenericGuildMessageEvent;
+import net.dv8tion.jda.core.events.message.priv.GenericPrivateMessageEvent;
+import net.dv8tion.jda.core.events.message.react.GenericMessageReactionEvent;
+import net.dv8tion.jda.core.events.role.GenericRoleEvent;
+import net.dv8tion.jda.core.events.user.GenericUserEvent;
+import net.dv8tion.jda.core.events.user.UserGameUpdateEvent;
+import net.dv8tion.jda.core.events.user.UserOnlineStatusUpdateEvent;
+import net.dv8tion.jda.core.events.user.UserTypingEvent;
+import org.apache.http.util.Args;
+
+import java.util.*;
+
+/**
+ * Restricts the events a listener registered with {@link IEventManager#register(Object, EventFilter)} receives.
+ * <br>Every condition that is set has to match. Conditions that are not set match every event.
+ * <ul>
+ *     <li><b>Event types</b> - the event has to be an instance of one of the types.</li>
+ *     <li><b>Guilds</b> - the event has to belong to one of the {@link net.dv8tion.jda.core.entities.Guild Guilds}.
+ *     Events without a Guild, like private messages, never match.</li>
+ *     <li><b>Channels</b> - the event has to belong to one of the {@link net.dv8tion.jda.core.entities.MessageChannel MessageChannels}
+ *     (message, reaction and typing events) or {@link net.dv8tion.jda.core.entities.Channel Channels} (channel events).</li>
+ *     <li><b>Author is bot</b> - the author of a message, the user adding a reaction or the user of a user event has to be
+ *     a bot ({@code true}) or must not be a bot ({@code false}). Events without such a user match.</li>
+ * </ul>
+ * The filter is copied on registration, later changes do not affect registered listeners.
+ *
+ * <p><b>Example</b>
+ * <pre><code>
+ * jda.addEventListener(new CommandListener(), new EventFilter()
+ *         .setEventTypes(GuildMessageReceivedEvent.class)
+ *         .setGuilds("81384788765712384")
+ *         .setAuthorBot(false));
+ * </code></pre>
+ */
+public class EventFilter
+{
+    private final Set<Class<? extends Event>> eventTypes = new LinkedHashSet<>();
+    private final Set<String> guildIds = new HashSet<>();
+    private final Set<String> channelIds = new HashSet<>();
+    private Boolean authorBot = null;
+
+    public EventFilter() {}
+
+    private EventFilter(EventFilter filter)
+    {
+        eventTypes.addAll(filter.eventTypes);
+        guildIds.addAll(filter.guildIds);
+        channelIds.addAll(filter.channelIds);
+        authorBot = filter.authorBot;
+    }
+
+    /**
+     * Sets the event types the listener receives. Subclasses of the types are included.
+     * <br>Passing no types removes the condition.
+     *
+     * @param  types
+     *         The event types
+     *
+     * @return The current EventFilter, for chaining convenience
+     */
+    @SafeVarargs
+    public final EventFilter setEventTypes(Class<? extends Event>... types)
+    {
+        Args.notNull(types, "types");
+        eventTypes.clear();
+        for (Class<? extends Event> type : types)
+            eventTypes.add(type);
+        return this;
+    }
+
+    /**
+     * Sets the ids of the {@link net.dv8tion.jda.core.entities.Guild Guilds} the listener receives events of.
+     * <br>Passing no ids removes the condition.
+     *
+     * @param  guildIds
+     *         The guild ids
+     *
+     * @return The current EventFilter, for chaining convenience
+     */
+    public EventFilter setGuilds(String... guildIds)
+    {
+        Args.notNull(guildIds, "guildIds");
+        this.guildIds.clear();
+        Collections.addAll(this.guildIds, guildIds);
+        return this;
+    }
+
+    /**
+     * Sets the ids of the channels the listener receives events of.
+     * <br>Passing no ids removes the condition.
+     *
+     * @param  channelIds
+     *         The channel ids
+     *
+     * @return The current EventFilter, for chaining convenience
+     */
+    public EventFilter setChannels(String... channelIds)
+    {
+        Args.notNull(channelIds, "channelIds");
+        this.channelIds.clear();
+        Collections.addAll(this.channelIds, channelIds);
+        return this;
+    }
+
+    /**
+     * Sets whether the author of the event has to be a bot.
+     *
+     * @param  authorBot
+     *         {@code true} to only receive events of bots, {@code false} to ignore bots or {@code null} to remove the condition
+     *
+     * @return The current EventFilter, for chaining convenience
+     */
+    public EventFilter setAuthorBot(Boolean authorBot)
+    {
+        this.authorBot = authorBot;
+        return this;
+    }
+
+    public Set<Class<? extends Event>> getEventTypes()
+    {
+        return Collections.unmodifiableSet(eventTypes);
+    }
+
+    public Set<String> getGuilds()
+    {
+        return Collections.unmodifiableSet(guildIds);
+    }
+
+    public Set<String> getChannels()
+    {
+        return Collections.unmodifiableSet(channelIds);
+    }
+
+    public Boolean getAuthorBot()
+    {
+        return authorBot;
+    }
+
+    /**
+     * Whether events of the provided class can pass the event type condition of this filter.
+     *
+     * @param  eventClass
+     *         The class of the event
+     *
+     * @return True, if no event types are set or the class is a subclass of one of them
+     */
+    public boolean acceptsType(Class<?> eventClass)
+    {
+        if (eventTypes.isEmpty())
+            return true;
+        for (Class<? extends Event> type : eventTypes)
+        {
+            if (type.isAssignableFrom(eventClass))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether the provided event passes all conditions of this filter.
+     *
+     * @param  event
+     *         The event to test
+     *
+     * @return True, if the listener should receive the event
+     */
+    public boolean test(Event event)
+    {
+        if (!acceptsType(event.getClass()))
+            return false;
+        if (!guildIds.isEmpty() && !guildIds.contains(getGuildId(event)))
+            return false;
+        if (!channelIds.isEmpty() && !channelIds.contains(getChannelId(event)))
+            return false;
+        if (authorBot != null)
+        {
+            User author = getAuthor(event);
+            if (author != null && author.isBot() != authorBot)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Whether an event of the provided class, guild and channel could pass this filter.
+     * The author condition is not checked.
+     *
+     * @param  eventClass
+     *         The class of the event
+     * @param  guildId
+     *         The id of the guild of the event, or {@code null}
+     * @param  channelId
+     *         The id of the channel of the event, or {@code null}
+     *
+     * @return True, if such an event could pass this filter
+     */
+    public boolean accepts(Class<?> eventClass, String guildId, String channelId)
+    {
+        return acceptsType(eventClass)
+                && (guildIds.isEmpty() || guildIds.contains(guildId))
+                && (channelIds.isEmpty() || channelIds.contains(channelId));
+    }
+
+    boolean hasIdConditions()
+    {
+        return !guildIds.isEmpty() || !channelIds.isEmpty();
+    }
+
+    EventFilter copy()
+    {
+        return new EventFilter(this);
+    }
+
+    /**
+     * The id of the channel the event belongs to. For message, reaction and typing events this is the
+     * {@link net.dv8tion.jda.core.entities.MessageChannel MessageChannel}, for channel events the updated channel.
+     *
+     * @param  event
+     *         The event
+     *
+     * @return The channel id, or {@code null} if the event has no channel
+     */
+    static String getChannelId(Event event)
+    {
+        MessageChannel channel = getMessageChannel(event);
+        if (channel != null)
+            return channel.getId();
+        if (event instanceof GenericTextChannelEvent)
+            return ((GenericTextChannelEvent) event).getChannel().getId();
+        if (event instanceof GenericVoiceChannelEvent)
+            return ((GenericVoiceChannelEvent) event).getChannel().getId();
+        return null;
+    }
+
+    /**
+     * The id of the {@link net.dv8tion.jda.core.entities.Guild Guild} the event belongs to.
+     *
+     * @param  event
+     *         The event
+     *
+     * @return The guild id, or {@code null} if the event has no guild
+     */
+    static String getGuildId(Event event)
+    {
+        Guild guild = null;
+        MessageChannel channel = getMessageChannel(event);
+        if (channel != null)
+        {
+            if (channel instanceof TextChannel)
+                guild = ((TextChannel) channel).getGuild();
+        }
+        else if (event instanceof GenericGuildEvent)
+            guild = ((GenericGuildEvent) event).getGuild();
+        else if (event instanceof GenericTextChannelEvent)
+            guild = ((GenericTextChannelEvent) event).getGuild();
+        else if (event instanceof GenericVoiceChannelEvent)
+            guild = ((GenericVoiceChannelEvent) event).getGuild();
+        else if (event instanceof GenericRoleEvent)
+            guild = ((GenericRoleEvent) event).getGuild();
+        else if (event instanceof UserGameUpdateEvent)
+            guild = ((UserGameUpdateEvent) event).getGuild();
+        else if (event instanceof UserOnlineStatusUpdateEvent)
+            guild = ((UserOnlineStatusUpdateEvent) event).getGuild();
+        return guild == null ? null : guild.getId();
+    }
+
+    static MessageChannel getMessageChannel(Event event)
+    {
+        if (event instanceof GenericGuildMessageEvent)
+            return ((GenericGuildMessageEvent) event).getChannel();
+        if (event instanceof GenericPrivateMessageEvent)
+            return ((GenericPrivateMessageEvent) event).getChannel();
+        if (event instanceof GenericMessageEvent)
+        {
+            Message message = ((GenericMessageEvent) event).getMessage();
+            return message == null ? null : message.getChannel();
+        }
+        if (event instanceof MessageDeleteEvent)
+            return ((MessageDeleteEvent) event).getChannel();
+        if (event instanceof MessageBulkDeleteEvent)
+            return ((MessageBulkDeleteEvent) event).getChannel();
+        if (event instanceof GenericMessageReactionEvent)
+            return ((GenericMessageReactionEvent) event).getChannel();
+        if (event instanceof UserTypingEvent)
+            return ((UserTypingEvent) event).getChannel();
+        return null;
+    }
+
+    static User getAuthor(Event event)
+    {
+        if (event instanceof GenericMessageEvent)
+            return ((GenericMessageEvent) event).getAuthor();
+        if (event instanceof GenericMessageReactionEvent)
+            return ((GenericMessageReactionEvent) event).getUser();
+        if (event instanceof GenericUserEvent)
+            return ((GenericUserEvent) event).getUser();
+        return null;
+    }
+}
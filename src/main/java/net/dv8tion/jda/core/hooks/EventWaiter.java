@@ -0,0 +1,323 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.hooks;
+
+import net.dv8tion.jda.core.entities.Message;
+import net.dv8tion.jda.core.entities.User;
+import net.dv8tion.jda.core.entities.impl.JDAImpl;
+import net.dv8tion.jda.core.events.Event;
+import net.dv8tion.jda.core.events.guild.member.GenericGuildMemberEvent;
+import net.dv8tion.jda.core.events.message.GenericMessageEvent;
+import net.dv8tion.jda.core.events.message.MessageDeleteEvent;
+import net.dv8tion.jda.core.events.message.react.GenericMessageReactionEvent;
+import org.apache.http.util.Args;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Completes {@link java.util.concurrent.CompletableFuture CompletableFutures} with the next event matching a condition,
+ * for example the next message of a user in a channel.
+ * <br>The EventWaiter has to be registered like any other listener, one instance can serve any amount of waiters.
+ *
+ * <p>Waiters are indexed by event type and by a key, the id of the user, channel or message of the event.
+ * Matching an event only looks at the waiters of its type and ids, so thousands of pending waiters
+ * do not slow down unrelated events. Every waiter expires after a timeout, the future then completes
+ * exceptionally with a {@link java.util.concurrent.TimeoutException TimeoutException}.
+ *
+ * <p>Futures are completed on the thread firing the event (or the timer thread on timeout),
+ * use the {@code *Async} methods of the future for work that should not block event handling.
+ *
+ * <p>JDA does not create events nobody listens to. The {@link net.dv8tion.jda.core.hooks.IndexedEventManager IndexedEventManager}
+ * and {@link net.dv8tion.jda.core.hooks.InterfacedEventManager InterfacedEventManager} ask the EventWaiter through
+ * {@link #isWaitingFor(Class)}, so it only counts as listening to the event types it currently has waiters for.
+ * Other event managers treat it like any other {@link net.dv8tion.jda.core.hooks.EventListener EventListener},
+ * which listens to every event, so no event is skipped while it is registered.
+ *
+ * <p><b>Example</b>
+ * <pre><code>
+ * EventWaiter waiter = new EventWaiter();
+ * jda.addEventListener(waiter);
+ *
+ * waiter.waitFor(GuildMessageReceivedEvent.class, user.getId(),
+ *         event -&gt; event.getChannel().equals(channel), 30, TimeUnit.SECONDS)
+ *     .thenAccept(event -&gt; channel.sendMessage("You said: " + event.getMessage().getContent()).queue());
+ * </code></pre>
+ */
+public class EventWaiter implements EventListener
+{
+    private static final String ANY_KEY = "";
+    private static ScheduledExecutorService sharedTimer;
+
+    private final ScheduledExecutorService timer;
+    private final ConcurrentMap<Class<?>, ConcurrentMap<String, Set<Waiter<?>>>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Creates an EventWaiter expiring its waiters on a timer thread shared by all EventWaiters.
+     */
+    public EventWaiter()
+    {
+        this(getSharedTimer());
+    }
+
+    /**
+     * Creates an EventWaiter expiring its waiters on the provided executor.
+     *
+     * @param  timer
+     *         The executor scheduling the timeouts
+     */
+    public EventWaiter(ScheduledExecutorService timer)
+    {
+        Args.notNull(timer, "Timer");
+        this.timer = timer;
+    }
+
+    /**
+     * Waits for the next event of the given type that matches the condition.
+     * <br>Prefer {@link #waitFor(Class, String, Predicate, long, TimeUnit)} if the event can be narrowed down by an id,
+     * unkeyed waiters are tested against every event of their type.
+     *
+     * @param  eventType
+     *         The type of event to wait for, subclasses match as well
+     * @param  condition
+     *         The condition the event has to fulfill, or {@code null} to accept the first event of the type
+     * @param  timeout
+     *         The time after which waiting is given up
+     * @param  unit
+     *         The unit of the timeout
+     * @param  <T>
+     *         The type of event
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the event type or unit is null or the timeout is not positive
+     *
+     * @return A future completed with the matching event
+     */
+    public <T extends Event> CompletableFuture<T> waitFor(Class<T> eventType, Predicate<? super T> condition, long timeout, TimeUnit unit)
+    {
+        return waitFor(eventType, null, condition, timeout, unit);
+    }
+
+    /**
+     * Waits for the next event of the given type that has the provided key and matches the condition.
+     * <br>The keys of an event are the id of its user (message author, reacting user, user or member),
+     * the id of its channel and the id of its message, if the event has them.
+     *
+     * @param  eventType
+     *         The type of event to wait for, subclasses match as well
+     * @param  key
+     *         The id of the user, channel or message the event has to have, or {@code null} to match any event of the type
+     * @param  condition
+     *         The condition the event has to fulfill, or {@code null} to accept the first event with the key
+     * @param  timeout
+     *         The time after which waiting is given up
+     * @param  unit
+     *         The unit of the timeout
+     * @param  <T>
+     *         The type of event
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the event type or unit is null or the timeout is not positive
+     *
+     * @return A future completed with the matching event
+     */
+    public <T extends Event> CompletableFuture<T> waitFor(Class<T> eventType, String key, Predicate<? super T> condition, long timeout, TimeUnit unit)
+    {
+        Args.notNull(eventType, "Event type");
+        Args.notNull(unit, "Unit");
+        Args.positive(timeout, "Timeout");
+
+        Waiter<T> waiter = new Waiter<>(eventType, key == null ? ANY_KEY : key, condition);
+        waiters.computeIfAbsent(eventType, k -> new ConcurrentHashMap<>()).compute(waiter.key, (k, set) ->
+        {
+            if (set == null)
+                set = ConcurrentHashMap.newKeySet();
+            set.add(waiter);
+            return set;
+        });
+        pending.incrementAndGet();
+
+        waiter.timeout = timer.schedule(() ->
+                waiter.future.completeExceptionally(new TimeoutException("No " + eventType.getSimpleName() + " matched within " + timeout + " " + unit)),
+                timeout, unit);
+        waiter.future.whenComplete((event, error) -> remove(waiter));
+        return waiter.future;
+    }
+
+    /**
+     * The amount of waiters that have neither matched an event nor timed out yet.
+     *
+     * @return The amount of pending waiters
+     */
+    public int getPendingCount()
+    {
+        return pending.get();
+    }
+
+    /**
+     * Whether there is a pending waiter that an event of the provided class could complete.
+     *
+     * @param  eventClass
+     *         The class of the event
+     *
+     * @return True, if a waiter waits for the class or one of its superclasses
+     */
+    public boolean isWaitingFor(Class<?> eventClass)
+    {
+        if (pending.get() == 0)
+            return false;
+        for (Class<?> type = eventClass; type != null && type != Object.class; type = type.getSuperclass())
+        {
+            ConcurrentMap<String, Set<Waiter<?>>> byKey = waiters.get(type);
+            if (byKey != null && !byKey.isEmpty())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Cancels all pending waiters, their futures complete with a {@link java.util.concurrent.CancellationException CancellationException}.
+     */
+    public void cancelAll()
+    {
+        List<Waiter<?>> all = new ArrayList<>();
+        waiters.values().forEach(byKey -> byKey.values().forEach(all::addAll));
+        all.forEach(waiter -> waiter.future.cancel(false));
+    }
+
+    @Override
+    public void onEvent(Event event)
+    {
+        if (pending.get() == 0)
+            return;
+
+        String[] keys = null;
+        for (Class<?> type = event.getClass(); type != Object.class; type = type.getSuperclass())
+        {
+            ConcurrentMap<String, Set<Waiter<?>>> byKey = waiters.get(type);
+            if (byKey == null || byKey.isEmpty())
+                continue;
+
+            test(byKey.get(ANY_KEY), event);
+            if (keys == null)
+                keys = getKeys(event);
+            for (String key : keys)
+            {
+                if (key != null)
+                    test(byKey.get(key), event);
+            }
+        }
+    }
+
+    private void test(Set<Waiter<?>> candidates, Event event)
+    {
+        if (candidates == null)
+            return;
+        for (Waiter<?> waiter : candidates)
+            waiter.test(event);
+    }
+
+    private void remove(Waiter<?> waiter)
+    {
+        waiter.timeout.cancel(false);
+        ConcurrentMap<String, Set<Waiter<?>>> byKey = waiters.get(waiter.type);
+        if (byKey == null)
+            return;
+        boolean[] removed = {false};
+        byKey.computeIfPresent(waiter.key, (k, set) ->
+        {
+            removed[0] = set.remove(waiter);
+            return set.isEmpty() ? null : set;
+        });
+        if (removed[0])
+            pending.decrementAndGet();
+    }
+
+    private static String[] getKeys(Event event)
+    {
+        User user = EventFilter.getAuthor(event);
+        if (user == null && event instanceof GenericGuildMemberEvent)
+            user = ((GenericGuildMemberEvent) event).getMember().getUser();
+
+        String messageId = null;
+        if (event instanceof GenericMessageEvent)
+        {
+            Message message = ((GenericMessageEvent) event).getMessage();
+            messageId = message == null ? null : message.getId();
+        }
+        else if (event instanceof MessageDeleteEvent)
+            messageId = ((MessageDeleteEvent) event).getMessageId();
+        else if (event instanceof GenericMessageReactionEvent)
+            messageId = ((GenericMessageReactionEvent) event).getMessageId();
+
+        return new String[] { user == null ? null : user.getId(), EventFilter.getChannelId(event), messageId };
+    }
+
+    private static synchronized ScheduledExecutorService getSharedTimer()
+    {
+        if (sharedTimer == null)
+        {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r ->
+            {
+                Thread t = new Thread(r, "JDA EventWaiter Timer");
+                t.setDaemon(true);
+                return t;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            sharedTimer = executor;
+        }
+        return sharedTimer;
+    }
+
+    private static class Waiter<T extends Event>
+    {
+        final Class<T> type;
+        final String key;
+        final Predicate<? super T> condition;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        volatile ScheduledFuture<?> timeout;
+
+        Waiter(Class<T> type, String key, Predicate<? super T> condition)
+        {
+            this.type = type;
+            this.key = key;
+            this.condition = condition;
+        }
+
+        void test(Event event)
+        {
+            if (future.isDone())
+                return;
+            T cast = type.cast(event);
+            try
+            {
+                if (condition == null || condition.test(cast))
+                    future.complete(cast);
+            }
+            catch (Throwable t)
+            {
+                JDAImpl.LOG.fatal("One of the EventWaiter conditions had an uncaught exception");
+                JDAImpl.LOG.log(t);
+                future.completeExceptionally(t);
+            }
+        }
+    }
+}
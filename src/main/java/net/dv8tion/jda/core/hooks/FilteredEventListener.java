@@ -0,0 +1,79 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.hooks;
+
+import net.dv8tion.jda.core.events.Event;
+import org.apache.http.util.Args;
+
+/**
+ * {@link net.dv8tion.jda.core.hooks.EventListener EventListener} that only passes the events accepted by an
+ * {@link net.dv8tion.jda.core.hooks.EventFilter EventFilter} on to another listener.
+ * <p>
+ * Used by the default {@link IEventManager#register(Object, EventFilter)} for event managers without
+ * filter support of their own. Such managers do not index the filter, every event is still tested against it.
+ */
+public class FilteredEventListener implements EventListener
+{
+    private final EventListener listener;
+    private final EventFilter filter;
+
+    /**
+     * Creates a listener passing the events accepted by the filter on to the provided listener.
+     *
+     * @param  listener
+     *         The listener receiving the accepted events
+     * @param  filter
+     *         The filter, copied so later changes have no effect
+     *
+     * @throws IllegalArgumentException
+     *         If the listener or filter is null
+     */
+    public FilteredEventListener(EventListener listener, EventFilter filter)
+    {
+        Args.notNull(listener, "Provided listener");
+        Args.notNull(filter, "Provided filter");
+        this.listener = listener;
+        this.filter = filter.copy();
+    }
+
+    @Override
+    public void onEvent(Event event)
+    {
+        if (filter.test(event))
+            listener.onEvent(event);
+    }
+
+    /**
+     * The listener receiving the events that pass the filter.
+     *
+     * @return The wrapped listener
+     */
+    public EventListener getListener()
+    {
+        return listener;
+    }
+
+    public EventFilter getFilter()
+    {
+        return filter;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "FilteredEventListener(" + listener + ")";
+    }
+}
@@ -23,9 +23,68 @@ public interface IEventManager
 {
     void register(Object listener);
 
+    /**
+     * Registers a listener that only receives the events accepted by the provided {@link EventFilter}.
+     * <br>The listener is removed with {@link #unregister(Object)} like any other listener.
+     * <p>
+     * The default implementation registers a {@link FilteredEventListener} wrapping the listener with {@link #register(Object)},
+     * which tests every event against the filter. That wrapper is what {@link #getRegisteredListeners()} returns
+     * and what has to be passed to {@link #unregister(Object)}, {@link net.dv8tion.jda.core.JDA#removeEventListener(Object...)}
+     * takes care of that.
+     *
+     * @param  listener
+     *         The listener
+     * @param  filter
+     *         The filter deciding which events the listener receives
+     *
+     * @throws IllegalArgumentException
+     *         If the default implementation is used and the listener is not an {@link EventListener}
+     */
+    default void register(Object listener, EventFilter filter)
+    {
+        if (!(listener instanceof EventListener))
+            throw new IllegalArgumentException("Listener must implement EventListener to be filtered by " + getClass().getSimpleName());
+        register(new FilteredEventListener((EventListener) listener, filter));
+    }
+
     void unregister(Object listener);
 
     void handle(Event event);
 
     List<Object> getRegisteredListeners();
+
+    /**
+     * Whether any registered listener would receive an event of the provided class.
+     * <br>JDA does not create events nobody listens to, so implementations may only return {@code false}
+     * if firing the event would have no effect. The default implementation always returns {@code true}.
+     *
+     * @param  eventClass
+     *         The concrete class of the event
+     *
+     * @return True, if at least one listener would receive the event
+     */
+    default boolean isListening(Class<? extends Event> eventClass)
+    {
+        return true;
+    }
+
+    /**
+     * Whether any registered listener would receive an event of the provided class
+     * that belongs to the provided guild and channel, taking {@link EventFilter EventFilters} into account.
+     * <br>Like {@link #isListening(Class)} this may only return {@code false} if firing the event would have no effect.
+     * The default implementation ignores the ids.
+     *
+     * @param  eventClass
+     *         The concrete class of the event
+     * @param  guildId
+     *         The id of the guild of the event, or {@code null}
+     * @param  channelId
+     *         The id of the channel of the event, or {@code null}
+     *
+     * @return True, if at least one listener would receive the event
+     */
+    default boolean isListening(Class<? extends Event> eventClass, String guildId, String channelId)
+    {
+        return isListening(eventClass);
+    }
 }
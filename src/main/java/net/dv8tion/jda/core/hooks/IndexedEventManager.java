@@ -0,0 +1,372 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.hooks;
+
+import net.dv8tion.jda.core.entities.impl.JDAImpl;
+import net.dv8tion.jda.core.events.Event;
+import net.dv8tion.jda.core.requests.DispatchTracer;
+import org.apache.http.util.Args;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An {@link net.dv8tion.jda.core.hooks.IEventManager IEventManager} for {@link net.dv8tion.jda.core.hooks.EventListener EventListeners}
+ * that only calls the listeners which can handle the fired event.
+ * <p>
+ * For every {@link net.dv8tion.jda.core.hooks.ListenerAdapter ListenerAdapter} the overridden {@code on...} methods are inspected
+ * once per listener class. An event is only passed to a ListenerAdapter if it overrides {@link ListenerAdapter#onGenericEvent(Event)}
+ * or a method whose parameter type is a supertype of the fired event.
+ * <br>Plain {@link net.dv8tion.jda.core.hooks.EventListener EventListener} implementations receive every event,
+ * just like they would with the {@link net.dv8tion.jda.core.hooks.InterfacedEventManager InterfacedEventManager}.
+ * <p>
+ * The listeners are resolved once per concrete event class and cached in a dispatch table which is rebuilt whenever
+ * a listener is registered or unregistered. Listeners registered with an {@link EventFilter} for guilds or channels are
+ * indexed by these ids. Listeners are called in the order they were registered.
+ * <br>An {@link EventWaiter} only counts as listening to the event types it currently has waiters for.
+ */
+public class IndexedEventManager implements IEventManager
+{
+    private static final Class<?>[] ALL_EVENTS = { Event.class };
+    private static final ConcurrentMap<Class<?>, Class<?>[]> HANDLED_TYPES = new ConcurrentHashMap<>();
+    private static final Registration[] NO_REGISTRATIONS = new Registration[0];
+    private static final EventWaiter[] NO_WAITERS = new EventWaiter[0];
+
+    private final List<Registration> registrations = new ArrayList<>();
+    private long registrationCount = 0;
+    private volatile ConcurrentMap<Class<?>, Dispatch> dispatchTable = new ConcurrentHashMap<>();
+
+    @Override
+    public void register(Object listener)
+    {
+        addRegistration(listener, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Listeners filtered by channel or guild ids are indexed by these ids,
+     * so they do not add any cost to events of other guilds and channels.
+     */
+    @Override
+    public void register(Object listener, EventFilter filter)
+    {
+        Args.notNull(filter, "filter");
+        addRegistration(listener, filter.copy());
+    }
+
+    private void addRegistration(Object listener, EventFilter filter)
+    {
+        if (!(listener instanceof EventListener))
+        {
+            throw new IllegalArgumentException("Listener must implement EventListener");
+        }
+        synchronized (registrations)
+        {
+            registrations.add(new Registration((EventListener) listener, filter, registrationCount++));
+            rebuildDispatchTable();
+        }
+    }
+
+    @Override
+    public void unregister(Object listener)
+    {
+        synchronized (registrations)
+        {
+            for (Iterator<Registration> it = registrations.iterator(); it.hasNext();)
+            {
+                if (it.next().listener.equals(listener))
+                {
+                    it.remove();
+                    rebuildDispatchTable();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<Object> getRegisteredListeners()
+    {
+        synchronized (registrations)
+        {
+            List<Object> listeners = new LinkedList<>();
+            for (Registration registration : registrations)
+                listeners.add(registration.listener);
+            return Collections.unmodifiableList(listeners);
+        }
+    }
+
+    @Override
+    public boolean isListening(Class<? extends Event> eventClass)
+    {
+        Dispatch dispatch = getDispatch(eventClass);
+        return dispatch.listening || dispatch.indexed || dispatch.isWaiting(eventClass);
+    }
+
+    @Override
+    public boolean isListening(Class<? extends Event> eventClass, String guildId, String channelId)
+    {
+        Dispatch dispatch = getDispatch(eventClass);
+        return dispatch.listening
+                || (guildId != null && dispatch.byGuild.containsKey(guildId))
+                || (channelId != null && dispatch.byChannel.containsKey(channelId))
+                || dispatch.isWaiting(eventClass);
+    }
+
+    @Override
+    public void handle(Event event)
+    {
+        Dispatch dispatch = getDispatch(event.getClass());
+        DispatchTracer tracer = DispatchTracer.of(event);
+        if (!dispatch.indexed)
+        {
+            for (Registration registration : dispatch.registrations)
+                call(registration, event, tracer);
+            return;
+        }
+
+        String guildId = EventFilter.getGuildId(event);
+        String channelId = EventFilter.getChannelId(event);
+        Registration[] byGuild = guildId == null ? null : dispatch.byGuild.get(guildId);
+        Registration[] byChannel = channelId == null ? null : dispatch.byChannel.get(channelId);
+        merge(dispatch.registrations,
+                byGuild == null ? NO_REGISTRATIONS : byGuild,
+                byChannel == null ? NO_REGISTRATIONS : byChannel,
+                event, tracer);
+    }
+
+    // calls the registrations of all three arrays in registration order
+    private static void merge(Registration[] a, Registration[] b, Registration[] c, Event event, DispatchTracer tracer)
+    {
+        int i = 0, j = 0, k = 0;
+        while (true)
+        {
+            Registration next = null;
+            int source = 0;
+            if (i < a.length)
+            {
+                next = a[i];
+            }
+            if (j < b.length && (next == null || b[j].order < next.order))
+            {
+                next = b[j];
+                source = 1;
+            }
+            if (k < c.length && (next == null || c[k].order < next.order))
+            {
+                next = c[k];
+                source = 2;
+            }
+            if (next == null)
+                return;
+
+            if (source == 0)
+                i++;
+            else if (source == 1)
+                j++;
+            else
+                k++;
+            call(next, event, tracer);
+        }
+    }
+
+    private static void call(Registration registration, Event event, DispatchTracer tracer)
+    {
+        if (registration.filter != null && !registration.filter.test(event))
+            return;
+        long start = tracer == null ? 0 : tracer.listenerStarted();
+        try
+        {
+            registration.listener.onEvent(event);
+        }
+        catch (Throwable throwable)
+        {
+            JDAImpl.LOG.fatal("One of the EventListeners had an uncaught exception");
+            JDAImpl.LOG.log(throwable);
+        }
+        if (tracer != null)
+            tracer.listenerFinished(registration.listener, start);
+    }
+
+    private Dispatch getDispatch(Class<?> eventClass)
+    {
+        ConcurrentMap<Class<?>, Dispatch> table = dispatchTable;
+        Dispatch dispatch = table.get(eventClass);
+        if (dispatch == null)
+        {
+            synchronized (registrations)
+            {
+                // the table might have been swapped while we were waiting for the lock
+                table = dispatchTable;
+                dispatch = table.computeIfAbsent(eventClass, this::resolve);
+            }
+        }
+        return dispatch;
+    }
+
+    // must hold the registrations lock
+    private void rebuildDispatchTable()
+    {
+        ConcurrentMap<Class<?>, Dispatch> table = new ConcurrentHashMap<>();
+        for (Class<?> eventClass : dispatchTable.keySet())
+            table.put(eventClass, resolve(eventClass));
+        dispatchTable = table;
+    }
+
+    // must hold the registrations lock
+    private Dispatch resolve(Class<?> eventClass)
+    {
+        List<Registration> unindexed = new ArrayList<>();
+        List<EventWaiter> waiters = new ArrayList<>();
+        boolean listening = false;
+        Map<String, List<Registration>> byGuild = new HashMap<>();
+        Map<String, List<Registration>> byChannel = new HashMap<>();
+        for (Registration registration : registrations)
+        {
+            EventFilter filter = registration.filter;
+            if (!canHandle(registration.listener, eventClass) || (filter != null && !filter.acceptsType(eventClass)))
+                continue;
+
+            // listeners filtering by channel are indexed by channel, the guild condition is checked when called
+            if (filter == null || !filter.hasIdConditions())
+            {
+                unindexed.add(registration);
+                // waiters only listen while they wait for the event, which can change without a rebuild
+                if (registration.listener instanceof EventWaiter)
+                    waiters.add((EventWaiter) registration.listener);
+                else
+                    listening = true;
+            }
+            else if (!filter.getChannels().isEmpty())
+                filter.getChannels().forEach(id -> byChannel.computeIfAbsent(id, k -> new ArrayList<>()).add(registration));
+            else
+                filter.getGuilds().forEach(id -> byGuild.computeIfAbsent(id, k -> new ArrayList<>()).add(registration));
+        }
+        return new Dispatch(unindexed.toArray(NO_REGISTRATIONS), toArrays(byGuild), toArrays(byChannel),
+                waiters.toArray(NO_WAITERS), listening);
+    }
+
+    private static Map<String, Registration[]> toArrays(Map<String, List<Registration>> map)
+    {
+        if (map.isEmpty())
+            return Collections.emptyMap();
+        Map<String, Registration[]> arrays = new HashMap<>(map.size() * 2);
+        map.forEach((id, list) -> arrays.put(id, list.toArray(NO_REGISTRATIONS)));
+        return arrays;
+    }
+
+    static boolean canHandle(EventListener listener, Class<?> eventClass)
+    {
+        for (Class<?> type : getHandledTypes(listener.getClass()))
+        {
+            if (type.isAssignableFrom(eventClass))
+                return true;
+        }
+        return false;
+    }
+
+    private static Class<?>[] getHandledTypes(Class<?> listenerClass)
+    {
+        if (!ListenerAdapter.class.isAssignableFrom(listenerClass))
+            return ALL_EVENTS;
+        return HANDLED_TYPES.computeIfAbsent(listenerClass, IndexedEventManager::findOverriddenTypes);
+    }
+
+    private static Class<?>[] findOverriddenTypes(Class<?> listenerClass)
+    {
+        Set<Class<?>> types = new HashSet<>();
+        for (Class<?> c = listenerClass; c != ListenerAdapter.class; c = c.getSuperclass())
+        {
+            for (Method method : c.getDeclaredMethods())
+            {
+                if (!isHandlerOverride(method))
+                    continue;
+                Class<?> type = method.getParameterTypes()[0];
+                if (type == Event.class)
+                    return ALL_EVENTS;
+                types.add(type);
+            }
+        }
+        return types.toArray(new Class<?>[types.size()]);
+    }
+
+    private static boolean isHandlerOverride(Method method)
+    {
+        if (method.isBridge() || method.isSynthetic() || Modifier.isStatic(method.getModifiers())
+                || method.getParameterCount() != 1 || !Event.class.isAssignableFrom(method.getParameterTypes()[0]))
+        {
+            return false;
+        }
+        try
+        {
+            ListenerAdapter.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        }
+        catch (NoSuchMethodException e)
+        {
+            return false;
+        }
+    }
+
+    private static final class Registration
+    {
+        private final EventListener listener;
+        private final EventFilter filter;
+        private final long order;
+
+        private Registration(EventListener listener, EventFilter filter, long order)
+        {
+            this.listener = listener;
+            this.filter = filter;
+            this.order = order;
+        }
+    }
+
+    private static final class Dispatch
+    {
+        private final Registration[] registrations;
+        private final Map<String, Registration[]> byGuild;
+        private final Map<String, Registration[]> byChannel;
+        private final EventWaiter[] waiters;
+        private final boolean listening;
+        private final boolean indexed;
+
+        private Dispatch(Registration[] registrations, Map<String, Registration[]> byGuild, Map<String, Registration[]> byChannel,
+                         EventWaiter[] waiters, boolean listening)
+        {
+            this.registrations = registrations;
+            this.byGuild = byGuild;
+            this.byChannel = byChannel;
+            this.waiters = waiters;
+            this.listening = listening;
+            this.indexed = !byGuild.isEmpty() || !byChannel.isEmpty();
+        }
+
+        private boolean isWaiting(Class<?> eventClass)
+        {
+            for (EventWaiter waiter : waiters)
+            {
+                if (waiter.isWaitingFor(eventClass))
+                    return true;
+            }
+            return false;
+        }
+    }
+}
@@ -17,15 +17,21 @@ package net.dv8tion.jda.core.hooks;
 
 import net.dv8tion.jda.core.entities.impl.JDAImpl;
 import net.dv8tion.jda.core.events.Event;
+import net.dv8tion.jda.core.requests.DispatchTracer;
+import org.apache.http.util.Args;
 
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 public class InterfacedEventManager implements IEventManager
 {
     private final CopyOnWriteArrayList<EventListener> listeners = new CopyOnWriteArrayList<>();
+    //Waiters only listen while they wait for an event, so they are asked every time instead of being cached.
+    private final CopyOnWriteArrayList<EventWaiter> waiters = new CopyOnWriteArrayList<>();
+    private volatile ConcurrentMap<Class<?>, Boolean> listening = new ConcurrentHashMap<>();
+    private volatile Map<EventListener, EventFilter> filters = Collections.emptyMap();
 
     public InterfacedEventManager()
     {
@@ -40,12 +46,40 @@ public class InterfacedEventManager implements IEventManager
             throw new IllegalArgumentException("Listener must implement EventListener");
         }
         listeners.add(((EventListener) listener));
+        if (listener instanceof EventWaiter)
+            waiters.add((EventWaiter) listener);
+        listening = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public synchronized void register(Object listener, EventFilter filter)
+    {
+        Args.notNull(filter, "filter");
+        if (!(listener instanceof EventListener))
+        {
+            throw new IllegalArgumentException("Listener must implement EventListener");
+        }
+        Map<EventListener, EventFilter> filters = new IdentityHashMap<>(this.filters);
+        filters.put((EventListener) listener, filter.copy());
+        this.filters = filters;
+        register(listener);
     }
 
     @Override
     public void unregister(Object listener)
     {
-        listeners.remove(listener);
+        if (listeners.remove(listener))
+            listening = new ConcurrentHashMap<>();
+        waiters.remove(listener);
+        if (filters.containsKey(listener))
+        {
+            synchronized (this)
+            {
+                Map<EventListener, EventFilter> filters = new IdentityHashMap<>(this.filters);
+                filters.remove(listener);
+                this.filters = filters;
+            }
+        }
     }
 
     @Override
@@ -54,11 +88,70 @@ public class InterfacedEventManager implements IEventManager
         return Collections.unmodifiableList(new LinkedList<>(listeners));
     }
 
+    @Override
+    public boolean isListening(Class<? extends Event> eventClass)
+    {
+        ConcurrentMap<Class<?>, Boolean> listening = this.listening;
+        Boolean result = listening.get(eventClass);
+        if (result == null)
+            result = listening.computeIfAbsent(eventClass, c -> isListening(c, null, null, false));
+        return result || isWaiting(eventClass, null, null, false);
+    }
+
+    @Override
+    public boolean isListening(Class<? extends Event> eventClass, String guildId, String channelId)
+    {
+        if (filters.isEmpty())
+            return isListening(eventClass);
+        return isListening(eventClass, guildId, channelId, true) || isWaiting(eventClass, guildId, channelId, true);
+    }
+
+    private boolean isListening(Class<?> eventClass, String guildId, String channelId, boolean checkIds)
+    {
+        Map<EventListener, EventFilter> filters = this.filters;
+        for (EventListener listener : listeners)
+        {
+            if (listener instanceof EventWaiter || !IndexedEventManager.canHandle(listener, eventClass))
+                continue;
+            if (accepts(filters.get(listener), eventClass, guildId, channelId, checkIds))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean isWaiting(Class<?> eventClass, String guildId, String channelId, boolean checkIds)
+    {
+        if (waiters.isEmpty())
+            return false;
+        Map<EventListener, EventFilter> filters = this.filters;
+        for (EventWaiter waiter : waiters)
+        {
+            if (waiter.isWaitingFor(eventClass) && accepts(filters.get(waiter), eventClass, guildId, channelId, checkIds))
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean accepts(EventFilter filter, Class<?> eventClass, String guildId, String channelId, boolean checkIds)
+    {
+        return filter == null
+                || (checkIds ? filter.accepts(eventClass, guildId, channelId) : filter.acceptsType(eventClass));
+    }
+
     @Override
     public void handle(Event event)
     {
+        Map<EventListener, EventFilter> filters = this.filters;
+        DispatchTracer tracer = DispatchTracer.of(event);
         for (EventListener listener : listeners)
         {
+            if (!filters.isEmpty())
+            {
+                EventFilter filter = filters.get(listener);
+                if (filter != null && !filter.test(event))
+                    continue;
+            }
+            long start = tracer == null ? 0 : tracer.listenerStarted();
             try
             {
                 listener.onEvent(event);
@@ -68,6 +161,8 @@ public class InterfacedEventManager implements IEventManager
                 JDAImpl.LOG.fatal("One of the EventListeners had an uncaught exception");
                 JDAImpl.LOG.log(throwable);
             }
+            if (tracer != null)
+                tracer.listenerFinished(listener, start);
         }
     }
 }
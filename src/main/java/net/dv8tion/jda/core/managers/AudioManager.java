@@ -19,6 +19,7 @@ package net.dv8tion.jda.core.managers;
 import net.dv8tion.jda.core.JDA;
 import net.dv8tion.jda.core.audio.AudioReceiveHandler;
 import net.dv8tion.jda.core.audio.AudioSendHandler;
+import net.dv8tion.jda.core.audio.AudioStats;
 import net.dv8tion.jda.core.audio.hooks.ConnectionListener;
 import net.dv8tion.jda.core.audio.hooks.ConnectionStatus;
 import net.dv8tion.jda.core.entities.Guild;
@@ -198,6 +199,24 @@ public interface AudioManager
 
     ConnectionStatus getConnectionStatus();
 
+    /**
+     * The quality metrics of all audio connections of this manager, including past ones.
+     * <br>The metrics of the whole JDA instance are available from the {@link net.dv8tion.jda.core.audio.AudioStats#getParent() parent}.
+     *
+     * @return
+     *      The {@link net.dv8tion.jda.core.audio.AudioStats AudioStats} of this manager.
+     */
+    AudioStats getStats();
+
+    /**
+     * The quality metrics of the current audio connection only.
+     *
+     * @return
+     *      The {@link net.dv8tion.jda.core.audio.AudioStats AudioStats} of the current connection,
+     *      or <code>null</code> if there is no audio connection.
+     */
+    AudioStats getConnectionStats();
+
     void setAutoReconnect(boolean shouldReconnect);
 
     boolean isAutoReconnect();
@@ -21,6 +21,7 @@ import net.dv8tion.jda.core.Permission;
 import net.dv8tion.jda.core.audio.AudioConnection;
 import net.dv8tion.jda.core.audio.AudioReceiveHandler;
 import net.dv8tion.jda.core.audio.AudioSendHandler;
+import net.dv8tion.jda.core.audio.AudioStats;
 import net.dv8tion.jda.core.audio.hooks.ConnectionListener;
 import net.dv8tion.jda.core.audio.hooks.ConnectionStatus;
 import net.dv8tion.jda.core.audio.hooks.ListenerProxy;
@@ -46,6 +47,7 @@ public class AudioManagerImpl implements AudioManager
 
     protected final JDAImpl api;
     protected final Guild guild;
+    protected final AudioStats stats;
     protected AudioConnection audioConnection = null;
     protected VoiceChannel queuedAudioConnection = null;
 
@@ -64,6 +66,7 @@ public class AudioManagerImpl implements AudioManager
     {
         this.guild = guild;
         this.api = (JDAImpl) guild.getJDA();
+        this.stats = new AudioStats(api.getAudioStats());
         init(); //Just to make sure that the audio libs have been initialized.
     }
 
@@ -215,6 +218,19 @@ public class AudioManagerImpl implements AudioManager
             return ConnectionStatus.NOT_CONNECTED;
     }
 
+    @Override
+    public AudioStats getStats()
+    {
+        return stats;
+    }
+
+    @Override
+    public AudioStats getConnectionStats()
+    {
+        AudioConnection connection = audioConnection;
+        return connection == null ? null : connection.getStats();
+    }
+
     @Override
     public void setAutoReconnect(boolean shouldReconnect)
     {
@@ -267,6 +283,11 @@ public class AudioManagerImpl implements AudioManager
         return connectionListener;
     }
 
+    public AudioConnection getAudioConnection()
+    {
+        return audioConnection;
+    }
+
     public void setAudioConnection(AudioConnection audioConnection)
     {
         this.audioConnection = audioConnection;
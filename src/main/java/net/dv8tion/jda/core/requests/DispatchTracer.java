@@ -0,0 +1,307 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.requests;
+
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.impl.JDAImpl;
+import net.dv8tion.jda.core.events.Event;
+import net.dv8tion.jda.core.utils.Histogram;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traces where the time goes between a gateway frame arriving on the main WebSocket and the event listeners running.
+ * <p>
+ * For every dispatch type (for example {@code MESSAGE_CREATE}) the tracer keeps
+ * {@link net.dv8tion.jda.core.utils.Histogram Histograms} of the time from frame receipt until
+ * <ul>
+ *     <li>the frame was decoded,</li>
+ *     <li>the handler of the dispatch type completed (including listeners called on the same thread),</li>
+ *     <li>each listener started,</li>
+ * </ul>
+ * plus the execution time of every listener, per listener class.
+ * Events fired by an {@link net.dv8tion.jda.core.hooks.AsyncEventManager AsyncEventManager} keep the dispatch they
+ * were created for. Events fired outside of a traced dispatch, like events replayed after a guild finished loading,
+ * are recorded under {@link #UNTRACED}.
+ * <p>
+ * Tracing is off unless a tracer is set with {@link net.dv8tion.jda.core.JDABuilder#setDispatchTracer(DispatchTracer)}.
+ * Without a tracer JDA does not take any timestamps.
+ */
+public class DispatchTracer
+{
+    /** The dispatch type listener executions are recorded under if they did not happen during a traced dispatch. */
+    public static final String UNTRACED = "UNTRACED";
+
+    protected final ConcurrentHashMap<String, DispatchMetrics> dispatches = new ConcurrentHashMap<>();
+    protected final ThreadLocal<Trace> current = new ThreadLocal<>();
+
+    /**
+     * The tracer of the JDA instance that fired the provided event.
+     *
+     * @param event
+     *          The event.
+     * @return
+     *      The active tracer, or {@code null} if tracing is off.
+     */
+    public static DispatchTracer of(Event event)
+    {
+        JDA api = event.getJDA();
+        return api instanceof JDAImpl ? ((JDAImpl) api).getDispatchTracer() : null;
+    }
+
+    /**
+     * Starts tracing a dispatch on the current thread and records its decode time.
+     *
+     * @param type
+     *          The dispatch type of the frame.
+     * @param receivedAt
+     *          The {@link System#nanoTime()} the frame was received at.
+     * @param decodedAt
+     *          The {@link System#nanoTime()} the frame was decoded at.
+     * @return
+     *      The trace that was active before, to be passed to {@link #restore(Trace)} once the dispatch is done.
+     */
+    public Trace begin(String type, long receivedAt, long decodedAt)
+    {
+        DispatchMetrics metrics = getDispatchMetrics(type);
+        metrics.decode.record(decodedAt - receivedAt);
+        return attach(new Trace(metrics, receivedAt));
+    }
+
+    /**
+     * The trace active on the current thread, to continue it on another thread with {@link #attach(Trace)}.
+     *
+     * @return
+     *      The current trace, or {@code null} if no dispatch is traced on this thread.
+     */
+    public Trace current()
+    {
+        return current.get();
+    }
+
+    /**
+     * Makes the provided trace the active trace of the current thread.
+     *
+     * @param trace
+     *          The trace to continue, or {@code null} to stop attributing work to a dispatch.
+     * @return
+     *      The trace that was active before, to be passed to {@link #restore(Trace)}.
+     */
+    public Trace attach(Trace trace)
+    {
+        Trace previous = current.get();
+        current.set(trace);
+        return previous;
+    }
+
+    public void restore(Trace previous)
+    {
+        current.set(previous);
+    }
+
+    /**
+     * Records that the handler of the active dispatch completed.
+     */
+    public void handled()
+    {
+        Trace trace = current.get();
+        if (trace != null)
+            trace.metrics.handled.record(System.nanoTime() - trace.receivedAt);
+    }
+
+    /**
+     * Records that a listener is about to be called for the active dispatch.
+     *
+     * @return
+     *      The start time, to be passed to {@link #listenerFinished(Object, long)}.
+     */
+    public long listenerStarted()
+    {
+        long now = System.nanoTime();
+        Trace trace = current.get();
+        if (trace != null)
+            trace.metrics.listenerDelay.record(now - trace.receivedAt);
+        return now;
+    }
+
+    /**
+     * Records the execution time of a listener.
+     *
+     * @param listener
+     *          The listener that was called.
+     * @param start
+     *          The time returned by {@link #listenerStarted()}.
+     */
+    public void listenerFinished(Object listener, long start)
+    {
+        long time = System.nanoTime() - start;
+        Trace trace = current.get();
+        DispatchMetrics metrics = trace != null ? trace.metrics : getDispatchMetrics(UNTRACED);
+        metrics.getListenerTime(listener instanceof Class ? (Class<?>) listener : listener.getClass()).record(time);
+    }
+
+    /**
+     * The metrics recorded for the provided dispatch type.
+     *
+     * @param type
+     *          The dispatch type, for example {@code MESSAGE_CREATE}.
+     * @return
+     *      The {@link net.dv8tion.jda.core.requests.DispatchTracer.DispatchMetrics DispatchMetrics} of the type.
+     *      Empty metrics are created if no such dispatch was traced yet.
+     */
+    public DispatchMetrics getDispatchMetrics(String type)
+    {
+        DispatchMetrics metrics = dispatches.get(type);
+        if (metrics == null)
+            metrics = dispatches.computeIfAbsent(type, t -> new DispatchMetrics());
+        return metrics;
+    }
+
+    public Map<String, DispatchMetrics> getAllDispatchMetrics()
+    {
+        return Collections.unmodifiableMap(new TreeMap<>(dispatches));
+    }
+
+    public void reset()
+    {
+        dispatches.clear();
+    }
+
+    /**
+     * Formats all recorded metrics, one dispatch type after another.
+     *
+     * @param unit
+     *          The unit the times are displayed in.
+     * @return
+     *      A human readable report.
+     */
+    public String getReport(TimeUnit unit)
+    {
+        StringBuilder builder = new StringBuilder();
+        getAllDispatchMetrics().forEach((type, metrics) ->
+        {
+            builder.append(type).append('\n');
+            if (metrics.decode.getCount() > 0)
+            {
+                builder.append("    decoded         ").append(metrics.decode.toString(unit)).append('\n');
+                builder.append("    handled         ").append(metrics.handled.toString(unit)).append('\n');
+            }
+            if (metrics.listenerDelay.getCount() > 0)
+                builder.append("    listener start  ").append(metrics.listenerDelay.toString(unit)).append('\n');
+            metrics.getListenerTimes().forEach((listener, histogram) ->
+                    builder.append("    ").append(listener).append("  ").append(histogram.toString(unit)).append('\n'));
+        });
+        return builder.toString();
+    }
+
+    @Override
+    public String toString()
+    {
+        return getReport(TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * A dispatch traced on a thread, see {@link #current()}.
+     */
+    public static final class Trace
+    {
+        private final DispatchMetrics metrics;
+        private final long receivedAt;
+
+        private Trace(DispatchMetrics metrics, long receivedAt)
+        {
+            this.metrics = metrics;
+            this.receivedAt = receivedAt;
+        }
+    }
+
+    public static class DispatchMetrics
+    {
+        protected final Histogram decode = new Histogram();
+        protected final Histogram handled = new Histogram();
+        protected final Histogram listenerDelay = new Histogram();
+        protected final ConcurrentHashMap<Class<?>, Histogram> listenerTimes = new ConcurrentHashMap<>();
+
+        /**
+         * Histogram of the time from frame receipt until the frame was decoded, in nanoseconds.
+         *
+         * @return
+         *      The decode histogram.
+         */
+        public Histogram getDecodeTime()
+        {
+            return decode;
+        }
+
+        /**
+         * Histogram of the time from frame receipt until the handler of the dispatch type completed, in nanoseconds.
+         * This includes all listeners that were called on the WebSocket thread.
+         *
+         * @return
+         *      The handle histogram.
+         */
+        public Histogram getHandledTime()
+        {
+            return handled;
+        }
+
+        /**
+         * Histogram of the time from frame receipt until a listener was called, in nanoseconds.
+         * Every listener call is recorded.
+         *
+         * @return
+         *      The listener start histogram.
+         */
+        public Histogram getListenerDelay()
+        {
+            return listenerDelay;
+        }
+
+        /**
+         * Histogram of the execution time of the provided listener class, in nanoseconds.
+         *
+         * @param listenerClass
+         *          The class of the listener.
+         * @return
+         *      The execution time histogram. An empty histogram is created if the listener was not called yet.
+         */
+        public Histogram getListenerTime(Class<?> listenerClass)
+        {
+            Histogram histogram = listenerTimes.get(listenerClass);
+            if (histogram == null)
+                histogram = listenerTimes.computeIfAbsent(listenerClass, c -> new Histogram());
+            return histogram;
+        }
+
+        /**
+         * The execution time histograms of all listeners that were called for this dispatch type,
+         * keyed by the name of the listener class.
+         *
+         * @return
+         *      An unmodifiable copy of the execution time histograms.
+         */
+        public Map<String, Histogram> getListenerTimes()
+        {
+            Map<String, Histogram> times = new TreeMap<>();
+            listenerTimes.forEach((c, histogram) -> times.put(c.getName(), histogram));
+            return Collections.unmodifiableMap(times);
+        }
+    }
+}
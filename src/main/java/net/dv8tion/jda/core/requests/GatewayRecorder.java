@@ -0,0 +1,127 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.requests;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A {@link net.dv8tion.jda.core.requests.RawGatewayListener RawGatewayListener} that appends every frame of the
+ * main WebSocket to a file, which can be read with {@link net.dv8tion.jda.core.requests.GatewayRecording GatewayRecording}
+ * and replayed without a connection by the {@link net.dv8tion.jda.core.requests.GatewayReplayer GatewayReplayer}.
+ * <p>
+ * <b>Format</b> (all numbers big-endian, optionally gzip compressed as a whole if the file name ends with {@code .gz}):
+ * <pre>
+ * header: int magic ("JDAR"), short version, long recording start (epoch milliseconds)
+ * frame:  long sequence, long nanoseconds since the recording start, int length, byte[length] UTF-8 payload
+ * </pre>
+ * Frames are numbered from 0 in the order they were received. The gateway sequence number is part of the payload.
+ */
+public class GatewayRecorder implements RawGatewayListener, Closeable
+{
+    public static final int MAGIC = 0x4A444152;
+    public static final short VERSION = 1;
+
+    private final DataOutputStream out;
+    private final long startTime;
+    private long sequence = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a new recording at the provided path. An existing file is overwritten.
+     *
+     * @param  path
+     *         The file to record to. If the name ends with {@code .gz} the recording is gzip compressed.
+     *
+     * @throws IOException
+     *         If the file cannot be created
+     */
+    public GatewayRecorder(Path path) throws IOException
+    {
+        OutputStream stream = Files.newOutputStream(path);
+        if (path.getFileName().toString().endsWith(".gz"))
+            stream = new GZIPOutputStream(stream, 64 * 1024);
+        this.out = new DataOutputStream(new BufferedOutputStream(stream, 64 * 1024));
+        this.startTime = System.nanoTime();
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(System.currentTimeMillis());
+    }
+
+    @Override
+    public synchronized void onRawMessage(String message)
+    {
+        if (closed)
+            return;
+        try
+        {
+            byte[] payload = message.getBytes(StandardCharsets.UTF_8);
+            out.writeLong(sequence++);
+            out.writeLong(System.nanoTime() - startTime);
+            out.writeInt(payload.length);
+            out.write(payload);
+        }
+        catch (IOException e)
+        {
+            WebSocketClient.LOG.fatal("Could not record a gateway frame, stopping the recording");
+            WebSocketClient.LOG.log(e);
+            closeQuietly();
+        }
+    }
+
+    /**
+     * The amount of frames recorded so far.
+     *
+     * @return The amount of recorded frames
+     */
+    public synchronized long getRecordedFrames()
+    {
+        return sequence;
+    }
+
+    /**
+     * Writes all buffered frames to the file.
+     *
+     * @throws IOException
+     *         If writing fails
+     */
+    public synchronized void flush() throws IOException
+    {
+        if (!closed)
+            out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (closed)
+            return;
+        closed = true;
+        out.close();
+    }
+
+    private void closeQuietly()
+    {
+        try
+        {
+            close();
+        }
+        catch (IOException ignored) {}
+    }
+}
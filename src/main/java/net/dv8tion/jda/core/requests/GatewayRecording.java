@@ -0,0 +1,178 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.requests;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the frames of a recording created by the {@link net.dv8tion.jda.core.requests.GatewayRecorder GatewayRecorder}.
+ * <br>Gzip compressed recordings are detected automatically.
+ */
+public class GatewayRecording implements Closeable
+{
+    //Far above the largest gateway payload, a longer frame means the recording is corrupt.
+    private static final int MAX_FRAME_LENGTH = 128 * 1024 * 1024;
+
+    private final DataInputStream in;
+    private final long startTime;
+
+    /**
+     * Opens the recording at the provided path.
+     *
+     * @param  path
+     *         The recording to read
+     *
+     * @throws IOException
+     *         If the file cannot be read or is not a gateway recording
+     */
+    public GatewayRecording(Path path) throws IOException
+    {
+        InputStream stream = new BufferedInputStream(Files.newInputStream(path), 64 * 1024);
+        stream.mark(2);
+        boolean gzip = stream.read() == 0x1f && stream.read() == 0x8b;
+        stream.reset();
+        if (gzip)
+            stream = new BufferedInputStream(new GZIPInputStream(stream, 64 * 1024), 64 * 1024);
+        this.in = new DataInputStream(stream);
+
+        if (in.readInt() != GatewayRecorder.MAGIC)
+        {
+            in.close();
+            throw new IOException("The provided file is not a gateway recording");
+        }
+        short version = in.readShort();
+        if (version != GatewayRecorder.VERSION)
+        {
+            in.close();
+            throw new IOException("Unsupported gateway recording version " + version);
+        }
+        this.startTime = in.readLong();
+    }
+
+    /**
+     * The time the recording was started at.
+     *
+     * @return Epoch milliseconds of the recording start
+     */
+    public long getStartTime()
+    {
+        return startTime;
+    }
+
+    /**
+     * Reads the next frame of the recording.
+     * <br>A frame that was cut off, for example because the recording JVM was killed, ends the recording.
+     *
+     * @throws IOException
+     *         If reading fails or the frame is corrupt
+     *
+     * @return The next frame, or {@code null} if the end of the recording was reached
+     */
+    public Frame next() throws IOException
+    {
+        try
+        {
+            long sequence = in.readLong();
+            long timestamp = in.readLong();
+            int length = in.readInt();
+            if (length < 0 || length > MAX_FRAME_LENGTH)
+                throw new IOException("Corrupt gateway recording, invalid frame length " + length);
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            return new Frame(sequence, timestamp, new String(payload, StandardCharsets.UTF_8));
+        }
+        catch (EOFException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Reads all remaining frames of the recording into memory.
+     *
+     * @throws IOException
+     *         If reading fails
+     *
+     * @return List of the remaining frames
+     */
+    public List<Frame> readAll() throws IOException
+    {
+        List<Frame> frames = new ArrayList<>();
+        Frame frame;
+        while ((frame = next()) != null)
+            frames.add(frame);
+        return frames;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        in.close();
+    }
+
+    /**
+     * A single recorded frame of the main WebSocket.
+     */
+    public static class Frame
+    {
+        private final long sequence;
+        private final long timestamp;
+        private final String message;
+
+        public Frame(long sequence, long timestamp, String message)
+        {
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+            this.message = message;
+        }
+
+        /**
+         * The position of this frame in the recording, starting at 0.
+         *
+         * @return The sequence number of this frame
+         */
+        public long getSequence()
+        {
+            return sequence;
+        }
+
+        /**
+         * Nanoseconds between the start of the recording and receiving this frame.
+         *
+         * @return The timestamp of this frame
+         */
+        public long getTimestamp()
+        {
+            return timestamp;
+        }
+
+        /**
+         * The raw JSON payload of this frame.
+         *
+         * @return The payload
+         */
+        public String getMessage()
+        {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.requests;
+
+import net.dv8tion.jda.core.AccountType;
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.impl.JDAImpl;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds recorded gateway frames through the event handlers of a JDA instance that has no connection to Discord.
+ * <br>Together with the {@link net.dv8tion.jda.core.requests.GatewayRecorder GatewayRecorder} this allows
+ * reproducing a session offline, for example to debug or benchmark the handlers, the entity cache and the listeners.
+ * <p>
+ * Only dispatch frames (op 0) are handled. Everything sent to the gateway, like member chunk requests, is discarded,
+ * so the recording has to contain the responses. REST requests made by listeners will fail as the instance has no token.
+ *
+ * <p><b>Example</b>
+ * <pre><code>
+ * GatewayReplayer replayer = new GatewayReplayer(AccountType.BOT);
+ * replayer.getJDA().addEventListener(new MyListener());
+ * try (GatewayRecording recording = new GatewayRecording(Paths.get("session.jdar.gz")))
+ * {
+ *     replayer.replay(recording, false);
+ * }
+ * </code></pre>
+ */
+public class GatewayReplayer
+{
+    private static final long NO_OFFSET = Long.MIN_VALUE;
+
+    private final JDAImpl api;
+    private final ReplayClient client;
+
+    /**
+     * Creates a replayer with a new JDA instance.
+     *
+     * @param  accountType
+     *         The {@link net.dv8tion.jda.core.AccountType AccountType} of the recorded session
+     */
+    public GatewayReplayer(AccountType accountType)
+    {
+        this(new JDAImpl(accountType, null, false, false, false, false));
+    }
+
+    /**
+     * Creates a replayer for the provided JDA instance, which must not be logged in.
+     *
+     * @param  api
+     *         The JDA instance the frames are replayed to
+     */
+    public GatewayReplayer(JDAImpl api)
+    {
+        this.api = api;
+        this.client = new ReplayClient(api);
+        api.setClient(client);
+        api.setStatus(JDA.Status.LOADING_SUBSYSTEMS);
+    }
+
+    /**
+     * The JDA instance the frames are replayed to. Register listeners here before replaying.
+     *
+     * @return The JDA instance
+     */
+    public JDAImpl getJDA()
+    {
+        return api;
+    }
+
+    /**
+     * Replays all remaining frames of the recording.
+     *
+     * @param  recording
+     *         The recording to replay
+     * @param  realTime
+     *         Whether the original timing between the frames should be kept. If false the frames are replayed as fast as possible.
+     *
+     * @throws IOException
+     *         If reading the recording fails
+     * @throws InterruptedException
+     *         If interrupted while waiting for the next frame
+     *
+     * @return The amount of replayed frames
+     */
+    public long replay(GatewayRecording recording, boolean realTime) throws IOException, InterruptedException
+    {
+        long count = 0;
+        long offset = NO_OFFSET;
+        GatewayRecording.Frame frame;
+        while ((frame = recording.next()) != null)
+        {
+            if (realTime)
+                offset = await(frame, offset);
+            replay(frame);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Replays the provided frames in order.
+     *
+     * @param  frames
+     *         The frames to replay, for example from {@link GatewayRecording#readAll()}
+     * @param  realTime
+     *         Whether the original timing between the frames should be kept. If false the frames are replayed as fast as possible.
+     *
+     * @throws InterruptedException
+     *         If interrupted while waiting for the next frame
+     */
+    public void replay(List<GatewayRecording.Frame> frames, boolean realTime) throws InterruptedException
+    {
+        long offset = NO_OFFSET;
+        for (GatewayRecording.Frame frame : frames)
+        {
+            if (realTime)
+                offset = await(frame, offset);
+            replay(frame);
+        }
+    }
+
+    /**
+     * Replays a single frame.
+     *
+     * @param  frame
+     *         The frame to replay
+     */
+    public void replay(GatewayRecording.Frame frame)
+    {
+        replay(frame.getMessage());
+    }
+
+    /**
+     * Replays a single raw gateway payload.
+     *
+     * @param  message
+     *         The raw JSON payload, as received by a {@link net.dv8tion.jda.core.requests.RawGatewayListener RawGatewayListener}
+     */
+    public void replay(String message)
+    {
+        JSONObject content = new JSONObject(message);
+        if (content.has("s") && !content.isNull("s"))
+            api.setResponseTotal(content.getInt("s"));
+        if (content.getInt("op") == 0)
+            client.handleEvent(content);
+    }
+
+    // Waits until the frame is due and returns the difference between System.nanoTime() and the recording timestamps
+    private static long await(GatewayRecording.Frame frame, long offset) throws InterruptedException
+    {
+        long now = System.nanoTime();
+        if (offset == NO_OFFSET)
+            return now - frame.getTimestamp();
+        long delay = frame.getTimestamp() + offset - now;
+        if (delay > 0)
+            TimeUnit.NANOSECONDS.sleep(delay);
+        return offset;
+    }
+
+    private static class ReplayClient extends WebSocketClient
+    {
+        ReplayClient(JDAImpl api)
+        {
+            super(api, false);
+            initiating = true;
+        }
+
+        @Override
+        public void send(String message) {}
+
+        @Override
+        public void close() {}
+    }
+}
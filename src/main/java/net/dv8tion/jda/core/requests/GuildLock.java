@@ -20,72 +20,286 @@ import net.dv8tion.jda.core.entities.impl.JDAImpl;
 import net.dv8tion.jda.core.utils.SimpleLog;
 import org.json.JSONObject;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Queues events for guilds that are still being set up and replays them once the guild is unlocked.
+ *
+ * <p>Queued events expire after {@link #getTimeToLive(TimeUnit) a time-to-live} and the total amount of queued
+ * events is capped by {@link #getMaxSize()}, so a guild whose setup never finishes can not grow the queue without limit.
+ * All methods are safe to call from any thread.
+ */
 public class GuildLock
 {
     public static SimpleLog LOG = SimpleLog.getLog("JDAGuildLock");
-    private static Map<JDA, GuildLock> locks = new HashMap<>();
+    public static final long DEFAULT_TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(5);
+    public static final int DEFAULT_MAX_SIZE = 50000;
+    //While full, expired events are purged at most this often. Events arriving in between are dropped right away.
+    private static final long FULL_PURGE_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private static final ConcurrentMap<JDA, GuildLock> locks = new ConcurrentHashMap<>();
 
-    public static synchronized GuildLock get(JDA jda)
+    public static GuildLock get(JDA jda)
     {
-        if (!locks.containsKey(jda))
-        {
-            locks.put(jda, new GuildLock(jda));
-        }
-        return locks.get(jda);
+        return locks.computeIfAbsent(jda, GuildLock::new);
+    }
+
+    /**
+     * Drops the GuildLock of the given JDA instance, including all events it still queues.
+     * <br>Called when the instance shuts down so it does not stay reachable through this class.
+     *
+     * @param  jda
+     *         The JDA instance whose locks should be released
+     */
+    public static void remove(JDA jda)
+    {
+        GuildLock lock = locks.remove(jda);
+        if (lock != null)
+            lock.clear();
     }
 
     private final JDA api;
-    private final Map<String, List<JSONObject>> cache = new HashMap<>();
-    private final Set<String> cached = new HashSet<>();
+    private final ConcurrentMap<String, List<QueuedEvent>> cache = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long timeToLive = TimeUnit.MILLISECONDS.toNanos(DEFAULT_TIME_TO_LIVE);
+    private volatile int maxSize = DEFAULT_MAX_SIZE;
+    private volatile long nextPurge = System.nanoTime() + timeToLive;
+    private volatile long nextFullPurge = System.nanoTime();
+
+    private GuildLock(JDA api)
+    {
+        this.api = api;
+    }
 
     public boolean isLocked(String guildId)
     {
-        return cached.contains(guildId);
+        return cache.containsKey(guildId);
     }
 
     public void lock(String guildId)
     {
-        if (!isLocked(guildId))
+        cache.putIfAbsent(guildId, new ArrayList<>());
+    }
+
+    public void unlock(String guildId)
+    {
+        List<QueuedEvent> queued = cache.remove(guildId);
+        if (queued == null || queued.isEmpty())
+            return;
+
+        size.addAndGet(-queued.size());
+        long deadline = System.nanoTime() - timeToLive;
+        List<JSONObject> events = new ArrayList<>(queued.size());
+        for (QueuedEvent event : queued)
         {
-            cached.add(guildId);
-            cache.put(guildId, new LinkedList<>());
+            if (event.queuedAt - deadline > 0)
+                events.add(event.event);
+        }
+        int stale = queued.size() - events.size();
+        if (stale > 0)
+        {
+            expired.addAndGet(stale);
+            LOG.warn("Discarded " + stale + " expired events for unlocked guild with id " + guildId);
+        }
+
+        if (!events.isEmpty())
+        {
+            LOG.debug("Replaying " + events.size() + " events for unlocked guild with id " + guildId);
+            ((JDAImpl) api).getClient().handle(events);
+            LOG.debug("Finished replaying events for guild with id " + guildId);
         }
     }
 
-    public void unlock(String guildId)
+    public void queue(String guildId, JSONObject event)
     {
-        if (isLocked(guildId))
+        long now = System.nanoTime();
+        if (now - nextPurge >= 0 || (size.get() >= maxSize && now - nextFullPurge >= 0))
+            purge(now);
+
+        if (size.get() >= maxSize)
         {
-            cached.remove(guildId);
-            List<JSONObject> events = cache.remove(guildId);
-            if(events.size() > 0)
+            if (isLocked(guildId))
             {
-                LOG.debug("Replaying " + events.size() + " events for unlocked guild with id " + guildId);
-                ((JDAImpl) api).getClient().handle(events);
-                LOG.debug("Finished replaying events for guild with id " + guildId);
+                dropped.incrementAndGet();
+                LOG.warn("GuildLock queue is full (" + maxSize + " events), dropping event for guild with id " + guildId);
             }
+            return;
+        }
+
+        List<QueuedEvent> queued = cache.computeIfPresent(guildId, (id, events) ->
+        {
+            events.add(new QueuedEvent(event, now));
+            return events;
+        });
+        if (queued != null)
+        {
+            size.incrementAndGet();
+            LOG.debug("Queueing up event for guild with id " + guildId + ": " + event.toString());
         }
     }
 
-    public void queue(String guildId, JSONObject event)
+    /**
+     * Removes all events that have been queued for longer than the {@link #getTimeToLive(TimeUnit) time-to-live}.
+     * <br>The guilds themselves stay locked.
+     * This happens automatically while new events are queued, calling it manually is only needed
+     * to release memory while no further events arrive.
+     *
+     * @return The amount of events that were removed
+     */
+    public int purgeExpired()
+    {
+        return purge(System.nanoTime());
+    }
+
+    private int purge(long now)
     {
-        if (isLocked(guildId))
+        nextPurge = now + timeToLive;
+        nextFullPurge = now + FULL_PURGE_INTERVAL;
+        long deadline = now - timeToLive;
+        AtomicInteger removed = new AtomicInteger();
+        for (String guildId : cache.keySet())
         {
-            LOG.debug("Queueing up event for guild with id " + guildId + ": " + event.toString());
-            cache.get(guildId).add(event);
+            cache.computeIfPresent(guildId, (id, events) ->
+            {
+                for (Iterator<QueuedEvent> it = events.iterator(); it.hasNext(); )
+                {
+                    if (it.next().queuedAt - deadline <= 0)
+                    {
+                        it.remove();
+                        removed.incrementAndGet();
+                    }
+                }
+                return events;
+            });
         }
+        int count = removed.get();
+        if (count > 0)
+        {
+            size.addAndGet(-count);
+            expired.addAndGet(count);
+            LOG.warn("Purged " + count + " expired events queued for locked guilds");
+        }
+        return count;
+    }
+
+    /**
+     * The amount of events currently queued for all locked guilds.
+     *
+     * @return The current size
+     */
+    public int size()
+    {
+        return size.get();
+    }
+
+    /**
+     * The amount of guilds that are currently locked.
+     *
+     * @return The amount of locked guilds
+     */
+    public int getLockedGuildCount()
+    {
+        return cache.size();
+    }
+
+    /**
+     * The total amount of events that were discarded because they outlived the time-to-live.
+     *
+     * @return The amount of expired events
+     */
+    public long getExpiredCount()
+    {
+        return expired.get();
+    }
+
+    /**
+     * The total amount of events that were not queued because the queue was at its {@link #getMaxSize() max size}.
+     *
+     * @return The amount of dropped events
+     */
+    public long getDroppedCount()
+    {
+        return dropped.get();
+    }
+
+    public long getTimeToLive(TimeUnit unit)
+    {
+        return unit.convert(timeToLive, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets how long an event may stay queued for a locked guild before it is discarded.
+     * <br>Default: {@value #DEFAULT_TIME_TO_LIVE} milliseconds
+     *
+     * @param  timeToLive
+     *         The time-to-live, must be positive
+     * @param  unit
+     *         The unit of the time-to-live
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the time-to-live is not positive or the unit is null
+     */
+    public void setTimeToLive(long timeToLive, TimeUnit unit)
+    {
+        if (timeToLive <= 0)
+            throw new IllegalArgumentException("Time-to-live must be positive");
+        if (unit == null)
+            throw new IllegalArgumentException("Unit may not be null");
+        this.timeToLive = unit.toNanos(timeToLive);
+        this.nextPurge = System.nanoTime();
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum amount of events queued for all locked guilds combined.
+     * <br>Once reached, expired events are purged and if that does not free any room new events are dropped.
+     * <br>Default: {@value #DEFAULT_MAX_SIZE}
+     *
+     * @param  maxSize
+     *         The maximum size, must be positive
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the size is not positive
+     */
+    public void setMaxSize(int maxSize)
+    {
+        if (maxSize <= 0)
+            throw new IllegalArgumentException("Max size must be positive");
+        this.maxSize = maxSize;
     }
 
     public void clear()
     {
-        cache.clear();
-        cached.clear();
+        for (String guildId : cache.keySet())
+        {
+            List<QueuedEvent> events = cache.remove(guildId);
+            if (events != null)
+                size.addAndGet(-events.size());
+        }
     }
 
-    private GuildLock(JDA api)
+    private static final class QueuedEvent
     {
-        this.api = api;
+        private final JSONObject event;
+        private final long queuedAt;
+
+        private QueuedEvent(JSONObject event, long queuedAt)
+        {
+            this.event = event;
+            this.queuedAt = queuedAt;
+        }
     }
 }
@@ -24,7 +24,9 @@ import net.dv8tion.jda.core.requests.ratelimit.IBucket;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -76,6 +78,29 @@ public abstract class RateLimiter
         }
     }
 
+    /**
+     * Removes and fails all requests of the provided queue that were cancelled or will have passed their deadline
+     * at the provided point in time. Used when a bucket hits its ratelimit to fail requests early that could not
+     * be executed in time anyways.
+     *
+     * @param requests
+     *          The queue of a bucket.
+     * @param time
+     *          The point in time at which the bucket can be used again, in milliseconds.
+     */
+    protected void dropStaleRequests(Queue<Request<?>> requests, long time)
+    {
+        for (Iterator<Request<?>> it = requests.iterator(); it.hasNext(); )
+        {
+            Request<?> request = it.next();
+            if (request.isStale(time))
+            {
+                it.remove();
+                request.onStale();
+            }
+        }
+    }
+
     protected void shutdown()
     {
         isShutdown = true;
@@ -0,0 +1,38 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package net.dv8tion.jda.core.requests;
+
+/**
+ * Receives every text frame of the main WebSocket exactly as it was received from Discord,
+ * after decompression and before JDA processes it.<br>
+ * Use {@link net.dv8tion.jda.core.requests.GatewayRecorder GatewayRecorder} to record the frames to a file that can be
+ * replayed with the {@link net.dv8tion.jda.core.requests.GatewayReplayer GatewayReplayer}.
+ * <p>
+ * This is called on the WebSocket thread. Implementations should return quickly, as every following event waits for them.
+ *
+ * @see net.dv8tion.jda.core.JDABuilder#setRawGatewayListener(RawGatewayListener)
+ */
+@FunctionalInterface
+public interface RawGatewayListener
+{
+    /**
+     * Called for every text frame received on the main WebSocket.
+     *
+     * @param message
+     *          The raw JSON payload of the frame.
+     */
+    void onRawMessage(String message);
+}
@@ -19,21 +19,51 @@ package net.dv8tion.jda.core.requests;
 import net.dv8tion.jda.core.exceptions.ErrorResponseException;
 import net.dv8tion.jda.core.exceptions.RateLimitedException;
 
+import java.util.Comparator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 public class Request<T>
 {
+    /**
+     * Orders requests by descending {@link RequestPriority} and, within the same priority, by the order they were created in.
+     */
+    public static final Comparator<Request<?>> PRIORITY_ORDER = (r1, r2) ->
+    {
+        int cmp = r2.priority.compareTo(r1.priority);
+        return cmp != 0 ? cmp : Long.compare(r1.sequence, r2.sequence);
+    };
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
     private final RestAction<T> restAction;
     private final Consumer<T> onSuccess;
     private final Consumer<Throwable> onFailure;
     private final boolean shouldQueue;
+    private final RequestPriority priority;
+    private final long deadline;
+    private final long sequence;
+    private final long creationTime;
+    private volatile boolean cancelled = false;
 
     Request(RestAction<T> restAction, Consumer<T> onSuccess, Consumer<Throwable> onFailure, boolean shouldQueue)
+    {
+        this(restAction, onSuccess, onFailure, shouldQueue, RequestPriority.NORMAL, 0);
+    }
+
+    Request(RestAction<T> restAction, Consumer<T> onSuccess, Consumer<Throwable> onFailure, boolean shouldQueue,
+            RequestPriority priority, long deadline)
     {
         this.restAction = restAction;
         this.onSuccess = onSuccess;
         this.onFailure = onFailure;
         this.shouldQueue = shouldQueue;
+        this.priority = priority;
+        this.deadline = deadline;
+        this.sequence = SEQUENCE.getAndIncrement();
+        this.creationTime = System.nanoTime();
     }
 
     public void onSuccess(T successObj)
@@ -104,4 +134,81 @@ public class Request<T>
     {
         return shouldQueue;
     }
+
+    /**
+     * The point in time this request was created at, as provided by {@link System#nanoTime()}.
+     *
+     * @return
+     *      The creation time of this request in nanoseconds.
+     */
+    public long getCreationTime()
+    {
+        return creationTime;
+    }
+
+    public RequestPriority getPriority()
+    {
+        return priority;
+    }
+
+    /**
+     * The point in time (as provided by {@link System#currentTimeMillis()}) after which this request fails
+     * instead of being executed. 0 if this request has no deadline.
+     *
+     * @return
+     *      The deadline of this request in milliseconds, or 0.
+     */
+    public long getDeadline()
+    {
+        return deadline;
+    }
+
+    /**
+     * Whether this request would be past its deadline at the provided point in time.
+     *
+     * @param time
+     *          The point in time to check, in milliseconds as provided by {@link System#currentTimeMillis()}.
+     * @return
+     *      True, if this request has a deadline that lies before the provided time.
+     */
+    public boolean isExpired(long time)
+    {
+        return deadline > 0 && time > deadline;
+    }
+
+    /**
+     * Cancels this request. A cancelled request is dropped before it is sent to Discord and its failure consumer
+     * receives a {@link java.util.concurrent.CancellationException CancellationException}.<br>
+     * Cancelling a request that was already sent has no effect.
+     */
+    public void cancel()
+    {
+        cancelled = true;
+    }
+
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    /**
+     * Whether this request should be dropped instead of being executed at the provided point in time.
+     *
+     * @param time
+     *          The point in time to check, in milliseconds as provided by {@link System#currentTimeMillis()}.
+     * @return
+     *      True, if this request was cancelled or would be past its deadline.
+     */
+    public boolean isStale(long time)
+    {
+        return cancelled || isExpired(time);
+    }
+
+    void onStale()
+    {
+        if (cancelled)
+            onFailure(new CancellationException("The request was cancelled before it was executed"));
+        else
+            onFailure(new TimeoutException("The request could not be executed before its deadline"));
+    }
 }
@@ -0,0 +1,246 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.dv8tion.jda.core.requests;
+
+import net.dv8tion.jda.core.requests.Route.CompiledRoute;
+import net.dv8tion.jda.core.utils.Histogram;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory {@link net.dv8tion.jda.core.requests.RequestMetricsListener RequestMetricsListener} which aggregates
+ * request metrics into counters and {@link net.dv8tion.jda.core.utils.Histogram Histograms}.
+ * <p>
+ * Metrics are kept per {@link net.dv8tion.jda.core.requests.Route Route}, so all requests to the same endpoint
+ * share their latency and queue wait histograms independent of their parameters.
+ * Recording does not lock and does not allocate once a route has been seen, except for bucket updates,
+ * which replace the immutable {@link net.dv8tion.jda.core.requests.RequestMetrics.BucketState BucketState} of the bucket.
+ */
+public class RequestMetrics implements RequestMetricsListener
+{
+    protected final ConcurrentHashMap<Route, RouteMetrics> routes = new ConcurrentHashMap<>();
+    protected final ConcurrentHashMap<String, BucketState> buckets = new ConcurrentHashMap<>();
+    protected final AtomicInteger inFlight = new AtomicInteger();
+    protected final LongAdder globalRateLimits = new LongAdder();
+    protected final LongAdder bucketRateLimits = new LongAdder();
+    protected final LongAdder cloudflareRetries = new LongAdder();
+
+    @Override
+    public void onRequestSent(CompiledRoute route, long queueWaitNanos)
+    {
+        inFlight.incrementAndGet();
+        getRouteMetrics(route.getBaseRoute()).queueWait.record(queueWaitNanos);
+    }
+
+    @Override
+    public void onResponse(CompiledRoute route, int code, long latencyNanos)
+    {
+        inFlight.decrementAndGet();
+        RouteMetrics metrics = getRouteMetrics(route.getBaseRoute());
+        metrics.latency.record(latencyNanos);
+        if (code < 200 || code >= 300)
+            metrics.failures.increment();
+    }
+
+    @Override
+    public void onRequestError(CompiledRoute route, Throwable error, long latencyNanos)
+    {
+        inFlight.decrementAndGet();
+        RouteMetrics metrics = getRouteMetrics(route.getBaseRoute());
+        metrics.latency.record(latencyNanos);
+        metrics.failures.increment();
+    }
+
+    @Override
+    public void onCloudflareRetry(CompiledRoute route, int attempt)
+    {
+        cloudflareRetries.increment();
+        getRouteMetrics(route.getBaseRoute()).cloudflareRetries.increment();
+    }
+
+    @Override
+    public void onRateLimited(CompiledRoute route, boolean global, long retryAfter)
+    {
+        if (global)
+            globalRateLimits.increment();
+        else
+            bucketRateLimits.increment();
+        getRouteMetrics(route.getBaseRoute()).rateLimits.increment();
+    }
+
+    @Override
+    public void onBucketUpdate(String bucketRoute, int limit, int remaining, long resetTime)
+    {
+        buckets.put(bucketRoute, new BucketState(limit, remaining, resetTime));
+    }
+
+    /**
+     * The metrics recorded for the provided route.
+     *
+     * @param route
+     *          The route to get the metrics for.
+     * @return
+     *      The {@link net.dv8tion.jda.core.requests.RequestMetrics.RouteMetrics RouteMetrics} of the route.
+     *      Empty metrics are created if no request was made to this route yet.
+     */
+    public RouteMetrics getRouteMetrics(Route route)
+    {
+        RouteMetrics metrics = routes.get(route);
+        if (metrics == null)
+            metrics = routes.computeIfAbsent(route, r -> new RouteMetrics());
+        return metrics;
+    }
+
+    public Map<Route, RouteMetrics> getAllRouteMetrics()
+    {
+        return Collections.unmodifiableMap(new HashMap<>(routes));
+    }
+
+    /**
+     * The last known ratelimit state of every bucket, keyed by the ratelimit route of the bucket.
+     * Only available when logged in as a {@link net.dv8tion.jda.core.AccountType#BOT BOT}.
+     *
+     * @return
+     *      An unmodifiable copy of the bucket states.
+     */
+    public Map<String, BucketState> getBucketStates()
+    {
+        return Collections.unmodifiableMap(new HashMap<>(buckets));
+    }
+
+    public int getInFlightCount()
+    {
+        return inFlight.get();
+    }
+
+    public long getGlobalRateLimitCount()
+    {
+        return globalRateLimits.sum();
+    }
+
+    public long getBucketRateLimitCount()
+    {
+        return bucketRateLimits.sum();
+    }
+
+    public long getCloudflareRetryCount()
+    {
+        return cloudflareRetries.sum();
+    }
+
+    /**
+     * Resets all counters and histograms. The in-flight count and bucket states are kept, as they represent the current state.
+     */
+    public void reset()
+    {
+        routes.clear();
+        globalRateLimits.reset();
+        bucketRateLimits.reset();
+        cloudflareRetries.reset();
+    }
+
+    public static class RouteMetrics
+    {
+        protected final Histogram latency = new Histogram();
+        protected final Histogram queueWait = new Histogram();
+        protected final LongAdder failures = new LongAdder();
+        protected final LongAdder rateLimits = new LongAdder();
+        protected final LongAdder cloudflareRetries = new LongAdder();
+
+        /**
+         * Histogram of the time requests to this route took to be answered, in nanoseconds.
+         *
+         * @return
+         *      The latency histogram.
+         */
+        public Histogram getLatency()
+        {
+            return latency;
+        }
+
+        /**
+         * Histogram of the time requests to this route spent waiting in queue before they were sent, in nanoseconds.
+         *
+         * @return
+         *      The queue wait histogram.
+         */
+        public Histogram getQueueWait()
+        {
+            return queueWait;
+        }
+
+        public long getRequestCount()
+        {
+            return latency.getCount();
+        }
+
+        public long getFailureCount()
+        {
+            return failures.sum();
+        }
+
+        public long getRateLimitCount()
+        {
+            return rateLimits.sum();
+        }
+
+        public long getCloudflareRetryCount()
+        {
+            return cloudflareRetries.sum();
+        }
+    }
+
+    public static class BucketState
+    {
+        protected final int limit;
+        protected final int remaining;
+        protected final long resetTime;
+
+        public BucketState(int limit, int remaining, long resetTime)
+        {
+            this.limit = limit;
+            this.remaining = remaining;
+            this.resetTime = resetTime;
+        }
+
+        public int getLimit()
+        {
+            return limit;
+        }
+
+        public int getRemaining()
+        {
+            return remaining;
+        }
+
+        public long getResetTime()
+        {
+            return resetTime;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "BucketState(" + remaining + "/" + limit + ", reset: " + resetTime + ")";
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.dv8tion.jda.core.requests;
+
+import net.dv8tion.jda.core.requests.Route.CompiledRoute;
+
+/**
+ * Receives timing and ratelimit information from the {@link net.dv8tion.jda.core.requests.Requester Requester}
+ * and its {@link net.dv8tion.jda.core.requests.RateLimiter RateLimiter}.<br>
+ * Implementations can forward these to any metrics backend. A low-overhead in-memory implementation is provided by
+ * {@link net.dv8tion.jda.core.requests.RequestMetrics RequestMetrics}.
+ * <p>
+ * All methods are called on the requesting threads and should return quickly. Every method has an empty
+ * default implementation so only the relevant callbacks need to be implemented.
+ *
+ * @see net.dv8tion.jda.core.JDABuilder#setRequestMetricsListener(RequestMetricsListener)
+ */
+public interface RequestMetricsListener
+{
+    /**
+     * Called right before a request is sent to Discord.
+     *
+     * @param route
+     *          The route of the request.
+     * @param queueWaitNanos
+     *          The time in nanoseconds that passed between the creation of the request and it being sent.
+     */
+    default void onRequestSent(CompiledRoute route, long queueWaitNanos) {}
+
+    /**
+     * Called once Discord responded to a request.
+     *
+     * @param route
+     *          The route of the request.
+     * @param code
+     *          The HTTP status code of the response.
+     * @param latencyNanos
+     *          The time in nanoseconds the request took, including retries due to Cloudflare errors.
+     */
+    default void onResponse(CompiledRoute route, int code, long latencyNanos) {}
+
+    /**
+     * Called if a request could not be completed due to an exception on the HTTP layer.
+     *
+     * @param route
+     *          The route of the request.
+     * @param error
+     *          The exception that was thrown.
+     * @param latencyNanos
+     *          The time in nanoseconds until the request failed.
+     */
+    default void onRequestError(CompiledRoute route, Throwable error, long latencyNanos) {}
+
+    /**
+     * Called when Discord responded with a Cloudflare HTML page and the request is retried.
+     *
+     * @param route
+     *          The route of the request.
+     * @param attempt
+     *          The number of the attempt that failed, starting at 1.
+     */
+    default void onCloudflareRetry(CompiledRoute route, int attempt) {}
+
+    /**
+     * Called when Discord responded with a 429.
+     *
+     * @param route
+     *          The route of the request.
+     * @param global
+     *          Whether this is a global ratelimit or a ratelimit of the route's bucket.
+     * @param retryAfter
+     *          The time in milliseconds until requests can be made again.
+     */
+    default void onRateLimited(CompiledRoute route, boolean global, long retryAfter) {}
+
+    /**
+     * Called when the ratelimit information of a bucket was updated from response headers.
+     *
+     * @param bucketRoute
+     *          The ratelimit route identifying the bucket.
+     * @param limit
+     *          The amount of requests allowed per reset period.
+     * @param remaining
+     *          The amount of requests remaining until the reset.
+     * @param resetTime
+     *          The time in epoch milliseconds at which the bucket resets.
+     */
+    default void onBucketUpdate(String bucketRoute, int limit, int remaining, long resetTime) {}
+}
@@ -0,0 +1,30 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.dv8tion.jda.core.requests;
+
+/**
+ * Priority of a queued {@link net.dv8tion.jda.core.requests.RestAction RestAction}.<br>
+ * Requests of a higher priority are executed before requests of a lower priority that were queued on the
+ * same ratelimit bucket. Requests of equal priority keep their queue order.
+ */
+public enum RequestPriority
+{
+    LOW,
+    NORMAL,
+    HIGH,
+    URGENT
+}
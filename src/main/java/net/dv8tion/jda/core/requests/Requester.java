@@ -94,6 +94,13 @@ public class Requester
      */
     public Long execute(Request apiRequest)
     {
+        //Drop requests that were cancelled or passed their deadline while waiting in queue before they use up ratelimit budget.
+        if (apiRequest.isStale(System.currentTimeMillis()))
+        {
+            apiRequest.onStale();
+            return null;
+        }
+
         CompiledRoute route = apiRequest.getRoute();
         Long retryAfter = rateLimiter.getRateLimit(route);
         if (retryAfter != null)
@@ -115,6 +122,9 @@ public class Requester
             request = createRequest(route, bodyData);
         }
 
+        RequestMetricsListener metrics = getMetricsListener();
+        long startTime = System.nanoTime();
+        metrics.onRequestSent(route, startTime - apiRequest.getCreationTime());
         try
         {
             HttpResponse<String> response = request.asString();
@@ -125,6 +135,7 @@ public class Requester
                         request.getHttpRequest().getHttpMethod().name(),
                         request.getHttpRequest().getUrl(),
                         attempt));
+                metrics.onCloudflareRetry(route, attempt);
                 try
                 {
                     Thread.sleep(50 * attempt);
@@ -135,6 +146,7 @@ public class Requester
                 response = request.asString();
                 attempt++;
             }
+            metrics.onResponse(route, response.getStatus(), System.nanoTime() - startTime);
             if (response.getBody() != null && response.getBody().startsWith("<"))
             {
                 //Epic failure due to cloudfare. Attempted 4 times.
@@ -149,12 +161,18 @@ public class Requester
         }
         catch (UnirestException e)
         {
+            metrics.onRequestError(route, e, System.nanoTime() - startTime);
             LOG.log(e); //This originally only printed on DEBUG in 2.x
             apiRequest.getRestAction().handleResponse(new Response(e), apiRequest);
             return null;
         }
     }
 
+    public RequestMetricsListener getMetricsListener()
+    {
+        return api.getRequestMetricsListener();
+    }
+
     public RateLimiter getRateLimiter()
     {
         return rateLimiter;
@@ -23,8 +23,14 @@ import net.dv8tion.jda.core.exceptions.PermissionException;
 import net.dv8tion.jda.core.exceptions.RateLimitedException;
 import net.dv8tion.jda.core.utils.SimpleLog;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.*;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 public abstract class RestAction<T>
 {
@@ -46,6 +52,8 @@ public abstract class RestAction<T>
     protected final JDAImpl api;
     protected final Route.CompiledRoute route;
     protected final Object data;
+    protected RequestPriority priority = RequestPriority.NORMAL;
+    protected long timeout = 0;
 
     public RestAction(JDA api, Route.CompiledRoute route, Object data)
     {
@@ -54,36 +62,202 @@ public abstract class RestAction<T>
         this.data = data != null ? data : "";
     }
 
-    public void queue()
+    /**
+     * Sets the {@link net.dv8tion.jda.core.requests.RequestPriority RequestPriority} used for requests created from this
+     * RestAction. Requests with a higher priority are executed before already queued requests of a lower priority
+     * on the same ratelimit bucket.
+     * <p>
+     * Default: {@link net.dv8tion.jda.core.requests.RequestPriority#NORMAL NORMAL}
+     *
+     * @param priority
+     *          The priority to use.
+     * @return
+     *      This RestAction instance. Useful for chaining.
+     */
+    public RestAction<T> setPriority(RequestPriority priority)
     {
-        queue(null, null);
+        if (priority == null)
+            throw new NullPointerException("Provided RequestPriority was null!");
+        this.priority = priority;
+        return this;
     }
 
-    public void queue(Consumer<T> success)
+    /**
+     * Sets a deadline for requests created from this RestAction, relative to the moment they are queued.<br>
+     * If a request could not be sent to Discord before its deadline passed, it fails with a
+     * {@link java.util.concurrent.TimeoutException TimeoutException} instead of using up ratelimit budget.
+     * <p>
+     * Default: <b>0 (no deadline)</b>
+     *
+     * @param timeout
+     *          The timeout, 0 to disable.
+     * @param unit
+     *          The unit of the timeout.
+     * @return
+     *      This RestAction instance. Useful for chaining.
+     */
+    public RestAction<T> setTimeout(long timeout, TimeUnit unit)
     {
-        queue(success, null);
+        if (timeout < 0)
+            throw new IllegalArgumentException("Provided timeout must not be negative!");
+        this.timeout = unit.toMillis(timeout);
+        return this;
     }
 
-    public void queue(Consumer<T> success, Consumer<Throwable> failure)
+    public Request<T> queue()
+    {
+        return queue(null, null);
+    }
+
+    public Request<T> queue(Consumer<T> success)
+    {
+        return queue(success, null);
+    }
+
+    /**
+     * Queues this RestAction on the ratelimit queue.
+     *
+     * @param success
+     *          The consumer that is called with the result of this RestAction, may be null.
+     * @param failure
+     *          The consumer that is called if this RestAction failed, may be null.
+     * @return
+     *      The queued {@link net.dv8tion.jda.core.requests.Request Request}, which can be used to
+     *      {@link net.dv8tion.jda.core.requests.Request#cancel() cancel} it before it was sent.
+     */
+    public Request<T> queue(Consumer<T> success, Consumer<Throwable> failure)
     {
         if (success == null)
             success = DEFAULT_SUCCESS;
         if (failure == null)
             failure = DEFAULT_FAILURE;
-        api.getRequester().request(new Request<T>(this, success, failure, true));
+        Request<T> request = createRequest(success, failure, true);
+        api.getRequester().request(request);
+        return request;
     }
 
+    protected Request<T> createRequest(Consumer<T> success, Consumer<Throwable> failure, boolean shouldQueue)
+    {
+        long deadline = timeout > 0 ? System.currentTimeMillis() + timeout : 0;
+        return new Request<T>(this, success, failure, shouldQueue, priority, deadline);
+    }
 
-    public T block() throws RateLimitedException
+
+    /**
+     * Submits this RestAction to the Requester and returns a {@link java.util.concurrent.CompletableFuture CompletableFuture}
+     * that is completed once the request finished. Unlike {@link #block()} this does not park the calling thread;
+     * the request is queued on the ratelimit queue just like {@link #queue()}.<br>
+     * Cancelling the returned future cancels the underlying request if it was not sent yet.
+     *
+     * @return
+     *      A CompletableFuture representing the result of this RestAction.
+     */
+    public CompletableFuture<T> submit()
+    {
+        return submit(true);
+    }
+
+    /**
+     * Submits this RestAction to the Requester and returns a {@link java.util.concurrent.CompletableFuture CompletableFuture}
+     * that is completed once the request finished.
+     *
+     * @param shouldQueue
+     *          Whether the request should be queued on the ratelimit queue. If false, the request is executed directly on
+     *          the calling thread and the returned future fails with a
+     *          {@link net.dv8tion.jda.core.exceptions.RateLimitedException RateLimitedException} when it is ratelimited.
+     * @return
+     *      A CompletableFuture representing the result of this RestAction.
+     */
+    public CompletableFuture<T> submit(boolean shouldQueue)
     {
         CompletableFuture<T> future = new CompletableFuture<T>();
-        api.getRequester().request(new Request<T>(this,
-                successReturn -> future.complete(successReturn),
-                failThrowable -> future.completeExceptionally(failThrowable),
-                false));
+        Request<T> request = createRequest(future::complete, future::completeExceptionally, shouldQueue);
+        future.whenComplete((result, error) ->
+        {
+            if (future.isCancelled())
+                request.cancel();
+        });
+        api.getRequester().request(request);
+        return future;
+    }
+
+    /**
+     * Submits this RestAction and, once it succeeded, submits the RestAction produced by the provided mapper.<br>
+     * This allows chaining of dependent requests without nesting callbacks or blocking a thread.
+     *
+     * @param mapper
+     *          Function providing the next RestAction based on the result of this one.
+     * @param <U>
+     *          The result type of the mapped RestAction.
+     * @return
+     *      A CompletableFuture representing the result of the mapped RestAction.
+     */
+    public <U> CompletableFuture<U> flatMap(Function<? super T, ? extends RestAction<U>> mapper)
+    {
+        if (mapper == null)
+            throw new NullPointerException("Provided mapper was null!");
+        return submit().thenCompose(result -> mapper.apply(result).submit());
+    }
+
+    /**
+     * Submits this RestAction together with the provided RestAction and combines both results once they completed.<br>
+     * Both requests are submitted immediately and run independently of each other.
+     *
+     * @param other
+     *          The RestAction to run alongside this one.
+     * @param combiner
+     *          Function used to combine both results.
+     * @param <U>
+     *          The result type of the other RestAction.
+     * @param <R>
+     *          The combined result type.
+     * @return
+     *      A CompletableFuture representing the combined result.
+     */
+    public <U, R> CompletableFuture<R> zip(RestAction<U> other, BiFunction<? super T, ? super U, ? extends R> combiner)
+    {
+        if (other == null)
+            throw new NullPointerException("Provided RestAction was null!");
+        if (combiner == null)
+            throw new NullPointerException("Provided combiner was null!");
+        return submit().thenCombine(other.submit(), combiner);
+    }
+
+    /**
+     * Submits all provided RestActions and returns a {@link java.util.concurrent.CompletableFuture CompletableFuture}
+     * that is completed with all results, in the order of the provided collection, once every RestAction succeeded.<br>
+     * If any of the RestActions fails the returned future fails with that cause.
+     *
+     * @param actions
+     *          The RestActions to submit.
+     * @param <T>
+     *          The common result type.
+     * @return
+     *      A CompletableFuture representing the results of all provided RestActions.
+     */
+    public static <T> CompletableFuture<List<T>> allOf(Collection<? extends RestAction<? extends T>> actions)
+    {
+        if (actions == null)
+            throw new NullPointerException("Provided collection was null!");
+
+        List<CompletableFuture<? extends T>> futures = new ArrayList<>(actions.size());
+        for (RestAction<? extends T> action : actions)
+            futures.add(action.submit());
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(v ->
+        {
+            List<T> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<? extends T> future : futures)
+                results.add(future.join());
+            return Collections.unmodifiableList(results);
+        });
+    }
+
+    public T block() throws RateLimitedException
+    {
         try
         {
-            return future.get();
+            return submit(false).get();
         }
         catch (Exception e)
         {
@@ -103,15 +277,9 @@ public abstract class RestAction<T>
 
     public T block(long timeout, TimeUnit timeUnit) throws RateLimitedException, TimeoutException
     {
-        CompletableFuture<T> future = new CompletableFuture<T>();
-        api.getRequester().request(new Request<T>(this,
-                successReturn -> future.complete(successReturn),
-                failThrowable -> future.completeExceptionally(failThrowable),
-                false));
-
         try
         {
-            return future.get(timeout, timeUnit);
+            return submit(false).get(timeout, timeUnit);
         }
         catch (Exception e)
         {
@@ -146,10 +314,17 @@ public abstract class RestAction<T>
         }
 
         @Override
-        public void queue(Consumer<T> success, Consumer<Throwable> failure)
+        public Request<T> queue(Consumer<T> success, Consumer<Throwable> failure)
         {
             if (success != null)
                 success.accept(returnObj);
+            return createRequest(success, failure, true);
+        }
+
+        @Override
+        public CompletableFuture<T> submit(boolean shouldQueue)
+        {
+            return CompletableFuture.completedFuture(returnObj);
         }
 
         @Override
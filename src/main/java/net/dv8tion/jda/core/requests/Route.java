@@ -20,9 +20,9 @@ import com.mashape.unirest.http.HttpMethod;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.mashape.unirest.http.HttpMethod.DELETE;
 import static com.mashape.unirest.http.HttpMethod.GET;
@@ -148,56 +148,88 @@ public class Route
         public static final Route PATCH_ROUTE =  new Route(PATCH, "{}");
     }
 
+    // Upper bound for the amount of ratelimit routes cached per Route, see compileRatelimitRoute(String[]).
+    private static final int MAX_CACHED_RATELIMIT_ROUTES = 10000;
+
     private final String route;
     private final String ratelimitRoute;
     private final String compilableRoute;
     private final int paramCount;
     private final HttpMethod method;
-    private final List<Integer> majorParamIndexes = new ArrayList<>();
+    private final int hashCode;
+
+    //The literal parts of the route between its parameters. Always contains paramCount + 1 elements.
+    private final String[] segments;
+    private final int segmentsLength;
+
+    //Same as segments, but only split at major parameters. Minor parameters are kept in their {name} form.
+    private final String[] ratelimitSegments;
+    private final int[] majorParamIndexes;
+    private final ConcurrentHashMap<String, String> ratelimitRouteCache;
 
     private Route(HttpMethod method, String route, String... majorParameters)
     {
         this.method = method;
         this.route = route;
+        this.hashCode = 31 * route.hashCode() + method.name().hashCode();
         this.paramCount = StringUtils.countMatches(route, '{'); //All parameters start with {
 
         if (paramCount != StringUtils.countMatches(route, '}'))
             throw new IllegalArgumentException("An argument does not have both {}'s for route: " + method + "  " + route);
 
-        //Create a String.format compilable route for parameter compiling.
-        compilableRoute = route.replaceAll("\\{.*?\\}","%s");
-
-        //If this route has major parameters that are unique markers for the ratelimit route, then we need to
-        // create a ratelimit compilable route. This goes through and replaces the parameters specified by majorParameters
-        // and records the parameter index so that when we compile it later we can select the proper parameters
-        // from the ones provided to make sure we inject in the proper indexes.
-        if (majorParameters.length != 0)
+        //Split the route at its parameters once so that compiling only has to concatenate the parts with the parameters.
+        // Major parameters are unique markers for the ratelimit route, so for those we also record their
+        // parameter index and split the ratelimit route only at them.
+        List<String> literals = new ArrayList<>(paramCount + 1);
+        List<String> ratelimitLiterals = new ArrayList<>();
+        List<Integer> majorIndexes = new ArrayList<>();
+        StringBuilder ratelimitLiteral = new StringBuilder();
+        int paramIndex = 0;
+        int literalStart = 0;
+        int open;
+        while ((open = route.indexOf('{', literalStart)) != -1)
         {
-            int paramIndex = 0;
-            String replaceRoute = route;
-            Pattern keyP = Pattern.compile("\\{(.*?)\\}");
-            Matcher keyM = keyP.matcher(route);
-            //Search the route for all parameters
-            while(keyM.find())
+            int close = route.indexOf('}', open);
+            if (close == -1)
+                throw new IllegalArgumentException("An argument does not have both {}'s for route: " + method + "  " + route);
+
+            String literal = route.substring(literalStart, open);
+            literals.add(literal);
+            ratelimitLiteral.append(literal);
+
+            String param = route.substring(open + 1, close);
+            if (Arrays.asList(majorParameters).contains(param))
+            {
+                ratelimitLiterals.add(ratelimitLiteral.toString());
+                ratelimitLiteral.setLength(0);
+                majorIndexes.add(paramIndex);
+            }
+            else
             {
-                String param = keyM.group(1);
-                //Attempt to match the found parameter with any of our majorParameters
-                for (String majorParam : majorParameters)
-                {
-                    //If the parameter is a major parameter, replace it with a string token and record its
-                    // parameter index for later ratelimitRoute compiling.
-                    if (param.equals(majorParam))
-                    {
-                        replaceRoute = replaceRoute.replace(keyM.group(0), "%s");
-                        majorParamIndexes.add(paramIndex);
-                    }
-                }
-                paramIndex++;
+                ratelimitLiteral.append(route, open, close + 1);
             }
-            ratelimitRoute = replaceRoute;
+            literalStart = close + 1;
+            paramIndex++;
         }
-        else
-            ratelimitRoute = route;
+        literals.add(route.substring(literalStart));
+        ratelimitLiteral.append(route, literalStart, route.length());
+        ratelimitLiterals.add(ratelimitLiteral.toString());
+
+        this.segments = literals.toArray(new String[literals.size()]);
+        this.ratelimitSegments = ratelimitLiterals.toArray(new String[ratelimitLiterals.size()]);
+        this.majorParamIndexes = new int[majorIndexes.size()];
+        for (int i = 0; i < majorParamIndexes.length; i++)
+            majorParamIndexes[i] = majorIndexes.get(i);
+
+        int length = 0;
+        for (String segment : segments)
+            length += segment.length();
+        this.segmentsLength = length;
+
+        //String.format compilable versions of the route, kept for getCompilableRoute() and getRatelimitRoute().
+        this.compilableRoute = String.join("%s", segments);
+        this.ratelimitRoute = majorParamIndexes.length == 0 ? route : String.join("%s", ratelimitSegments);
+        this.ratelimitRouteCache = majorParamIndexes.length == 0 ? null : new ConcurrentHashMap<>();
     }
 
     public HttpMethod getMethod()
@@ -234,29 +266,58 @@ public class Route
         }
 
         //Compile the route for interfacing with discord.
-        String compiledRoute = String.format(compilableRoute, (Object[]) params);
-        String compiledRatelimitRoute = ratelimitRoute;
+        int length = segmentsLength;
+        for (String param : params)
+            length += String.valueOf(param).length();
+
+        StringBuilder builder = new StringBuilder(length);
+        builder.append(segments[0]);
+        for (int i = 0; i < params.length; i++)
+            builder.append(params[i]).append(segments[i + 1]);
+        String compiledRoute = builder.toString();
 
         //If this route has major parameters which help to uniquely distinguish it from others of this route type then
         // compile it using the major parameter indexes we discovered in the constructor.
-        if (!majorParamIndexes.isEmpty())
-        {
+        String compiledRatelimitRoute = majorParamIndexes.length == 0 ? ratelimitRoute : compileRatelimitRoute(params);
 
-            String[] majorParams = new String[majorParamIndexes.size()];
-            for (int i = 0; i < majorParams.length; i++)
-            {
-                majorParams[i] = params[majorParamIndexes.get(i)];
-            }
-            compiledRatelimitRoute = String.format(compiledRatelimitRoute, (Object[]) majorParams);
+        return new CompiledRoute(this, compiledRatelimitRoute, compiledRoute);
+    }
+
+    /**
+     * Compiles the ratelimit route and returns a canonical instance of it.<br>
+     * Using the same String instance for the same ratelimit route means its hash is only ever computed once
+     * and bucket lookups in the {@link net.dv8tion.jda.core.requests.RateLimiter RateLimiter} can compare by identity.
+     * For the common case of a single major parameter the cache is keyed by that parameter,
+     * so no String has to be built at all for already known ratelimit routes.
+     */
+    private String compileRatelimitRoute(String[] params)
+    {
+        String key = majorParamIndexes.length == 1 ? params[majorParamIndexes[0]] : null;
+        if (key != null)
+        {
+            String cached = ratelimitRouteCache.get(key);
+            if (cached != null)
+                return cached;
         }
 
-        return new CompiledRoute(this, compiledRatelimitRoute, compiledRoute);
+        StringBuilder builder = new StringBuilder(ratelimitRoute.length() + 20 * majorParamIndexes.length);
+        builder.append(ratelimitSegments[0]);
+        for (int i = 0; i < majorParamIndexes.length; i++)
+            builder.append(params[majorParamIndexes[i]]).append(ratelimitSegments[i + 1]);
+        String compiled = builder.toString();
+
+        if (key == null)
+            key = compiled;
+        if (ratelimitRouteCache.size() >= MAX_CACHED_RATELIMIT_ROUTES)
+            ratelimitRouteCache.clear();
+        String existing = ratelimitRouteCache.putIfAbsent(key, compiled);
+        return existing != null ? existing : compiled;
     }
 
     @Override
     public int hashCode()
     {
-        return (route + method.toString()).hashCode();
+        return hashCode;
     }
 
     @Override
@@ -280,6 +341,7 @@ public class Route
         private final Route baseRoute;
         private final String ratelimitRoute;
         private final String compiledRoute;
+        private int hashCode;
 
         private CompiledRoute(Route baseRoute, String ratelimitRoute, String compiledRoute)
         {
@@ -311,7 +373,11 @@ public class Route
         @Override
         public int hashCode()
         {
-            return (compiledRoute + method.toString()).hashCode();
+            //Racy but idempotent lazy caching, the same way String caches its hash.
+            int hash = hashCode;
+            if (hash == 0)
+                hashCode = hash = 31 * compiledRoute.hashCode() + baseRoute.hashCode();
+            return hash;
         }
 
         @Override
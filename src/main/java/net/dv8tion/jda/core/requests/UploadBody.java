@@ -0,0 +1,132 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.dv8tion.jda.core.requests;
+
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.content.InputStreamBody;
+import org.apache.http.util.Args;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Multipart file body that streams its content to the connection with a bounded buffer instead of
+ * reading the whole file into memory first.
+ * <p>
+ * File bodies are read through a {@link java.nio.channels.FileChannel FileChannel} that is opened for every write,
+ * which keeps them repeatable when the {@link net.dv8tion.jda.core.requests.Requester Requester} retries a request.
+ * Stream bodies can only be written once.
+ */
+public class UploadBody extends InputStreamBody
+{
+    public static final int BUFFER_SIZE = 16 * 1024;
+
+    // InputStreamBody requires a stream even though file bodies open their own channel in writeTo.
+    private static final InputStream NO_STREAM = new ByteArrayInputStream(new byte[0]);
+
+    private final Path file;
+    private final long length;
+    private final UploadProgressListener progressListener;
+
+    private UploadBody(Path file, InputStream stream, long length, String fileName, UploadProgressListener progressListener)
+    {
+        super(stream, ContentType.DEFAULT_BINARY, fileName);
+        this.file = file;
+        this.length = length;
+        this.progressListener = progressListener;
+    }
+
+    public static UploadBody fromFile(Path file, String fileName, UploadProgressListener progressListener) throws IOException
+    {
+        Args.notNull(file, "file");
+        Args.notNull(fileName, "fileName");
+        return new UploadBody(file, NO_STREAM, Files.size(file), fileName, progressListener);
+    }
+
+    public static UploadBody fromStream(InputStream stream, String fileName, UploadProgressListener progressListener)
+    {
+        Args.notNull(stream, "data InputStream");
+        Args.notNull(fileName, "fileName");
+        return new UploadBody(null, stream, -1, fileName, progressListener);
+    }
+
+    @Override
+    public long getContentLength()
+    {
+        return length;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException
+    {
+        Args.notNull(out, "Output stream");
+        byte[] buffer = new byte[BUFFER_SIZE];
+        if (file != null)
+        {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+            {
+                ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+                long sent = 0;
+                int read;
+                while ((read = channel.read(wrapped)) >= 0)
+                {
+                    out.write(buffer, 0, read);
+                    wrapped.clear();
+                    sent += read;
+                    onProgress(sent);
+                }
+            }
+        }
+        else
+        {
+            try (InputStream in = getInputStream())
+            {
+                long sent = 0;
+                int read;
+                while ((read = in.read(buffer)) >= 0)
+                {
+                    out.write(buffer, 0, read);
+                    sent += read;
+                    onProgress(sent);
+                }
+            }
+        }
+        out.flush();
+    }
+
+    private void onProgress(long sent)
+    {
+        if (progressListener == null)
+            return;
+        try
+        {
+            progressListener.onProgress(sent, length);
+        }
+        catch (Throwable t)
+        {
+            Requester.LOG.fatal("Encountered error while processing upload progress listener");
+            Requester.LOG.log(t);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.dv8tion.jda.core.requests;
+
+/**
+ * Receives progress updates while a file is uploaded to Discord.
+ *
+ * @see net.dv8tion.jda.core.entities.MessageChannel#sendFile(java.nio.file.Path, String, net.dv8tion.jda.core.entities.Message, UploadProgressListener)
+ * @see net.dv8tion.jda.core.entities.MessageChannel#sendFile(java.io.InputStream, String, net.dv8tion.jda.core.entities.Message, UploadProgressListener)
+ */
+@FunctionalInterface
+public interface UploadProgressListener
+{
+    /**
+     * Called on the requesting thread every time a chunk of the file was written to the connection.<br>
+     * If the upload is retried the progress starts at 0 again.
+     *
+     * @param bytesSent
+     *          The amount of bytes of the file that were written so far.
+     * @param totalBytes
+     *          The size of the file in bytes, or -1 if the size is unknown.
+     */
+    void onProgress(long bytesSent, long totalBytes);
+}
@@ -84,14 +84,26 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     protected boolean firstInit = true;
 
     public WebSocketClient(JDAImpl api)
+    {
+        this(api, true);
+    }
+
+    /**
+     * Creates a client without a sending thread and WebSocket if {@code connect} is false.
+     * Used to feed recorded events through {@link #handleEvent(JSONObject)}.
+     */
+    protected WebSocketClient(JDAImpl api, boolean connect)
     {
         this.api = api;
         this.shardInfo = api.getShardInfo();
         this.proxy = api.getGlobalProxy();
         this.shouldReconnect = api.isAutoReconnect();
         setupHandlers();
-        setupSendingThread();
-        connect();
+        if (connect)
+        {
+            setupSendingThread();
+            connect();
+        }
     }
 
     public void setAutoReconnect(boolean reconnect)
@@ -153,7 +165,18 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
 
     public void handle(List<JSONObject> events)
     {
-        events.forEach(this::handleEvent);
+        //Replayed events do not belong to the dispatch that triggered the replay.
+        DispatchTracer tracer = api.getDispatchTracer();
+        DispatchTracer.Trace previous = tracer == null ? null : tracer.attach(null);
+        try
+        {
+            events.forEach(this::handleEvent);
+        }
+        finally
+        {
+            if (tracer != null)
+                tracer.restore(previous);
+        }
     }
 
     public void send(String message)
@@ -423,6 +446,23 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     @Override
     public void onTextMessage(WebSocket websocket, String message)
     {
+        DispatchTracer tracer = api.getDispatchTracer();
+        long receivedAt = tracer == null ? 0 : System.nanoTime();
+
+        RawGatewayListener rawListener = api.getRawGatewayListener();
+        if (rawListener != null)
+        {
+            try
+            {
+                rawListener.onRawMessage(message);
+            }
+            catch (Throwable t)
+            {
+                LOG.fatal("The RawGatewayListener had an uncaught exception");
+                LOG.log(t);
+            }
+        }
+
         JSONObject content = new JSONObject(message);
         int opCode = content.getInt("op");
 
@@ -434,7 +474,20 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         switch (opCode)
         {
             case 0:
-                handleEvent(content);
+                if (tracer == null)
+                {
+                    handleEvent(content);
+                    break;
+                }
+                DispatchTracer.Trace previous = tracer.begin(content.getString("t"), receivedAt, System.nanoTime());
+                try
+                {
+                    handleEvent(content);
+                }
+                finally
+                {
+                    tracer.restore(previous);
+                }
                 break;
             case 1:
                 LOG.debug("Got Keep-Alive request (OP 1). Sending response...");
@@ -27,9 +27,8 @@ import org.json.JSONObject;
 
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Iterator;
 import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -86,6 +85,7 @@ public class BotRateLimiter extends RateLimiter
                     retry = limitObj.get("retry_after").toString();
                 }
                 long retryAfter = Long.parseLong(retry);
+                requester.getMetricsListener().onRateLimited(route, Boolean.parseBoolean(global), retryAfter);
                 if (!Boolean.parseBoolean(global))  //Not global ratelimit
                 {
                     updateBucket(bucket, headers);
@@ -159,6 +159,7 @@ public class BotRateLimiter extends RateLimiter
             bucket.resetTime = Long.parseLong(headers.getFirst("X-RateLimit-Reset")) * 1000; //Seconds to milliseconds
             bucket.routeUsageLimit = Integer.parseInt(headers.getFirst("X-RateLimit-Limit"));
             bucket.routeUsageRemaining = Integer.parseInt(headers.getFirst("X-RateLimit-Remaining"));
+            requester.getMetricsListener().onBucketUpdate(bucket.route, bucket.routeUsageLimit, bucket.routeUsageRemaining, bucket.resetTime);
 
         }
         catch (NumberFormatException ex)
@@ -182,7 +183,7 @@ public class BotRateLimiter extends RateLimiter
         volatile long resetTime = 0;
         volatile int routeUsageRemaining = 1;    //These are default values to only allow 1 request until we have properly
         volatile int routeUsageLimit = 1;        // ratelimit information.
-        volatile ConcurrentLinkedQueue<Request> requests = new ConcurrentLinkedQueue<>();
+        volatile PriorityBlockingQueue<Request<?>> requests = new PriorityBlockingQueue<>(11, Request.PRIORITY_ORDER);
 
         public Bucket(String route)
         {
@@ -261,29 +262,25 @@ public class BotRateLimiter extends RateLimiter
             {
                 synchronized (requests)
                 {
-                    for (Iterator<Request> it = requests.iterator(); it.hasNext(); )
+                    Request request;
+                    while ((request = requests.poll()) != null)
                     {
-                        Request request = null;
                         try
                         {
-                            request = it.next();
                             Long retryAfter = requester.execute(request);
                             if (retryAfter != null)
                             {
+                                //Put the request back in its place and fail everything that can't wait for the ratelimit to pass.
+                                requests.add(request);
+                                dropStaleRequests(requests, System.currentTimeMillis() + retryAfter);
                                 break;
                             }
-                            else
-                            {
-                                it.remove();
-                            }
                         }
                         catch (Throwable t)
                         {
                             Requester.LOG.fatal("Requester system encountered an internal error");
                             Requester.LOG.log(t);
-                            it.remove();
-                            if (request != null)
-                                request.onFailure(t);
+                            request.onFailure(t);
                         }
                     }
 
@@ -318,7 +315,7 @@ public class BotRateLimiter extends RateLimiter
         }
 
         @Override
-        public Queue<Request> getRequests()
+        public Queue<Request<?>> getRequests()
         {
             return requests;
         }
@@ -70,7 +70,9 @@ public class ClientRateLimiter extends RateLimiter
             {
                 JSONObject limitObj = new JSONObject(response.getBody());
                 long retryAfter = limitObj.getLong("retry_after");
-                if (limitObj.has("global") && limitObj.getBoolean("global"))    //Global ratelimit
+                boolean global = limitObj.has("global") && limitObj.getBoolean("global");
+                requester.getMetricsListener().onRateLimited(route, global, retryAfter);
+                if (global)    //Global ratelimit
                 {
                     globalCooldown = now + retryAfter;
                 }
@@ -109,7 +111,7 @@ public class ClientRateLimiter extends RateLimiter
     {
         final String route;
         volatile long retryAfter = 0;
-        volatile ConcurrentLinkedQueue<Request> requests = new ConcurrentLinkedQueue<>();
+        volatile PriorityBlockingQueue<Request<?>> requests = new PriorityBlockingQueue<>(11, Request.PRIORITY_ORDER);
 
         public Bucket(String route)
         {
@@ -184,29 +186,25 @@ public class ClientRateLimiter extends RateLimiter
             {
                 synchronized (requests)
                 {
-                    for (Iterator<Request> it = requests.iterator(); it.hasNext(); )
+                    Request request;
+                    while ((request = requests.poll()) != null)
                     {
-                        Request request = null;
                         try
                         {
-                            request = it.next();
                             Long retryAfter = requester.execute(request);
                             if (retryAfter != null)
                             {
+                                //Put the request back in its place and fail everything that can't wait for the ratelimit to pass.
+                                requests.add(request);
+                                dropStaleRequests(requests, System.currentTimeMillis() + retryAfter);
                                 break;
                             }
-                            else
-                            {
-                                it.remove();
-                            }
                         }
                         catch (Throwable t)
                         {
                             Requester.LOG.fatal("Requester system encountered an internal error");
                             Requester.LOG.log(t);
-                            it.remove();
-                            if (request != null)
-                                request.onFailure(t);
+                            request.onFailure(t);
                         }
                     }
 
@@ -241,7 +239,7 @@ public class ClientRateLimiter extends RateLimiter
         }
 
         @Override
-        public Queue<Request> getRequests()
+        public Queue<Request<?>> getRequests()
         {
             return requests;
         }
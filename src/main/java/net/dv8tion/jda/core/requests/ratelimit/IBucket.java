@@ -23,5 +23,5 @@ import java.util.Queue;
 public interface IBucket
 {
     String getRoute();
-    Queue<Request> getRequests();
+    Queue<Request<?>> getRequests();
 }
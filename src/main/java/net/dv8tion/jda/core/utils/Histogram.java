@@ -0,0 +1,185 @@
+/*
+ *     Copyright 2015-2016 Austin Keener & Michael Ritter
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.dv8tion.jda.core.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram with logarithmic buckets, used to record latencies and similar non-negative values.
+ * <p>
+ * Every power of two is split into 16 linear sub-buckets, which bounds the relative error of reported
+ * percentiles to about 6% over the whole range of {@code long} values while using a fixed amount of memory.
+ * Recording a value never allocates and is safe to do from multiple threads at once.
+ */
+public class Histogram
+{
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalSum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a single value. Negative values are recorded as 0.
+     *
+     * @param value
+     *          The value to record.
+     */
+    public void record(long value)
+    {
+        if (value < 0)
+            value = 0;
+        counts.incrementAndGet(indexOf(value));
+        totalCount.increment();
+        totalSum.add(value);
+
+        long currentMax;
+        while (value > (currentMax = max.get()) && !max.compareAndSet(currentMax, value));
+    }
+
+    public long getCount()
+    {
+        return totalCount.sum();
+    }
+
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    public double getMean()
+    {
+        long count = totalCount.sum();
+        return count == 0 ? 0 : (double) totalSum.sum() / count;
+    }
+
+    /**
+     * The (approximated) value below which the provided percentage of recorded values lie.
+     *
+     * @param percentile
+     *          The percentile, between 0 and 100.
+     * @return
+     *      The upper bound of the bucket containing the requested percentile, or 0 if nothing was recorded.
+     */
+    public long getPercentile(double percentile)
+    {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+
+        long count = totalCount.sum();
+        if (count == 0)
+            return 0;
+
+        long target = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            seen += counts.get(i);
+            if (seen >= target)
+                return Math.min(upperBoundOf(i), getMax());
+        }
+        return getMax();
+    }
+
+    /**
+     * Adds all values recorded by the provided histogram to this histogram.
+     * <br>Values recorded concurrently to the provided histogram may or may not be included.
+     *
+     * @param other
+     *          The histogram to add.
+     */
+    public void add(Histogram other)
+    {
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            long count = other.counts.get(i);
+            if (count != 0)
+                counts.addAndGet(i, count);
+        }
+        totalCount.add(other.totalCount.sum());
+        totalSum.add(other.totalSum.sum());
+
+        long value = other.max.get();
+        long currentMax;
+        while (value > (currentMax = max.get()) && !max.compareAndSet(currentMax, value));
+    }
+
+    /**
+     * Resets all recorded values. Values recorded concurrently to a reset may or may not be kept.
+     */
+    public void reset()
+    {
+        for (int i = 0; i < BUCKET_COUNT; i++)
+            counts.set(i, 0);
+        totalCount.reset();
+        totalSum.reset();
+        max.set(0);
+    }
+
+    /**
+     * Formats count, mean, common percentiles and max of this histogram, interpreting recorded values as nanoseconds.
+     *
+     * @param unit
+     *          The unit the values are displayed in.
+     * @return
+     *      A short human readable summary.
+     */
+    public String toString(TimeUnit unit)
+    {
+        return String.format("count=%d mean=%.2f p50=%d p90=%d p99=%d p99.9=%d max=%d (%s)",
+                getCount(), getMean() / unit.toNanos(1),
+                unit.convert(getPercentile(50), TimeUnit.NANOSECONDS),
+                unit.convert(getPercentile(90), TimeUnit.NANOSECONDS),
+                unit.convert(getPercentile(99), TimeUnit.NANOSECONDS),
+                unit.convert(getPercentile(99.9), TimeUnit.NANOSECONDS),
+                unit.convert(getMax(), TimeUnit.NANOSECONDS),
+                unit.name().toLowerCase());
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("count=%d mean=%.2f p50=%d p90=%d p99=%d max=%d",
+                getCount(), getMean(), getPercentile(50), getPercentile(90), getPercentile(99), getMax());
+    }
+
+    private static int indexOf(long value)
+    {
+        if (value < SUB_BUCKET_COUNT)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long upperBoundOf(int index)
+    {
+        if (index < SUB_BUCKET_COUNT)
+            return index;
+        int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKET_COUNT;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lowerBound = (SUB_BUCKET_COUNT + subBucket) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}